@@ -0,0 +1,123 @@
+/*
+ * @(#)BatchBenchmark.java
+ *
+ * Title: WEJAC - Will's Elided Java Api Compiler.
+ *
+ * Description: Benchmark of compiling one large synthetic Java source file against many, in a batch and one at
+ *     a time.
+ *
+ * @author William F. Gilreath (wfgilreath@yahoo.com)
+ * @version 2.1  6/26/19
+ *
+ * Copyright © 2019 All Rights Reserved.
+ *
+ * License: This software is subject to the terms of the GNU General Public License (GPL)
+ *     version 3.0 available at the following link: http://www.gnu.org/copyleft/gpl.html.
+ *
+ * You must accept the terms of the GNU General Public License (GPL) license agreement
+ *     to use this software.
+ *
+ **/
+package will.wejac;
+
+import java.io.IOException;
+
+import java.nio.file.Path;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(2)
+public class BatchBenchmark {
+
+    @Param({ "16" })
+    public int count; //number of synthetic Java source files
+
+    @Param({ "200" })
+    public int methods; //number of methods of each synthetic class
+
+    private Path         source     = null; //directory of the synthetic Java source files
+    private Path         output     = null; //directory of the class files output
+    private List<String> one        = null; //command line arguments of the compiler for one file
+    private List<String> batch      = null; //command line arguments of the compiler for a batch of files
+    private List<String> sequential = null; //command line arguments of the compiler for files one at a time
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+
+        source = BenchmarkSupport.createDirectory("wejacsource");
+        output = BenchmarkSupport.createDirectory("wejacbench");
+
+        List<String> files = BenchmarkSupport.generateSources(source, count, methods);
+
+        one        = BenchmarkSupport.getArgs(Collections.<String>emptyList(), output, files.subList(0, 1));
+        batch      = BenchmarkSupport.getArgs(Collections.singletonList("-batch"), output, files);
+        sequential = BenchmarkSupport.getArgs(Collections.<String>emptyList(), output, files);
+
+    }//end setup
+
+    @TearDown(Level.Trial)
+    public void teardown() throws IOException {
+
+        BenchmarkSupport.deleteDirectory(source);
+        BenchmarkSupport.deleteDirectory(output);
+
+    }//end teardown
+
+    /**
+     * Compile one large synthetic Java source file.
+     *
+     * @return int - exit status of the compiler.
+     */
+    @Benchmark
+    public int oneFile() {
+
+        return BenchmarkSupport.compile(one);
+
+    }//end oneFile
+
+    /**
+     * Compile all the synthetic Java source files as one batch in a single compilation task.
+     *
+     * @return int - exit status of the compiler.
+     */
+    @Benchmark
+    public int manyFilesBatch() {
+
+        return BenchmarkSupport.compile(batch);
+
+    }//end manyFilesBatch
+
+    /**
+     * Compile all the synthetic Java source files one at a time, each in its own compilation task.
+     *
+     * @return int - exit status of the compiler.
+     */
+    @Benchmark
+    public int manyFilesSequential() {
+
+        return BenchmarkSupport.compile(sequential);
+
+    }//end manyFilesSequential
+
+}//end class BatchBenchmark
@@ -0,0 +1,77 @@
+/*
+ * @(#)BenchmarkMain.java
+ *
+ * Title: WEJAC - Will's Elided Java Api Compiler.
+ *
+ * Description: Runner of the WEJAC benchmarks that adds the GC profiler, to report the allocation rate with the
+ *     throughput, to the JMH command line options.
+ *
+ * @author William F. Gilreath (wfgilreath@yahoo.com)
+ * @version 2.1  6/26/19
+ *
+ * Copyright © 2019 All Rights Reserved.
+ *
+ * License: This software is subject to the terms of the GNU General Public License (GPL)
+ *     version 3.0 available at the following link: http://www.gnu.org/copyleft/gpl.html.
+ *
+ * You must accept the terms of the GNU General Public License (GPL) license agreement
+ *     to use this software.
+ *
+ **/
+package will.wejac;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public final class BenchmarkMain {
+
+    /**
+     * Private constructor to prevent instantiating this class.
+     */
+    private BenchmarkMain() {
+    }//end constructor
+
+    /**
+     * Run the benchmarks selected by the JMH command line options, always with the GC profiler, and with the
+     * directory of sample Java source files passed on to each forked Java virtual machine.
+     *
+     * @param args - JMH command line options, such as a benchmark regular expression or -f for forks.
+     * @throws IOException - if the JMH help cannot be printed.
+     * @throws CommandLineOptionException - if a JMH command line option is not valid.
+     * @throws RunnerException - if a benchmark fails to run.
+     */
+    public static void main(final String[] args) throws IOException, CommandLineOptionException,
+                                                RunnerException {
+
+        CommandLineOptions cmd = new CommandLineOptions(args);
+
+        if (cmd.shouldHelp()) {
+            cmd.showHelp();
+            return;
+        }//end if
+
+        if (cmd.shouldList()) {
+            new Runner(cmd).list();
+            return;
+        }//end if
+
+        ChainedOptionsBuilder opts = new OptionsBuilder().parent(cmd).addProfiler(GCProfiler.class);
+
+        String code = System.getProperty(BenchmarkSupport.CODE_PROPERTY);
+
+        if (code != null) {
+            opts.jvmArgsAppend("-D" + BenchmarkSupport.CODE_PROPERTY + "=" + code);
+        }//end if
+
+        new Runner(opts.build()).run();
+
+    }//end main
+
+}//end class BenchmarkMain
@@ -0,0 +1,212 @@
+/*
+ * @(#)BenchmarkSupport.java
+ *
+ * Title: WEJAC - Will's Elided Java Api Compiler.
+ *
+ * Description: Shared support of the WEJAC benchmarks to locate the sample Java source files, generate large
+ *     synthetic Java source files, and run the compiler with its output discarded.
+ *
+ * @author William F. Gilreath (wfgilreath@yahoo.com)
+ * @version 2.1  6/26/19
+ *
+ * Copyright © 2019 All Rights Reserved.
+ *
+ * License: This software is subject to the terms of the GNU General Public License (GPL)
+ *     version 3.0 available at the following link: http://www.gnu.org/copyleft/gpl.html.
+ *
+ * You must accept the terms of the GNU General Public License (GPL) license agreement
+ *     to use this software.
+ *
+ **/
+package will.wejac;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class BenchmarkSupport {
+
+    final static String CODE_PROPERTY = "wejac.code"; //system property of the directory of sample source files
+
+    private final static String CODE_DEFAULT = "../code"; //directory of sample source files from the bench module
+
+    private final static PrintStream NULL_OUT = new PrintStream(OutputStream.nullOutputStream()); //discarded output
+    private final static PrintWriter NULL_ERR = new PrintWriter(OutputStream.nullOutputStream()); //discarded errors
+
+    /**
+     * Private constructor to prevent instantiating this class.
+     */
+    private BenchmarkSupport() {
+    }//end constructor
+
+    /**
+     * Get the path of a sample Java source file in the code directory of the repository.
+     *
+     * @param fileName - name of the sample Java source file.
+     * @return String  - absolute path of the sample Java source file.
+     * @throws IllegalStateException - if the sample Java source file does not exist.
+     */
+    static String getSample(final String fileName) {
+
+        Path path = Paths.get(System.getProperty(CODE_PROPERTY, CODE_DEFAULT), fileName).toAbsolutePath().normalize();
+
+        if (!Files.isRegularFile(path)) {
+            throw new IllegalStateException("Sample file: '" + path + "' not found, set -D" + CODE_PROPERTY + "=dir");
+        }//end if
+
+        return path.toString();
+
+    }//end getSample
+
+    /**
+     * Create a temporary directory for class files output or generated Java source files. The name has no dash,
+     * which the compiler would take for an option.
+     *
+     * @param prefix - prefix of the temporary directory name.
+     * @return Path  - the temporary directory.
+     * @throws IOException - if the temporary directory cannot be created.
+     */
+    static Path createDirectory(final String prefix) throws IOException {
+
+        return Files.createTempDirectory(prefix);
+
+    }//end createDirectory
+
+    /**
+     * Generate large synthetic Java source files, each a class of many methods with loops, generics, and string
+     * concatenation, and each calling the class generated before it so the files depend on each other.
+     *
+     * @param dir     - directory to write the Java source files.
+     * @param count   - number of Java source files.
+     * @param methods - number of methods of each class.
+     * @return List   - paths of the Java source files.
+     * @throws IOException - if a Java source file cannot be written.
+     */
+    static List<String> generateSources(final Path dir, final int count, final int methods) throws IOException {
+
+        List<String> files = new ArrayList<>(count);
+
+        for (int x = 0; x < count; x++) {
+
+            String        name = "Synthetic" + x;
+            StringBuilder code = new StringBuilder(methods * 400);
+
+            code.append("import java.util.ArrayList;\n");
+            code.append("import java.util.HashMap;\n");
+            code.append("import java.util.List;\n");
+            code.append("import java.util.Map;\n\n");
+            code.append("public class ").append(name).append(" {\n\n");
+
+            for (int m = 0; m < methods; m++) {
+
+                code.append("    public Map<String, List<Integer>> method").append(m).append("(final int limit) {\n");
+                code.append("        Map<String, List<Integer>> map = new HashMap<>();\n");
+                code.append("        for (int i = 0; i < limit; i++) {\n");
+                code.append("            List<Integer> list = new ArrayList<>();\n");
+                code.append("            list.add(i * ").append(m).append(");\n");
+                code.append("            map.put(\"key\" + i + \"-").append(m).append("\", list);\n");
+                code.append("        }\n");
+
+                if (x > 0) {
+                    code.append("        map.putAll(new Synthetic").append(x - 1).append("().method")
+                        .append(m).append("(limit - 1));\n");
+                }//end if
+
+                code.append("        return map;\n");
+                code.append("    }\n\n");
+
+            }//end for
+
+            code.append("}\n");
+
+            Path file = dir.resolve(name + ".java");
+            Files.write(file, code.toString().getBytes(StandardCharsets.UTF_8));
+            files.add(file.toString());
+
+        }//end for
+
+        return files;
+
+    }//end generateSources
+
+    /**
+     * Run the compiler on command line arguments with all its output discarded.
+     *
+     * @param args - command line arguments of the compiler.
+     * @return int - exit status of the compiler.
+     */
+    static int compile(final List<String> args) {
+
+        return new Compiler(NULL_OUT, NULL_ERR).compile(args.toArray(new String[0]));
+
+    }//end compile
+
+    /**
+     * Build the command line arguments of the compiler for WEJAC options, class files output to a directory that
+     * is also the class path, so Java source files compiled one at a time find the classes compiled before, and
+     * Java source files.
+     *
+     * @param options - WEJAC options, such as -brief or -batch.
+     * @param output  - directory of the class files output.
+     * @param files   - Java source files to compile.
+     * @return List   - the command line arguments.
+     */
+    static List<String> getArgs(final List<String> options, final Path output, final List<String> files) {
+
+        List<String> args = new ArrayList<>(options);
+
+        args.add("-javac");
+        args.add("-d");
+        args.add(output.toString());
+        args.add("-cp");
+        args.add(output.toString());
+        args.add("-Xlint:all");
+        args.addAll(files);
+
+        return args;
+
+    }//end getArgs
+
+    /**
+     * Delete a temporary directory and all the files in it.
+     *
+     * @param dir - the temporary directory, or null.
+     * @throws IOException - if a file cannot be deleted.
+     */
+    static void deleteDirectory(final Path dir) throws IOException {
+
+        if (dir == null || !Files.exists(dir)) {
+            return;
+        }//end if
+
+        Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }//end visitFile
+
+            @Override
+            public FileVisitResult postVisitDirectory(final Path path, final IOException ex) throws IOException {
+                Files.delete(path);
+                return FileVisitResult.CONTINUE;
+            }//end postVisitDirectory
+
+        });
+
+    }//end deleteDirectory
+
+}//end class BenchmarkSupport
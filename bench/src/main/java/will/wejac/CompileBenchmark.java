@@ -0,0 +1,101 @@
+/*
+ * @(#)CompileBenchmark.java
+ *
+ * Title: WEJAC - Will's Elided Java Api Compiler.
+ *
+ * Description: Benchmark of compiling each sample Java source file with a warm and with a cold compiler.
+ *
+ * @author William F. Gilreath (wfgilreath@yahoo.com)
+ * @version 2.1  6/26/19
+ *
+ * Copyright © 2019 All Rights Reserved.
+ *
+ * License: This software is subject to the terms of the GNU General Public License (GPL)
+ *     version 3.0 available at the following link: http://www.gnu.org/copyleft/gpl.html.
+ *
+ * You must accept the terms of the GNU General Public License (GPL) license agreement
+ *     to use this software.
+ *
+ **/
+package will.wejac;
+
+import java.io.IOException;
+
+import java.nio.file.Path;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class CompileBenchmark {
+
+    @Param({ "HelloWorld.java", "HelloWorldBad.java", "Unchecked.java", "badLiteralString.java" })
+    public String sample; //name of the sample Java source file
+
+    private Path         output = null; //directory of the class files output
+    private List<String> args   = null; //command line arguments of the compiler
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+
+        output = BenchmarkSupport.createDirectory("wejacbench");
+        args   = BenchmarkSupport.getArgs(Collections.<String>emptyList(), output,
+                                          Collections.singletonList(BenchmarkSupport.getSample(sample)));
+
+    }//end setup
+
+    @TearDown(Level.Trial)
+    public void teardown() throws IOException {
+
+        BenchmarkSupport.deleteDirectory(output);
+
+    }//end teardown
+
+    /**
+     * Compile with a warm compiler, reusing a pooled file manager with its opened archives and cached listings.
+     *
+     * @return int - exit status of the compiler.
+     */
+    @Benchmark
+    public int warm() {
+
+        return BenchmarkSupport.compile(args);
+
+    }//end warm
+
+    /**
+     * Compile with a cold file manager, closing the pooled file managers first so the platform classes and class
+     * path are opened and listed again as by the first compilation in a process.
+     *
+     * @return int - exit status of the compiler.
+     * @throws IOException - if a pooled file manager cannot be closed.
+     */
+    @Benchmark
+    public int cold() throws IOException {
+
+        FileManagerPool.clear();
+        return BenchmarkSupport.compile(args);
+
+    }//end cold
+
+}//end class CompileBenchmark
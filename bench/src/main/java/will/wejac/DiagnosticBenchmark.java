@@ -0,0 +1,101 @@
+/*
+ * @(#)DiagnosticBenchmark.java
+ *
+ * Title: WEJAC - Will's Elided Java Api Compiler.
+ *
+ * Description: Benchmark of compiling sample Java source files with diagnostics in brief and full rendering.
+ *
+ * @author William F. Gilreath (wfgilreath@yahoo.com)
+ * @version 2.1  6/26/19
+ *
+ * Copyright © 2019 All Rights Reserved.
+ *
+ * License: This software is subject to the terms of the GNU General Public License (GPL)
+ *     version 3.0 available at the following link: http://www.gnu.org/copyleft/gpl.html.
+ *
+ * You must accept the terms of the GNU General Public License (GPL) license agreement
+ *     to use this software.
+ *
+ **/
+package will.wejac;
+
+import java.io.IOException;
+
+import java.nio.file.Path;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class DiagnosticBenchmark {
+
+    @Param({ "HelloWorldBad.java", "Unchecked.java", "badLiteralString.java" })
+    public String sample; //name of the sample Java source file with diagnostics
+
+    private Path         output = null; //directory of the class files output
+    private List<String> brief  = null; //command line arguments of the compiler for brief diagnostics
+    private List<String> full   = null; //command line arguments of the compiler for full diagnostics
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+
+        List<String> files = Collections.singletonList(BenchmarkSupport.getSample(sample));
+
+        output = BenchmarkSupport.createDirectory("wejacbench");
+        brief  = BenchmarkSupport.getArgs(Collections.singletonList("-brief"), output, files);
+        full   = BenchmarkSupport.getArgs(Collections.<String>emptyList(), output, files);
+
+    }//end setup
+
+    @TearDown(Level.Trial)
+    public void teardown() throws IOException {
+
+        BenchmarkSupport.deleteDirectory(output);
+
+    }//end teardown
+
+    /**
+     * Compile with only the count of each kind of diagnostic reported.
+     *
+     * @return int - exit status of the compiler.
+     */
+    @Benchmark
+    public int brief() {
+
+        return BenchmarkSupport.compile(brief);
+
+    }//end brief
+
+    /**
+     * Compile with each diagnostic rendered with its message and line of source code.
+     *
+     * @return int - exit status of the compiler.
+     */
+    @Benchmark
+    public int full() {
+
+        return BenchmarkSupport.compile(full);
+
+    }//end full
+
+}//end class DiagnosticBenchmark
@@ -0,0 +1,82 @@
+/*
+ * @(#)StartupBenchmark.java
+ *
+ * Title: WEJAC - Will's Elided Java Api Compiler.
+ *
+ * Description: Benchmark of the first compilation in a new Java virtual machine, a cold start of the compiler.
+ *
+ * @author William F. Gilreath (wfgilreath@yahoo.com)
+ * @version 2.1  6/26/19
+ *
+ * Copyright © 2019 All Rights Reserved.
+ *
+ * License: This software is subject to the terms of the GNU General Public License (GPL)
+ *     version 3.0 available at the following link: http://www.gnu.org/copyleft/gpl.html.
+ *
+ * You must accept the terms of the GNU General Public License (GPL) license agreement
+ *     to use this software.
+ *
+ **/
+package will.wejac;
+
+import java.io.IOException;
+
+import java.nio.file.Path;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class StartupBenchmark {
+
+    private Path         output = null; //directory of the class files output
+    private List<String> args   = null; //command line arguments of the compiler
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+
+        output = BenchmarkSupport.createDirectory("wejacbench");
+        args   = BenchmarkSupport.getArgs(Collections.<String>emptyList(), output,
+                                          Collections.singletonList(BenchmarkSupport.getSample("HelloWorld.java")));
+
+    }//end setup
+
+    @TearDown(Level.Trial)
+    public void teardown() throws IOException {
+
+        BenchmarkSupport.deleteDirectory(output);
+
+    }//end teardown
+
+    /**
+     * Compile once in a new Java virtual machine, with the compiler classes not yet loaded or compiled.
+     *
+     * @return int - exit status of the compiler.
+     */
+    @Benchmark
+    public int firstCompile() {
+
+        return BenchmarkSupport.compile(args);
+
+    }//end firstCompile
+
+}//end class StartupBenchmark
@@ -0,0 +1,72 @@
+/*
+ * @(#)CompileResultTest.java
+ *
+ * Title: WEJAC - Will's Elided Java Api Compiler.
+ *
+ * Description: Tests of the result of a compile by a host embedding the compiler.
+ *
+ * @author William F. Gilreath (wfgilreath@yahoo.com)
+ * @version 2.1  6/26/19
+ *
+ * Copyright © 2019 All Rights Reserved.
+ *
+ * License: This software is subject to the terms of the GNU General Public License (GPL)
+ *     version 3.0 available at the following link: http://www.gnu.org/copyleft/gpl.html.
+ *
+ * You must accept the terms of the GNU General Public License (GPL) license agreement
+ *     to use this software.
+ *
+ **/
+package will.wejac;
+
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public final class CompileResultTest {
+
+    /**
+     * A Java source file that is not found is a problem, with its text in the result and no diagnostics.
+     */
+    @Test
+    public void testProblemMessage() {
+
+        CompileResult result = Compiler.compile(CompilerOptions.builder().build(),
+                                                Collections.singletonList("/nonexist/X.java"));
+
+        Assert.assertEquals(Compiler.EXIT_CODE_PROBLEM, result.getStatus());
+        Assert.assertTrue(result.getDiagnostics().isEmpty());
+        Assert.assertNotNull(result.getMessage());
+        Assert.assertTrue(result.getMessage(), result.getMessage().contains("/nonexist/X.java"));
+
+    }//end testProblemMessage
+
+    /**
+     * A Java source file that compiles has no problem text in the result.
+     *
+     * @throws IOException - if the Java source file cannot be written.
+     */
+    @Test
+    public void testSuccessMessage() throws IOException {
+
+        Path dir    = Files.createTempDirectory("wejac");
+        Path source = dir.resolve("A.java");
+
+        Files.write(source, "class A { }".getBytes(StandardCharsets.UTF_8));
+
+        CompileResult result = Compiler.compile(CompilerOptions.builder().build(),
+                                                Collections.singletonList(source.toString()));
+
+        Assert.assertEquals(Compiler.EXIT_CODE_SUCCESS, result.getStatus());
+        Assert.assertNull(result.getMessage());
+
+    }//end testSuccessMessage
+
+}//end class CompileResultTest
@@ -0,0 +1,160 @@
+/*
+ * @(#)IncrementalCompileTest.java
+ *
+ * Title: WEJAC - Will's Elided Java Api Compiler.
+ *
+ * Description: Tests of the incremental compile of the Java source files changed since the last compile.
+ *
+ * @author William F. Gilreath (wfgilreath@yahoo.com)
+ * @version 2.1  6/26/19
+ *
+ * Copyright © 2019 All Rights Reserved.
+ *
+ * License: This software is subject to the terms of the GNU General Public License (GPL)
+ *     version 3.0 available at the following link: http://www.gnu.org/copyleft/gpl.html.
+ *
+ * You must accept the terms of the GNU General Public License (GPL) license agreement
+ *     to use this software.
+ *
+ **/
+package will.wejac;
+
+import java.io.IOException;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public final class IncrementalCompileTest {
+
+    /**
+     * A dependent of a changed API is compiled even when an unrelated Java source file fails, so its class file
+     * links with the changed API, and the failed file is compiled again in the next run.
+     *
+     * @throws Exception - if a Java source file cannot be written or a compiled class cannot be run.
+     */
+    @Test
+    public void testDependentOfChangedApiWithError() throws Exception {
+
+        Path dir = Files.createTempDirectory("wejac");
+        Path out = dir.resolve("out");
+
+        write(dir, "A", "public static long f() { return 1; }");
+        write(dir, "C", "public static Object g() { return A.f(); }");
+        write(dir, "E", "");
+
+        CompilerOptions options = CompilerOptions.builder().incremental(true).javac("-d", out.toString()).build();
+        List<String>    sources = Arrays.asList(dir.resolve("p/A.java").toString(), dir.resolve("p/C.java").toString(),
+                                                dir.resolve("p/E.java").toString());
+
+        Assert.assertEquals(Compiler.EXIT_CODE_SUCCESS, Compiler.compile(options, sources).getStatus());
+
+        write(dir, "A", "public static int f() { return 2; }");
+        write(dir, "E", "int x = \"s\";");
+
+        CompileResult result = Compiler.compile(options, sources);
+
+        Assert.assertEquals(Compiler.EXIT_CODE_FAILURE, result.getStatus());
+        Assert.assertTrue(result.getFileTimes().containsKey(sources.get(1)));
+        Assert.assertEquals(2, run(out));
+
+        result = Compiler.compile(options, sources);
+
+        Assert.assertEquals(Compiler.EXIT_CODE_FAILURE, result.getStatus());
+        Assert.assertEquals(Arrays.asList(sources.get(2)), Arrays.asList(result.getFileTimes().keySet().toArray()));
+        Assert.assertEquals(2, run(out));
+
+    }//end testDependentOfChangedApiWithError
+
+    /**
+     * A Java source file that reaches a changed type only through the result of a chained call, and never names
+     * it, is a dependent of the type, so it calls the overload the changed type adds.
+     *
+     * @throws Exception - if a Java source file cannot be written or a compiled class cannot be run.
+     */
+    @Test
+    public void testDependentOfChainedCall() throws Exception {
+
+        Path dir = Files.createTempDirectory("wejac");
+        Path out = dir.resolve("out");
+
+        write(dir, "Base", "public int c(Object o) { return 1; }");
+        write(dir, "B", "Base", "");
+        write(dir, "A", "public static B b() { return new B(); }");
+        write(dir, "C", "public static Object g() { return A.b().c(\"s\"); }");
+
+        CompilerOptions options = CompilerOptions.builder().batch(true).incremental(true)
+                                                 .javac("-d", out.toString()).build();
+        List<String>    sources = Arrays.asList(dir.resolve("p/Base.java").toString(),
+                                                dir.resolve("p/B.java").toString(), dir.resolve("p/A.java").toString(),
+                                                dir.resolve("p/C.java").toString());
+
+        Assert.assertEquals(Compiler.EXIT_CODE_SUCCESS, Compiler.compile(options, sources).getStatus());
+        Assert.assertEquals(1, run(out));
+
+        write(dir, "B", "Base", "public int c(String s) { return 2; }");
+
+        Assert.assertEquals(Compiler.EXIT_CODE_SUCCESS, Compiler.compile(options, sources).getStatus());
+        Assert.assertEquals(2, run(out));
+
+    }//end testDependentOfChainedCall
+
+    /**
+     * Write a Java source file of a class in package p.
+     *
+     * @param dir  - directory of the Java source files.
+     * @param name - simple name of the class.
+     * @param body - body of the class.
+     * @throws IOException - if the Java source file cannot be written.
+     */
+    private static void write(final Path dir, final String name, final String body) throws IOException {
+
+        write(dir, name, "Object", body);
+
+    }//end write
+
+    /**
+     * Write a Java source file of a class with a superclass in package p.
+     *
+     * @param dir        - directory of the Java source files.
+     * @param name       - simple name of the class.
+     * @param superclass - simple name of the superclass.
+     * @param body       - body of the class.
+     * @throws IOException - if the Java source file cannot be written.
+     */
+    private static void write(final Path dir, final String name, final String superclass, final String body)
+            throws IOException {
+
+        Path source = dir.resolve("p").resolve(name + ".java");
+
+        Files.createDirectories(source.getParent());
+        Files.write(source, ("package p; public class " + name + " extends " + superclass + " { " + body + " }")
+                                .getBytes(StandardCharsets.UTF_8));
+
+    }//end write
+
+    /**
+     * Run the compiled dependent in a class loader of its own, so the class files are loaded as last compiled.
+     *
+     * @param out    - output directory of the class files.
+     * @return int   - the value the dependent returns from the changed API.
+     * @throws Exception - if the dependent does not link with the changed API.
+     */
+    private static int run(final Path out) throws Exception {
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {out.toUri().toURL()}, null)) {
+            return ((Number) loader.loadClass("p.C").getMethod("g").invoke(null)).intValue();
+        }//end try
+
+    }//end run
+
+}//end class IncrementalCompileTest
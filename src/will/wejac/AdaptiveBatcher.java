@@ -0,0 +1,244 @@
+/*
+ * @(#)AdaptiveBatcher.java
+ *
+ * Title: WEJAC - Will's Elided Java Api Compiler.
+ *
+ * Description: Batches of Java source files sized to the free heap, with the heap used per byte of Java source
+ *     and the share of the free heap to use adapted from the heap live after garbage collections and the garbage
+ *     collection time of each batch compiled.
+ *
+ * @author William F. Gilreath (wfgilreath@yahoo.com)
+ * @version 2.1  6/26/19
+ *
+ * Copyright © 2019 All Rights Reserved.
+ *
+ * License: This software is subject to the terms of the GNU General Public License (GPL)
+ *     version 3.0 available at the following link: http://www.gnu.org/copyleft/gpl.html.
+ *
+ * You must accept the terms of the GNU General Public License (GPL) license agreement
+ *     to use this software.
+ *
+ **/
+package will.wejac;
+
+import com.sun.management.GcInfo;
+
+import java.io.IOException;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class AdaptiveBatcher {
+
+    private final static MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    private final static double HEAP_PER_BYTE = 256.0; //first estimate of heap bytes used per byte of Java source
+    private final static double SHARE_FIRST   = 0.5;   //first share of the free heap a batch may use
+    private final static double SHARE_MIN     = 0.1;   //least share of the free heap a batch may use
+    private final static double SHARE_MAX     = 0.75;  //most share of the free heap a batch may use
+    private final static double GC_HIGH       = 0.25;  //share of batch time in garbage collection to shrink
+    private final static double GC_LOW        = 0.05;  //share of batch time in garbage collection to grow
+
+    private final List<String> files;  //names of the Java source files in compile order
+    private final long[]       sizes;  //size in bytes of each Java source file
+
+    private int    next        = 0;             //index of the first Java source file of the next batch
+    private double heapPerByte = HEAP_PER_BYTE; //heap bytes used per byte of Java source, from earlier batches
+    private double share       = SHARE_FIRST;   //share of the free heap a batch may use, from earlier batches
+
+    private long batchBytes = 0; //bytes of Java source of the batch being compiled
+    private long liveStart  = 0; //heap bytes live at the start of the batch
+    private long gcStart    = 0; //garbage collection time in milliseconds at the start of the batch
+    private long gcCount    = 0; //number of garbage collections at the start of the batch
+    private long timeStart  = 0; //time in nanoseconds at the start of the batch
+
+    /**
+     * Constructor for the batches of Java source files, in the order given.
+     *
+     * @param files - names of the Java source files.
+     */
+    AdaptiveBatcher(final List<String> files) {
+
+        this.files = files;
+        this.sizes = new long[files.size()];
+
+        for (int x = 0; x < sizes.length; x++) {
+
+            try {
+                sizes[x] = Files.size(Paths.get(files.get(x)));
+            } catch (IOException ex) {
+                sizes[x] = SourceDiscovery.FILE_SIZE_MINIMUM;
+            }//end try
+
+        }//end for
+
+    }//end constructor
+
+    /**
+     * Get the next batch of Java source files, as many as fit the share of the free heap a batch may use and at
+     * least one, and start measuring the heap and garbage collection of the batch.
+     *
+     * @return List - names of the Java source files of the batch, or empty if there are no more.
+     */
+    List<String> next() {
+
+        long heapUsed = MEMORY.getHeapMemoryUsage().getUsed();
+        long heapMax  = getHeapMax();
+        long budget   = (long) ((heapMax - heapUsed) * share / heapPerByte);
+
+        int first = next;
+
+        batchBytes = 0;
+
+        while (next < sizes.length && (next == first || batchBytes + sizes[next] <= budget)) {
+            batchBytes += sizes[next++];
+        }//end while
+
+        liveStart = getHeapLive(-1, heapUsed);
+        gcStart   = getGcTime();
+        gcCount   = getGcCount();
+        timeStart = System.nanoTime();
+
+        return new ArrayList<>(files.subList(first, next));
+
+    }//end next
+
+    /**
+     * Finish measuring the batch just compiled, and adapt the heap used per byte of Java source from the heap live
+     * after a garbage collection during the batch, and the share of the free heap from the time spent in garbage
+     * collection. A batch with no garbage collection leaves the heap used per byte of Java source as it is.
+     */
+    void done() {
+
+        long time = (System.nanoTime() - timeStart) / 1000000L;
+        long gc   = getGcTime() - gcStart;
+        long live = getGcCount() > gcCount ? getHeapLive(timeStart, 0L) - liveStart : 0L;
+
+        if (batchBytes > 0 && live > 0) {
+            heapPerByte = (heapPerByte + (double) live / batchBytes) / 2.0;
+        }//end if
+
+        if (time > 0) {
+
+            double pressure = (double) gc / time;
+
+            if (pressure > GC_HIGH) {
+                share = Math.max(share / 2.0, SHARE_MIN);
+            } else if (pressure < GC_LOW) {
+                share = Math.min(share * 1.25, SHARE_MAX);
+            }//end if
+
+        }//end if
+
+    }//end done
+
+    /**
+     * Get the bytes of Java source of the batch being compiled.
+     *
+     * @return long - bytes of Java source of the batch.
+     */
+    long getBatchBytes() {
+
+        return batchBytes;
+
+    }//end getBatchBytes
+
+    /**
+     * Get the most heap bytes that may be used, or the heap bytes committed if there is no maximum.
+     *
+     * @return long - the maximum heap bytes.
+     */
+    private static long getHeapMax() {
+
+        MemoryUsage heap = MEMORY.getHeapMemoryUsage();
+
+        return heap.getMax() < 0 ? heap.getCommitted() : heap.getMax();
+
+    }//end getHeapMax
+
+    /**
+     * Get the heap bytes live after the latest garbage collection, which is the heap used by the batch being
+     * compiled when the collection is during the batch.
+     *
+     * @param since   - time in nanoseconds of the start of the batch, or -1 for a collection at any time.
+     * @param none    - heap bytes to return if there is no collection.
+     * @return long   - heap bytes live after the latest collection.
+     */
+    private static long getHeapLive(final long since, final long none) {
+
+        long live  = none;
+        long start = -1;
+
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        long begin  = since < 0 ? -1 : uptime - (System.nanoTime() - since) / 1000000L;
+
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+
+            if (!(gc instanceof com.sun.management.GarbageCollectorMXBean)) {
+                continue;
+            }//end if
+
+            GcInfo info = ((com.sun.management.GarbageCollectorMXBean) gc).getLastGcInfo();
+
+            if (info == null || info.getStartTime() < begin || info.getStartTime() < start) {
+                continue;
+            }//end if
+
+            long used = 0;
+
+            for (MemoryUsage usage : info.getMemoryUsageAfterGc().values()) {
+                used += usage.getUsed();
+            }//end for
+
+            live  = used;
+            start = info.getStartTime();
+
+        }//end for
+
+        return live;
+
+    }//end getHeapLive
+
+    /**
+     * Get the total time of all garbage collections.
+     *
+     * @return long - time in milliseconds of garbage collection.
+     */
+    static long getGcTime() {
+
+        long time = 0;
+
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(gc.getCollectionTime(), 0L);
+        }//end for
+
+        return time;
+
+    }//end getGcTime
+
+    /**
+     * Get the total number of all garbage collections.
+     *
+     * @return long - number of garbage collections.
+     */
+    static long getGcCount() {
+
+        long count = 0;
+
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(gc.getCollectionCount(), 0L);
+        }//end for
+
+        return count;
+
+    }//end getGcCount
+
+}//end class AdaptiveBatcher
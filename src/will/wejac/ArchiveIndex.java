@@ -0,0 +1,534 @@
+/*
+ * @(#)ArchiveIndex.java
+ *
+ * Title: WEJAC - Will's Elided Java Api Compiler.
+ *
+ * Description: A persistent index of the file entries of each package of a class path archive, built on first
+ *     use and memory-mapped by later compiles.
+ *
+ * @author William F. Gilreath (wfgilreath@yahoo.com)
+ * @version 2.1  6/26/19
+ *
+ * Copyright © 2019 All Rights Reserved.
+ *
+ * License: This software is subject to the terms of the GNU General Public License (GPL)
+ *     version 3.0 available at the following link: http://www.gnu.org/copyleft/gpl.html.
+ *
+ * You must accept the terms of the GNU General Public License (GPL) license agreement
+ *     to use this software.
+ *
+ **/
+package will.wejac;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+
+final class ArchiveIndex {
+
+    private final static Path INDEX_DIR = Paths.get(System.getProperty("user.home"), ".wejac", "index");
+
+    private final static int    INDEX_MAGIC  = 0x57454A49; //magic number of an index file, WEJI
+    private final static int    INDEX_FORMAT = 2;          //format version of an index file
+    private final static String INDEX_EXT    = ".idx";     //file extension of an index file
+    private final static String META_INF     = "META-INF/";
+    private final static String VERSIONS     = "META-INF/versions/"; //directory of versioned entries
+
+    private final static ConcurrentMap<Path, ArchiveIndex> CACHE = new ConcurrentHashMap<>(); //index by archive
+
+    private final Path    archive;      //absolute path of the archive
+    private final long size;     //size of the archive when indexed
+    private final long modified; //last modified time of the archive when indexed
+
+    private final ByteBuffer           data;     //bytes of the index file, memory-mapped when on disk
+    private final Map<String, Integer> packages; //offset of the entry names of each package in the index
+
+    private JarFile jar      = null;  //archive opened on the first read of an entry
+    private int     readers  = 0;     //entry streams not yet closed
+    private boolean replaced = false; //whether a newer index of the archive is in the process cache
+
+    /**
+     * Private constructor for the index of an archive read from the bytes of its index file.
+     *
+     * @param archive - absolute path of the archive.
+     * @param data    - bytes of the index file.
+     * @throws IOException - if the bytes are not an index file.
+     */
+    private ArchiveIndex(final Path archive, final ByteBuffer data) throws IOException {
+
+        this.archive = archive;
+        this.data    = data;
+
+        if (data.getInt(0) != INDEX_MAGIC || data.getInt(4) != INDEX_FORMAT) {
+            throw new IOException("Archive index of: '" + archive + "' is not format " + INDEX_FORMAT);
+        }//end if
+
+        ByteBuffer in = data.duplicate();
+        in.position(8);
+
+        this.size     = in.getLong();
+        this.modified = in.getLong();
+
+        if (!archive.toString().equals(readString(in))) {
+            throw new IOException("Archive index of: '" + archive + "' is for another archive");
+        }//end if
+
+        int count = in.getInt();
+
+        this.packages = new HashMap<>(count * 2);
+
+        for (int x = 0; x < count; x++) {
+
+            String packageName = readString(in);
+            packages.put(packageName, in.position());
+
+            int entries = in.getInt();
+
+            for (int y = 0; y < entries; y++) {
+
+                int length = in.getShort() & 0xFFFF;
+                in.position(in.position() + length);
+
+            }//end for
+
+        }//end for
+
+    }//end constructor
+
+    /**
+     * Get the index of an archive, from the process cache or the index file when the archive is unchanged in
+     * size and last modified time, or else by indexing the archive and writing its index file.
+     *
+     * @param path          - path of the archive.
+     * @return ArchiveIndex - the index of the archive.
+     * @throws IOException  - if the archive cannot be read.
+     */
+    static ArchiveIndex get(final Path path) throws IOException {
+
+        Path                archive = path.toAbsolutePath().normalize();
+        BasicFileAttributes attrs   = Files.readAttributes(archive, BasicFileAttributes.class);
+
+        ArchiveIndex index = CACHE.get(archive);
+
+        if (index != null && index.isCurrent(attrs)) {
+            return index;
+        }//end if
+
+        Path indexFile = INDEX_DIR.resolve(BuildManifest.hash(archive.toString().getBytes(StandardCharsets.UTF_8))
+                                           + INDEX_EXT);
+
+        index = load(archive, indexFile);
+
+        if (index == null || !index.isCurrent(attrs)) {
+            index = build(archive, attrs, indexFile);
+        }//end if
+
+        ArchiveIndex previous = CACHE.put(archive, index);
+
+        if (previous != null && previous != index) {
+            previous.replace();
+        }//end if
+
+        return index;
+
+    }//end get
+
+    /**
+     * Load the index of an archive by memory-mapping its index file.
+     *
+     * @param archive       - absolute path of the archive.
+     * @param indexFile     - path of the index file.
+     * @return ArchiveIndex - the index of the archive, or null if there is no valid index file.
+     */
+    private static ArchiveIndex load(final Path archive, final Path indexFile) {
+
+        if (!Files.isRegularFile(indexFile)) {
+            return null;
+        }//end if
+
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+
+            return new ArchiveIndex(archive, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+
+        } catch (IOException | RuntimeException ex) {
+            return null;
+        }//end try
+
+    }//end load
+
+    /**
+     * Build the index of an archive by reading its entries once, and write the index file for later compiles.
+     * The index is still used for this compile if the index file cannot be written.
+     *
+     * @param archive       - absolute path of the archive.
+     * @param attrs         - attributes of the archive.
+     * @param indexFile     - path of the index file.
+     * @return ArchiveIndex - the index of the archive.
+     * @throws IOException  - if the archive cannot be read.
+     */
+    private static ArchiveIndex build(final Path archive, final BasicFileAttributes attrs, final Path indexFile)
+            throws IOException {
+
+        Map<String, List<String>> entries = new TreeMap<>();
+        boolean                   release = false;
+
+        try (JarFile file = new JarFile(archive.toFile())) {
+
+            Manifest manifest = file.getManifest();
+
+            if (manifest != null) {
+                release = "true".equalsIgnoreCase(manifest.getMainAttributes().getValue(
+                        new Attributes.Name("Multi-Release")));
+            }//end if
+
+            Enumeration<JarEntry> list = file.entries();
+
+            while (list.hasMoreElements()) {
+
+                String name    = list.nextElement().getName();
+                String version = "";
+
+                //a versioned entry of a multi-release archive is indexed with its version, as 11/Name.class
+                if (release && name.startsWith(VERSIONS) && name.indexOf('/', VERSIONS.length()) > 0) {
+
+                    int slash = name.indexOf('/', VERSIONS.length());
+
+                    version = name.substring(VERSIONS.length(), slash + 1);
+                    name    = name.substring(slash + 1);
+
+                }//end if
+
+                if (name.startsWith(META_INF) || name.endsWith("/")) {
+                    continue;
+                }//end if
+
+                int    slash       = name.lastIndexOf('/');
+                String packageName = slash < 0 ? "" : name.substring(0, slash).replace('/', '.');
+
+                List<String> names = entries.get(packageName);
+
+                if (names == null) {
+                    names = new ArrayList<>();
+                    entries.put(packageName, names);
+                }//end if
+
+                names.add(version + name.substring(slash + 1));
+
+            }//end while
+
+        }//end try
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(INDEX_FORMAT);
+            out.writeLong(attrs.size());
+            out.writeLong(attrs.lastModifiedTime().toMillis());
+            writeString(out, archive.toString());
+            out.writeInt(entries.size());
+
+            for (Map.Entry<String, List<String>> entry : entries.entrySet()) {
+
+                writeString(out, entry.getKey());
+                out.writeInt(entry.getValue().size());
+
+                for (String name : entry.getValue()) {
+                    writeString(out, name);
+                }//end for
+
+            }//end for
+
+        }//end try
+
+        Path temp = null;
+
+        try {
+
+            Files.createDirectories(INDEX_DIR);
+
+            temp = Files.createTempFile(INDEX_DIR, "index", ".tmp");
+            Files.write(temp, bytes.toByteArray());
+            Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        } catch (IOException ex) {
+
+            //the index is only kept in memory when the index directory is not writable
+            if (temp != null) {
+                Files.deleteIfExists(temp);
+            }//end if
+
+        }//end try
+
+        return new ArchiveIndex(archive, ByteBuffer.wrap(bytes.toByteArray()));
+
+    }//end build
+
+    /**
+     * Check if the archive is unchanged in size and last modified time since it was indexed.
+     *
+     * @param attrs    - current attributes of the archive.
+     * @return boolean - true if the index is current.
+     */
+    private boolean isCurrent(final BasicFileAttributes attrs) {
+
+        return size == attrs.size() && modified == attrs.lastModifiedTime().toMillis();
+
+    }//end isCurrent
+
+    /**
+     * Get the absolute path of the archive.
+     *
+     * @return Path - the path of the archive.
+     */
+    Path getArchive() {
+
+        return archive;
+
+    }//end getArchive
+
+    /**
+     * Get the names of all the packages with file entries in the archive.
+     *
+     * @return Set - the package names.
+     */
+    Set<String> getPackages() {
+
+        return Collections.unmodifiableSet(packages.keySet());
+
+    }//end getPackages
+
+    /**
+     * Get the file names of the file entries of a package, decoded from the index only when the package is
+     * looked up. For a multi-release archive, the entries of the release are the versioned entries of the
+     * highest version up to the release, and else the entries of no version.
+     *
+     * @param packageName - name of the package.
+     * @param release     - the release compiled for.
+     * @return Map        - the full name in the archive of each entry by its file name, in file name order.
+     */
+    Map<String, String> getEntries(final String packageName, final int release) {
+
+        Map<String, String>  entries  = new TreeMap<>();
+        Map<String, Integer> versions = new HashMap<>();
+
+        String dir = packageName.isEmpty() ? "" : packageName.replace('.', '/') + "/";
+
+        for (String name : this.getNames(packageName)) {
+
+            int slash   = name.indexOf('/');
+            int version = slash < 0 ? 0 : Integer.parseInt(name.substring(0, slash));
+
+            String  fileName = name.substring(slash + 1);
+            Integer best     = versions.get(fileName);
+
+            if (version <= release && (best == null || version > best)) {
+
+                versions.put(fileName, version);
+                entries.put(fileName, version == 0 ? dir + fileName : VERSIONS + version + "/" + dir + fileName);
+
+            }//end if
+
+        }//end for
+
+        return entries;
+
+    }//end getEntries
+
+    /**
+     * Get the names of the entries of a package as indexed, each a file name with any version before it.
+     *
+     * @param packageName - name of the package.
+     * @return List       - the names of the entries of the package.
+     */
+    private List<String> getNames(final String packageName) {
+
+        Integer offset = packages.get(packageName);
+
+        if (offset == null) {
+            return Collections.emptyList();
+        }//end if
+
+        ByteBuffer in = data.duplicate();
+        in.position(offset);
+
+        int          count = in.getInt();
+        List<String> names = new ArrayList<>(count);
+
+        for (int x = 0; x < count; x++) {
+            names.add(readString(in));
+        }//end for
+
+        return names;
+
+    }//end getNames
+
+    /**
+     * Open an entry of the archive for reading, opening the archive on the first read. The archive stays open
+     * until the stream is closed, even if the index is replaced meanwhile by another thread.
+     *
+     * @param entryName      - full name of the entry in the archive.
+     * @return InputStream   - the stream of the bytes of the entry.
+     * @throws IOException   - if the archive or entry cannot be read.
+     */
+    InputStream open(final String entryName) throws IOException {
+
+        JarFile file;
+
+        synchronized (this) {
+
+            if (jar == null) {
+                jar = new JarFile(archive.toFile());
+            }//end if
+
+            file = jar;
+            readers++;
+
+        }//end synchronized
+
+        try {
+
+            ZipEntry entry = file.getEntry(entryName);
+
+            if (entry == null) {
+                throw new IOException("Entry: '" + entryName + "' not found in: '" + archive + "'");
+            }//end if
+
+            return new FilterInputStream(file.getInputStream(entry)) {
+
+                private boolean closed = false;
+
+                @Override
+                public void close() throws IOException {
+
+                    try {
+                        super.close();
+                    } finally {
+
+                        if (!closed) {
+                            closed = true;
+                            release();
+                        }//end if
+
+                    }//end try
+
+                }//end close
+
+            };
+
+        } catch (IOException | RuntimeException ex) {
+            release();
+            throw ex;
+        }//end try
+
+    }//end open
+
+    /**
+     * Release an entry stream, and close the archive if the index was replaced and this was the last reader.
+     */
+    private synchronized void release() {
+
+        readers--;
+
+        if (replaced && readers == 0) {
+            this.close();
+        }//end if
+
+    }//end release
+
+    /**
+     * Mark the index as replaced in the process cache, and close the archive once no entry stream is open.
+     * A file manager still holding the index may read from it again, which reopens the archive until then.
+     */
+    private synchronized void replace() {
+
+        replaced = true;
+
+        if (readers == 0) {
+            this.close();
+        }//end if
+
+    }//end replace
+
+    /**
+     * Close the archive if it was opened to read an entry.
+     */
+    private synchronized void close() {
+
+        try {
+
+            if (jar != null) {
+                jar.close();
+            }//end if
+
+        } catch (IOException ex) {
+            //an archive that fails to close was only read from
+        } finally {
+            jar = null;
+        }//end try
+
+    }//end close
+
+    /**
+     * Write a string as its UTF-8 byte length and bytes.
+     *
+     * @param out  - output of the index file.
+     * @param text - the string.
+     * @throws IOException - if the index file cannot be written.
+     */
+    private static void writeString(final DataOutputStream out, final String text) throws IOException {
+
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+
+        out.writeShort(bytes.length);
+        out.write(bytes);
+
+    }//end writeString
+
+    /**
+     * Read a string of its UTF-8 byte length and bytes.
+     *
+     * @param in      - bytes of the index file at the string.
+     * @return String - the string.
+     */
+    private static String readString(final ByteBuffer in) {
+
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+
+    }//end readString
+
+}//end class ArchiveIndex
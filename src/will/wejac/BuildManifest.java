@@ -0,0 +1,527 @@
+/*
+ * @(#)BuildManifest.java
+ *
+ * Title: WEJAC - Will's Elided Java Api Compiler.
+ *
+ * Description: A manifest of the content hash, API fingerprint, dependencies, and class files of each compiled
+ *     Java source file.
+ *
+ * @author William F. Gilreath (wfgilreath@yahoo.com)
+ * @version 2.1  6/26/19
+ *
+ * Copyright © 2019 All Rights Reserved.
+ *
+ * License: This software is subject to the terms of the GNU General Public License (GPL)
+ *     version 3.0 available at the following link: http://www.gnu.org/copyleft/gpl.html.
+ *
+ * You must accept the terms of the GNU General Public License (GPL) license agreement
+ *     to use this software.
+ *
+ **/
+package will.wejac;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+final class BuildManifest {
+
+    private final static String MANIFEST_FILE = ".wejac-manifest"; //manifest file in the output directory
+    private final static String CONFIG_KEY    = "wejac.config";    //manifest key of the compiler configuration
+    private final static String SEPARATOR     = "\t";              //separator of the fields of a manifest entry
+    private final static String LIST_SEP      = ",";               //separator of the types in a field
+    private final static String FORMAT        = "3";               //format of the manifest entries
+
+    private final static int    FIELD_HASH    = 0; //field of the hash of the content of the Java source file
+    private final static int    FIELD_API     = 1; //field of the fingerprint of the API of the declared types
+    private final static int    FIELD_TYPES   = 2; //field of the binary names of the declared types
+    private final static int    FIELD_DEPS    = 3; //field of the binary names of the used types
+    private final static int    FIELD_SUPERS  = 4; //field of the binary names of the supertypes of the types
+    private final static int    FIELD_CLASSES = 5; //first field of each class file and its modified time
+
+    private final Path   path;   //path of the manifest file
+    private final String config; //hash of the Javac compiler parameters, character set, and JDK version
+
+    private final ConcurrentMap<String, String> entries = new ConcurrentHashMap<>(); //entry of each source file
+    private final ConcurrentMap<String, String> hashes  = new ConcurrentHashMap<>(); //hash of each source file
+
+    private final AtomicInteger hits   = new AtomicInteger(); //count of up-to-date Java source files
+    private final AtomicInteger misses = new AtomicInteger(); //count of changed Java source files compiled
+    private final AtomicInteger depends = new AtomicInteger(); //count of unchanged Java source files recompiled
+
+    private final Set<String> changedTypes = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final Set<String> dependents   = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    /**
+     * Private constructor for a manifest of the compiler configuration in the output directory.
+     *
+     * @param path   - path of the manifest file.
+     * @param config - hash of the Javac compiler parameters, character set, and JDK version.
+     */
+    private BuildManifest(final Path path, final String config) {
+
+        this.path   = path;
+        this.config = config;
+
+    }//end constructor
+
+    /**
+     * Load the manifest in the output directory, which is empty if missing or written by another compiler
+     * configuration of Javac compiler parameters, character set, JDK version, or annotation processors.
+     *
+     * @param param   - Javac compiler parameters implicit and explicit.
+     * @param charset - character set for decoding Java source files.
+     * @return BuildManifest - the manifest of the output directory.
+     * @throws IOException - if the manifest cannot be read.
+     */
+    static BuildManifest load(final List<String> param, final Charset charset) throws IOException {
+
+        StringBuilder text = new StringBuilder();
+
+        for (String option : param) {
+            text.append(option).append('\0');
+        }//end for
+
+        text.append(charset.name()).append('\0').append(System.getProperty("java.version"));
+        text.append('\0').append(FORMAT);
+
+        //a changed annotation processor compiles all the Java source files again, with no change without processors
+        String processors = ProcessorCache.getFingerprint(param);
+
+        if (!processors.isEmpty()) {
+            text.append('\0').append(processors);
+        }//end if
+
+        BuildManifest manifest = new BuildManifest(getOutputDirectory(param).resolve(MANIFEST_FILE),
+                                                   hash(text.toString().getBytes(StandardCharsets.UTF_8)));
+
+        if (Files.isRegularFile(manifest.path)) {
+
+            Properties properties = new Properties();
+
+            try (InputStream in = Files.newInputStream(manifest.path)) {
+                properties.load(in);
+            }//end try
+
+            if (manifest.config.equals(properties.getProperty(CONFIG_KEY))) {
+
+                for (String key : properties.stringPropertyNames()) {
+                    if (!key.equals(CONFIG_KEY)) {
+                        manifest.entries.put(key, properties.getProperty(key));
+                    }//end if
+                }//end for
+
+            }//end if
+
+        }//end if
+
+        return manifest;
+
+    }//end load
+
+    /**
+     * Save the manifest in the output directory.
+     *
+     * @throws IOException - if the manifest cannot be written.
+     */
+    void save() throws IOException {
+
+        Properties properties = new Properties();
+        properties.putAll(entries);
+        properties.setProperty(CONFIG_KEY, config);
+
+        Files.createDirectories(path.toAbsolutePath().getParent());
+
+        try (OutputStream out = Files.newOutputStream(path)) {
+            properties.store(out, "WEJAC incremental build manifest");
+        }//end try
+
+    }//end save
+
+    /**
+     * Check if a Java source file is unchanged since it was compiled and its class files are unchanged, and
+     * count it as a cache hit if so. A changed Java source file is counted as a miss when it is compiled.
+     *
+     * @param fileName - name of the external file containing the Java source code.
+     * @return boolean - true if the Java source file does not need to be compiled.
+     * @throws IOException - if the Java source file cannot be read.
+     */
+    boolean isUpToDate(final String fileName) throws IOException {
+
+        String key  = getKey(fileName);
+        String hash = hash(Files.readAllBytes(Paths.get(fileName)));
+
+        hashes.put(key, hash);
+
+        String entry = entries.get(key);
+
+        boolean upToDate = entry != null && isUpToDate(entry.split(SEPARATOR, -1), hash);
+
+        if (upToDate) {
+            hits.incrementAndGet();
+        }//end if
+
+        return upToDate;
+
+    }//end isUpToDate
+
+    /**
+     * Check if the fields of a manifest entry have the hash of the source file and its class files are unchanged.
+     *
+     * @param fields   - fields of the manifest entry with each class file and its modified time.
+     * @param hash     - hash of the content of the Java source file.
+     * @return boolean - true if the manifest entry is up-to-date.
+     * @throws IOException - if a class file cannot be read.
+     */
+    private static boolean isUpToDate(final String[] fields, final String hash) throws IOException {
+
+        if (fields.length < FIELD_CLASSES || !fields[FIELD_HASH].equals(hash)) {
+            return false;
+        }//end if
+
+        for (int x = FIELD_CLASSES; x + 1 < fields.length; x += 2) {
+
+            Path classFile = Paths.get(fields[x]);
+
+            if (!Files.isRegularFile(classFile)
+                    || Files.getLastModifiedTime(classFile).toMillis() != Long.parseLong(fields[x + 1])) {
+                return false;
+            }//end if
+
+        }//end for
+
+        return true;
+
+    }//end isUpToDate
+
+    /**
+     * Update the manifest entry of a compiled Java source file with its API fingerprint, declared and used types,
+     * and class files output for it, and record its declared types as changed if its API fingerprint changed.
+     *
+     * @param fileName    - name of the external file containing the Java source code.
+     * @param fingerprint - fingerprint of the API of the types declared by the Java source file.
+     * @param types       - binary names of the types declared by the Java source file.
+     * @param deps        - binary names of the types used by the Java source file.
+     * @param supers      - binary names of the supertypes of the types declared by the Java source file.
+     * @param classes     - paths of the class files output for the Java source file.
+     * @throws IOException - if a class file cannot be read.
+     */
+    void update(final String fileName, final String fingerprint, final Set<String> types,
+                final Set<String> deps, final Set<String> supers, final List<Path> classes) throws IOException {
+
+        String key  = getKey(fileName);
+        String hash = hashes.get(key);
+
+        if (hash == null) {
+            return;
+        }//end if
+
+        this.count(key);
+
+        String   entryOld  = entries.get(key);
+        String[] fieldsOld = entryOld == null ? null : entryOld.split(SEPARATOR, -1);
+
+        if (fieldsOld == null || fieldsOld.length < FIELD_CLASSES || !fieldsOld[FIELD_API].equals(fingerprint)) {
+
+            changedTypes.addAll(types);
+
+            if (fieldsOld != null && fieldsOld.length >= FIELD_CLASSES) {
+                changedTypes.addAll(split(fieldsOld[FIELD_TYPES]));
+            }//end if
+
+        }//end if
+
+        StringBuilder entry = new StringBuilder(hash);
+        entry.append(SEPARATOR).append(fingerprint);
+        entry.append(SEPARATOR).append(join(types));
+        entry.append(SEPARATOR).append(join(deps));
+        entry.append(SEPARATOR).append(join(supers));
+
+        for (Path classFile : classes) {
+            entry.append(SEPARATOR).append(classFile.toAbsolutePath().normalize());
+            entry.append(SEPARATOR).append(Files.getLastModifiedTime(classFile).toMillis());
+        }//end for
+
+        entries.put(key, entry.toString());
+
+    }//end update
+
+    /**
+     * Remove the manifest entry of a Java source file that failed to compile.
+     *
+     * @param fileName - name of the external file containing the Java source code.
+     */
+    void remove(final String fileName) {
+
+        String key = getKey(fileName);
+
+        if (hashes.containsKey(key)) {
+            this.count(key);
+        }//end if
+
+        entries.remove(key);
+
+    }//end remove
+
+    /**
+     * Count a Java source file as compiled, as a recompiled dependent or else as a changed Java source file.
+     *
+     * @param key - key of the Java source file in the manifest.
+     */
+    private void count(final String key) {
+
+        if (dependents.remove(key)) {
+            depends.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }//end if
+
+    }//end count
+
+    /**
+     * Take the binary names of the types whose API changed in the compiles since last taken.
+     *
+     * @return Set - the binary names of the changed types.
+     */
+    Set<String> takeChangedTypes() {
+
+        Set<String> taken = new TreeSet<>();
+
+        for (String type : changedTypes) {
+            if (changedTypes.remove(type)) {
+                taken.add(type);
+            }//end if
+        }//end for
+
+        return taken;
+
+    }//end takeChangedTypes
+
+    /**
+     * Get the unchanged Java source files that use any of the changed types, and count them as recompiled
+     * dependents instead of cache hits once compiled. A type that extends or implements a changed type, directly
+     * or along its supertypes, is changed too, as it inherits the API, so the Java source files that use it are
+     * recompiled even when its own API fingerprint is the same. The manifest entry of each dependent is no longer
+     * up-to-date until it compiles, so a dependent that is not compiled in this run is compiled in the next.
+     *
+     * @param fileNames    - names of the unchanged Java source files.
+     * @param changedTypes - binary names of the types whose API changed.
+     * @return List        - names of the Java source files that depend on a changed type.
+     */
+    List<String> getDependents(final List<String> fileNames, final Set<String> changedTypes) {
+
+        List<String> dependents = new ArrayList<>();
+        Set<String>  inherited  = this.getSubtypes(changedTypes);
+
+        for (String fileName : fileNames) {
+
+            String entry = entries.get(getKey(fileName));
+
+            if (entry == null) {
+                continue;
+            }//end if
+
+            String[] fields = entry.split(SEPARATOR, -1);
+
+            if (fields.length < FIELD_CLASSES || Collections.disjoint(split(fields[FIELD_DEPS]), inherited)) {
+                continue;
+            }//end if
+
+            fields[FIELD_HASH] = "";
+
+            entries.put(getKey(fileName), String.join(SEPARATOR, fields));
+            this.dependents.add(getKey(fileName));
+
+            dependents.add(fileName);
+            hits.decrementAndGet();
+
+        }//end for
+
+        return dependents;
+
+    }//end getDependents
+
+    /**
+     * Get the changed types and every type whose supertypes include a changed type, along the supertype chain
+     * of the Java source files in the manifest.
+     *
+     * @param changedTypes - binary names of the types whose API changed.
+     * @return Set         - binary names of the changed types and of the types that inherit from them.
+     */
+    private Set<String> getSubtypes(final Set<String> changedTypes) {
+
+        Set<String> inherited = new TreeSet<>(changedTypes);
+        boolean     added     = true;
+
+        while (added) {
+
+            added = false;
+
+            for (String entry : entries.values()) {
+
+                String[] fields = entry.split(SEPARATOR, -1);
+
+                if (fields.length >= FIELD_CLASSES && !Collections.disjoint(split(fields[FIELD_SUPERS]), inherited)
+                        && inherited.addAll(split(fields[FIELD_TYPES]))) {
+                    added = true;
+                }//end if
+
+            }//end for
+
+        }//end while
+
+        return inherited;
+
+    }//end getSubtypes
+
+    /**
+     * Get the count of unchanged Java source files recompiled because a type they use changed its API.
+     *
+     * @return int - the count of recompiled dependents.
+     */
+    int getDependents() {
+
+        return depends.get();
+
+    }//end getDependents
+
+    /**
+     * Join the binary names of types into the text of a field.
+     *
+     * @param types   - the binary names of types.
+     * @return String - the text of the field.
+     */
+    private static String join(final Set<String> types) {
+
+        StringBuilder text = new StringBuilder();
+
+        for (String type : types) {
+
+            if (text.length() > 0) {
+                text.append(LIST_SEP);
+            }//end if
+
+            text.append(type);
+
+        }//end for
+
+        return text.toString();
+
+    }//end join
+
+    /**
+     * Split the text of a field into the binary names of types.
+     *
+     * @param text - the text of the field.
+     * @return Set - the binary names of types.
+     */
+    private static Set<String> split(final String text) {
+
+        Set<String> types = new TreeSet<>();
+
+        for (String type : text.split(LIST_SEP)) {
+            if (!type.isEmpty()) {
+                types.add(type);
+            }//end if
+        }//end for
+
+        return types;
+
+    }//end split
+
+    /**
+     * Get the count of Java source files that were up-to-date and not compiled.
+     *
+     * @return int - the count of cache hits.
+     */
+    int getHits() {
+
+        return hits.get();
+
+    }//end getHits
+
+    /**
+     * Get the count of Java source files that were changed and compiled, with or without errors.
+     *
+     * @return int - the count of cache misses.
+     */
+    int getMisses() {
+
+        return misses.get();
+
+    }//end getMisses
+
+    /**
+     * Get the output directory of class files given by the -d Javac compiler parameter, or else the working
+     * directory.
+     *
+     * @param param - Javac compiler parameters implicit and explicit.
+     * @return Path - the output directory.
+     */
+    static Path getOutputDirectory(final List<String> param) {
+
+        int pos = param.lastIndexOf("-d");
+
+        return pos >= 0 && pos + 1 < param.size() ? Paths.get(param.get(pos + 1)) : Paths.get(".");
+
+    }//end getOutputDirectory
+
+    /**
+     * Get the manifest key of a Java source file as its absolute normalized path.
+     *
+     * @param fileName - name of the external file containing the Java source code.
+     * @return String  - the manifest key.
+     */
+    private static String getKey(final String fileName) {
+
+        return Paths.get(fileName).toAbsolutePath().normalize().toString();
+
+    }//end getKey
+
+    /**
+     * Hash bytes with SHA-256 into text of hexadecimal digits.
+     *
+     * @param data    - the bytes to hash.
+     * @return String - the hash as hexadecimal digits.
+     */
+    static String hash(final byte[] data) {
+
+        try {
+
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+
+            StringBuilder text = new StringBuilder(digest.length * 2);
+
+            for (byte b : digest) {
+                text.append(String.format("%02x", b & 0xFF));
+            }//end for
+
+            return text.toString();
+
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }//end try
+
+    }//end hash
+
+}//end class BuildManifest
@@ -0,0 +1,262 @@
+/*
+ * @(#)ClassDataArchive.java
+ *
+ * Title: WEJAC - Will's Elided Java Api Compiler.
+ *
+ * Description: A class data sharing archive of the classes the WEJAC compiler and javac load, recorded from a
+ *     training compile and written beside the WEJAC jar file, so the wejac launcher starts with them mapped.
+ *
+ * @author William F. Gilreath (wfgilreath@yahoo.com)
+ * @version 2.1  6/26/19
+ *
+ * Copyright © 2019 All Rights Reserved.
+ *
+ * License: This software is subject to the terms of the GNU General Public License (GPL)
+ *     version 3.0 available at the following link: http://www.gnu.org/copyleft/gpl.html.
+ *
+ * You must accept the terms of the GNU General Public License (GPL) license agreement
+ *     to use this software.
+ *
+ **/
+package will.wejac;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+final class ClassDataArchive {
+
+    private final static String ARCHIVE_EXT  = ".jsa";       //extension of the archive beside the jar file
+    private final static String TRAIN_CLASS  = "Training";   //class name of the Java source file of training
+    private final static int    TIME_RUNS    = 3;            //runs timed for the startup with and without archive
+    private final static int    JDK_DYNAMIC  = 13;           //first JDK to write an archive at the exit of a run
+
+    //exit status code of a JDK that cannot write an archive, so the wejac launcher does not try again
+    final static int EXIT_CODE_UNSUPPORTED = 3;
+
+    //Java source file of the training compile, with generics, a lambda, an annotation, and a deprecated call
+    private final static String TRAIN_SOURCE =
+            "import java.util.ArrayList;\n" +
+            "import java.util.Date;\n" +
+            "import java.util.List;\n" +
+            "\n" +
+            "public class " + TRAIN_CLASS + " {\n" +
+            "\n" +
+            "    @Override\n" +
+            "    public String toString() {\n" +
+            "        List<String> list = new ArrayList<>();\n" +
+            "        list.add(new Date(119, 6, 1).toString());\n" +
+            "        list.forEach(text -> System.out.println(text));\n" +
+            "        return String.join(\",\", list);\n" +
+            "    }\n" +
+            "\n" +
+            "    public static void main(String[] args) {\n" +
+            "        System.out.println(new " + TRAIN_CLASS + "());\n" +
+            "    }\n" +
+            "}\n";
+
+    /**
+     * Private constructor to prevent instantiating this class.
+     */
+    private ClassDataArchive() {
+    }//end constructor
+
+    /**
+     * Create the class data sharing archive beside the WEJAC jar file from a training compile in a child Java
+     * process, and report the startup time of the training compile before and after unless quiet, as the wejac
+     * launcher does not wait for the timed runs.
+     *
+     * @param out   - output for the status of the archive.
+     * @param quiet - set to skip the timed runs of the training compile before and after.
+     * @return int  - exit status code of creating the archive, EXIT_CODE_UNSUPPORTED if the JDK cannot write one.
+     */
+    static int create(final PrintStream out, final boolean quiet) {
+
+        Path jar = getJarFile();
+
+        if (jar == null) {
+            out.printf("Error! %s%n", ERROR_NO_JAR);
+            return Compiler.EXIT_CODE_PROBLEM;
+        }//end if
+
+        if (Runtime.version().feature() < JDK_DYNAMIC) {
+            out.printf("Error! %s%n", String.format(ERROR_JDK, System.getProperty("java.version")));
+            return EXIT_CODE_UNSUPPORTED;
+        }//end if
+
+        String name    = jar.getFileName().toString();
+        Path   archive = jar.resolveSibling(name.substring(0, name.lastIndexOf('.')) + ARCHIVE_EXT);
+        Path   train   = null;
+
+        try {
+
+            train = Files.createTempDirectory("wejac-cds");
+
+            Path source = train.resolve(TRAIN_CLASS + ".java");
+            Path temp   = Files.createTempFile(jar.getParent(), name, ARCHIVE_EXT);
+
+            Files.write(source, TRAIN_SOURCE.getBytes(StandardCharsets.UTF_8));
+            Files.delete(temp); //the JVM writes the archive itself, and only when no file is in its place
+
+            int status = launch(jar, Arrays.asList("-XX:ArchiveClassesAtExit=" + temp), train, source);
+
+            if (status != 0 || !Files.isRegularFile(temp)) {
+
+                Files.deleteIfExists(temp);
+                out.printf("Error! %s%n", String.format(ERROR_ARCHIVE, archive));
+
+                //a training compile with success and no archive is a JDK built with no class data sharing
+                return status == 0 ? EXIT_CODE_UNSUPPORTED : Compiler.EXIT_CODE_FAILURE;
+
+            }//end if
+
+            Files.move(temp, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            out.printf("Class data sharing archive: '%s' written for Java %s.%n", archive,
+                       System.getProperty("java.version"));
+
+            if (!quiet) {
+
+                long before = time(jar, null, train, source);
+                long after  = time(jar, archive, train, source);
+
+                out.printf("Startup and compile of training file: %d-ms before and %d-ms after.%n", before, after);
+
+            }//end if
+
+        } catch (IOException | InterruptedException ex) {
+
+            out.printf("Class Data Sharing Exception: '%s' is '%s'.%n", ex.getClass().getName(), ex.getMessage());
+            return Compiler.EXIT_CODE_FAILURE;
+
+        } finally {
+            delete(train);
+        }//end try
+
+        return Compiler.EXIT_CODE_SUCCESS;
+
+    }//end create
+
+    /**
+     * Get the WEJAC jar file the compiler classes are loaded from.
+     *
+     * @return Path - the jar file, or null if the compiler classes are not loaded from a jar file.
+     */
+    private static Path getJarFile() {
+
+        try {
+
+            Path code = Paths.get(Compiler.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+
+            return Files.isRegularFile(code) && code.toString().endsWith(".jar") ? code.toAbsolutePath() : null;
+
+        } catch (Exception ex) {
+            return null;
+        }//end try
+
+    }//end getJarFile
+
+    /**
+     * Time the fastest of several training compiles in a child Java process, with or without the archive.
+     *
+     * @param jar     - the WEJAC jar file.
+     * @param archive - the class data sharing archive, or null to run without it.
+     * @param train   - directory of the training compile.
+     * @param source  - Java source file of the training compile.
+     * @return long   - time in milliseconds of the fastest training compile.
+     * @throws IOException          - if the child process cannot start.
+     * @throws InterruptedException - if interrupted waiting for the child process.
+     */
+    private static long time(final Path jar, final Path archive, final Path train, final Path source)
+            throws IOException, InterruptedException {
+
+        List<String> options = archive == null
+                             ? Arrays.asList("-Xshare:auto")
+                             : Arrays.asList("-Xshare:auto", "-XX:SharedArchiveFile=" + archive);
+
+        long best = Long.MAX_VALUE;
+
+        for (int x = 0; x < TIME_RUNS; x++) {
+
+            long timeStart = System.nanoTime();
+
+            launch(jar, options, train, source);
+
+            best = Math.min(best, (System.nanoTime() - timeStart) / 1000000L);
+
+        }//end for
+
+        return best;
+
+    }//end time
+
+    /**
+     * Launch the training compile in a child Java process the way the wejac launcher does, and wait for it.
+     *
+     * @param jar     - the WEJAC jar file.
+     * @param options - Java virtual machine options of the child process.
+     * @param train   - directory of the training compile, where its class files are written.
+     * @param source  - Java source file of the training compile.
+     * @return int    - exit status code of the child process.
+     * @throws IOException          - if the child process cannot start.
+     * @throws InterruptedException - if interrupted waiting for the child process.
+     */
+    private static int launch(final Path jar, final List<String> options, final Path train, final Path source)
+            throws IOException, InterruptedException {
+
+        List<String> command = new ArrayList<>();
+
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(options);
+        command.addAll(Arrays.asList("-jar", jar.toString(), "-time", "-javac", "-d", train.toString(), "--",
+                                     source.toString()));
+
+        ProcessBuilder builder = new ProcessBuilder(command);
+
+        //run in the training directory so a daemon serving the working directory never takes the compile
+        builder.directory(train.toFile());
+        builder.redirectErrorStream(true);
+        builder.redirectOutput(new File(train.toFile(), "training.log"));
+
+        return builder.start().waitFor();
+
+    }//end launch
+
+    /**
+     * Delete the directory of the training compile and its files.
+     *
+     * @param dir - the directory, or null.
+     */
+    private static void delete(final Path dir) {
+
+        if (dir == null) {
+            return;
+        }//end if
+
+        File[] list = dir.toFile().listFiles();
+
+        if (list != null) {
+            for (File file : list) {
+                file.delete();
+            }//end for
+        }//end if
+
+        dir.toFile().delete();
+
+    }//end delete
+
+    private final static String ERROR_NO_JAR  = "Option -cds needs the compiler run from its jar file with java -jar.";
+    private final static String ERROR_ARCHIVE = "Class data sharing archive: '%s' not written by the training compile.";
+    private final static String ERROR_JDK     = "Class data sharing archive needs JDK 13 or later, not Java %s.";
+
+}//end class ClassDataArchive
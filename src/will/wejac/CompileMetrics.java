@@ -0,0 +1,421 @@
+/*
+ * @(#)CompileMetrics.java
+ *
+ * Title: WEJAC - Will's Elided Java Api Compiler.
+ *
+ * Description: Metrics of the compile of each Java source file and of the compiler run, written as a JSON or
+ *     CSV file for build dashboards.
+ *
+ * @author William F. Gilreath (wfgilreath@yahoo.com)
+ * @version 2.1  6/26/19
+ *
+ * Copyright © 2019 All Rights Reserved.
+ *
+ * License: This software is subject to the terms of the GNU General Public License (GPL)
+ *     version 3.0 available at the following link: http://www.gnu.org/copyleft/gpl.html.
+ *
+ * You must accept the terms of the GNU General Public License (GPL) license agreement
+ *     to use this software.
+ *
+ **/
+package will.wejac;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+final class CompileMetrics {
+
+    private final static ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final static String FORMAT_CSV = ".csv"; //file extension of the CSV format, else the JSON format
+
+    //names of the diagnostic counts, 0 - error, 1 - mandatory warning, 2 - note, 3 - other, 4 - warning
+    private final static String[] COUNTER_NAMES = { "errors", "mandatoryWarnings", "notes", "others", "warnings" };
+
+    private final String metricsFile; //file to write the metrics
+    private final long   timeStart;   //start time in nanoseconds of the compiler run
+
+    private final List<Record> records = new ArrayList<>(); //record of each compiled Java source file
+
+    static {
+
+        if (THREADS.isThreadCpuTimeSupported() && !THREADS.isThreadCpuTimeEnabled()) {
+            THREADS.setThreadCpuTimeEnabled(true);
+        }//end if
+
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+
+            if (threads.isThreadAllocatedMemorySupported() && !threads.isThreadAllocatedMemoryEnabled()) {
+                threads.setThreadAllocatedMemoryEnabled(true);
+            }//end if
+
+        }//end if
+
+    }//end static
+
+    /**
+     * Constructor for the metrics of a compiler run started now.
+     *
+     * @param metricsFile - file to write the metrics, in CSV format for a .csv file, else in JSON format.
+     */
+    CompileMetrics(final String metricsFile) {
+
+        this.metricsFile = metricsFile;
+        this.timeStart   = System.nanoTime();
+
+    }//end constructor
+
+    /**
+     * Get the CPU time of the current thread.
+     *
+     * @return long - CPU time in nanoseconds of the current thread, or 0 if not supported.
+     */
+    static long getCpuTime() {
+
+        return THREADS.isThreadCpuTimeSupported() ? Math.max(THREADS.getCurrentThreadCpuTime(), 0L) : 0L;
+
+    }//end getCpuTime
+
+    /**
+     * Get the bytes allocated by the current thread.
+     *
+     * @return long - bytes allocated by the current thread, or 0 if not supported.
+     */
+    static long getAllocatedBytes() {
+
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+
+            long bytes = ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(
+                    Thread.currentThread().getId());
+
+            return Math.max(bytes, 0L);
+
+        }//end if
+
+        return 0L;
+
+    }//end getAllocatedBytes
+
+    /**
+     * Record the metrics of the Java source files compiled by one compilation task. The CPU time and bytes
+     * allocated by the task are divided between its Java source files in proportion to their wall time, or
+     * evenly if no wall time of a Java source file was measured.
+     *
+     * @param fileNames         - names of the Java source files compiled by the task.
+     * @param diagnosticTime    - wall time in milliseconds of each Java source file.
+     * @param cpuTime           - CPU time in nanoseconds of the task.
+     * @param allocatedBytes    - bytes allocated by the task.
+     * @param diagnosticCounter - count of each kind of diagnostic of each Java source file.
+     * @param statusFlag        - compiler result of success or failure of each Java source file.
+     * @param param             - Javac compiler parameters of the task.
+     */
+    void record(final List<String> fileNames, final long[] diagnosticTime, final long cpuTime,
+                final long allocatedBytes, final int[][] diagnosticCounter, final boolean[] statusFlag,
+                final List<String> param) {
+
+        long totalTime = 0;
+
+        for (long time : diagnosticTime) {
+            totalTime += time;
+        }//end for
+
+        int count = fileNames.size();
+
+        synchronized (records) {
+
+            for (int x = 0; x < count; x++) {
+
+                double share = totalTime > 0 ? (double) diagnosticTime[x] / totalTime : 1.0 / count;
+
+                records.add(new Record(fileNames.get(x), diagnosticTime[x], (long) (cpuTime * share),
+                                       (long) (allocatedBytes * share), diagnosticCounter[x].clone(),
+                                       statusFlag[x], new ArrayList<>(param)));
+
+            }//end for
+
+        }//end synchronized
+
+    }//end record
+
+    /**
+     * Write the record of each compiled Java source file and a summary of the compiler run to the metrics file.
+     *
+     * @param resultFlag - compiler result of success or failure of the compiler run.
+     * @param param      - Javac compiler parameters of the compiler run.
+     * @throws IOException - if the metrics file cannot be written.
+     */
+    void write(final boolean resultFlag, final List<String> param) throws IOException {
+
+        List<Record> list;
+
+        synchronized (records) {
+            list = new ArrayList<>(records);
+        }//end synchronized
+
+        int succeeded = 0;
+
+        for (Record record : list) {
+            if (record.status) {
+                succeeded++;
+            }//end if
+        }//end for
+
+        Record summary = new Record("", (System.nanoTime() - timeStart) / 1000000L, 0L, 0L,
+                                    new int[COUNTER_NAMES.length], resultFlag && succeeded == list.size(), param);
+
+        for (Record record : list) {
+
+            summary.cpuTime        += record.cpuTime;
+            summary.allocatedBytes += record.allocatedBytes;
+
+            for (int x = 0; x < COUNTER_NAMES.length; x++) {
+                summary.counter[x] += record.counter[x];
+            }//end for
+
+        }//end for
+
+        try (Writer writer = Files.newBufferedWriter(Paths.get(metricsFile), StandardCharsets.UTF_8)) {
+
+            if (metricsFile.toLowerCase(Locale.ROOT).endsWith(FORMAT_CSV)) {
+                writeCsv(writer, list, summary);
+            } else {
+                writeJson(writer, list, summary, succeeded);
+            }//end if
+
+        }//end try
+
+    }//end write
+
+    /**
+     * Write the metrics as CSV with a header, a row for each Java source file, and a summary row last.
+     *
+     * @param writer  - writer of the metrics file.
+     * @param list    - record of each compiled Java source file.
+     * @param summary - record of the summary of the compiler run.
+     * @throws IOException - if the metrics file cannot be written.
+     */
+    private static void writeCsv(final Writer writer, final List<Record> list, final Record summary)
+            throws IOException {
+
+        writer.write("record,file,wallMs,cpuMs,allocatedBytes");
+
+        for (String name : COUNTER_NAMES) {
+            writer.write(',');
+            writer.write(name);
+        }//end for
+
+        writer.write(",status,params\n");
+
+        for (Record record : list) {
+            writeCsvRow(writer, "file", record);
+        }//end for
+
+        writeCsvRow(writer, "summary", summary);
+
+    }//end writeCsv
+
+    /**
+     * Write a record as a CSV row.
+     *
+     * @param writer - writer of the metrics file.
+     * @param kind   - kind of the record, file or summary.
+     * @param record - the record to write.
+     * @throws IOException - if the metrics file cannot be written.
+     */
+    private static void writeCsvRow(final Writer writer, final String kind, final Record record)
+            throws IOException {
+
+        StringBuilder row = new StringBuilder();
+
+        row.append(kind).append(',').append(csv(record.fileName)).append(',');
+        row.append(record.wallTime).append(',');
+        row.append(String.format(Locale.ROOT, "%.3f", record.cpuTime / 1000000.0)).append(',');
+        row.append(record.allocatedBytes);
+
+        for (int x = 0; x < COUNTER_NAMES.length; x++) {
+            row.append(',').append(record.counter[x]);
+        }//end for
+
+        row.append(',').append(record.status ? "success" : "failure");
+        row.append(',').append(csv(String.join(" ", record.param))).append('\n');
+
+        writer.write(row.toString());
+
+    }//end writeCsvRow
+
+    /**
+     * Write the metrics as a JSON object with an array of a record for each Java source file and a summary.
+     *
+     * @param writer    - writer of the metrics file.
+     * @param list      - record of each compiled Java source file.
+     * @param summary   - record of the summary of the compiler run.
+     * @param succeeded - number of Java source files compiled with success.
+     * @throws IOException - if the metrics file cannot be written.
+     */
+    private static void writeJson(final Writer writer, final List<Record> list, final Record summary,
+                                  final int succeeded) throws IOException {
+
+        writer.write("{\n  \"files\": [");
+
+        for (int x = 0; x < list.size(); x++) {
+
+            Record record = list.get(x);
+
+            writer.write(x == 0 ? "\n    {" : ",\n    {");
+            writer.write("\"file\": " + json(record.fileName) + ", ");
+            writeJsonFields(writer, record);
+            writer.write("}");
+
+        }//end for
+
+        writer.write(list.isEmpty() ? "],\n" : "\n  ],\n");
+
+        writer.write("  \"summary\": {");
+        writer.write("\"files\": " + list.size() + ", ");
+        writer.write("\"succeeded\": " + succeeded + ", ");
+        writer.write("\"failed\": " + (list.size() - succeeded) + ", ");
+        writeJsonFields(writer, summary);
+        writer.write("}\n}\n");
+
+    }//end writeJson
+
+    /**
+     * Write the fields of a record common to a Java source file and the summary as JSON object members.
+     *
+     * @param writer - writer of the metrics file.
+     * @param record - the record to write.
+     * @throws IOException - if the metrics file cannot be written.
+     */
+    private static void writeJsonFields(final Writer writer, final Record record) throws IOException {
+
+        StringBuilder text = new StringBuilder();
+
+        text.append("\"wallMs\": ").append(record.wallTime).append(", ");
+        text.append("\"cpuMs\": ").append(String.format(Locale.ROOT, "%.3f", record.cpuTime / 1000000.0));
+        text.append(", \"allocatedBytes\": ").append(record.allocatedBytes);
+
+        for (int x = 0; x < COUNTER_NAMES.length; x++) {
+            text.append(", \"").append(COUNTER_NAMES[x]).append("\": ").append(record.counter[x]);
+        }//end for
+
+        text.append(", \"success\": ").append(record.status);
+        text.append(", \"params\": [");
+
+        for (int x = 0; x < record.param.size(); x++) {
+            text.append(x == 0 ? "" : ", ").append(json(record.param.get(x)));
+        }//end for
+
+        text.append(']');
+
+        writer.write(text.toString());
+
+    }//end writeJsonFields
+
+    /**
+     * Quote a value as a CSV field if it has a comma, quote, or line terminator.
+     *
+     * @param value   - the value.
+     * @return String - the CSV field.
+     */
+    private static String csv(final String value) {
+
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                && value.indexOf('\r') < 0) {
+            return value;
+        }//end if
+
+        return '"' + value.replace("\"", "\"\"") + '"';
+
+    }//end csv
+
+    /**
+     * Quote a value as a JSON string.
+     *
+     * @param value   - the value.
+     * @return String - the JSON string.
+     */
+    static String json(final String value) {
+
+        StringBuilder text = new StringBuilder(value.length() + 2);
+
+        text.append('"');
+
+        for (int x = 0; x < value.length(); x++) {
+
+            char c = value.charAt(x);
+
+            switch (c) {
+                case '"':  text.append("\\\""); break;
+                case '\\': text.append("\\\\"); break;
+                case '\n': text.append("\\n");  break;
+                case '\r': text.append("\\r");  break;
+                case '\t': text.append("\\t");  break;
+                default:
+                    if (c < 0x20) {
+                        text.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        text.append(c);
+                    }//end if
+                    break;
+            }//end switch
+
+        }//end for
+
+        return text.append('"').toString();
+
+    }//end json
+
+    /**
+     * Metrics of the compile of a Java source file, or the summary of a compiler run.
+     */
+    private final static class Record {
+
+        private final String       fileName; //name of the Java source file, empty for the summary
+        private final long         wallTime; //wall time in milliseconds
+        private final int[]        counter;  //count of each kind of diagnostic
+        private final boolean      status;   //compiler result of success or failure
+        private final List<String> param;    //Javac compiler parameters
+
+        private long cpuTime;        //CPU time in nanoseconds
+        private long allocatedBytes; //bytes allocated
+
+        /**
+         * Constructor for the metrics of the compile of a Java source file.
+         *
+         * @param fileName       - name of the Java source file.
+         * @param wallTime       - wall time in milliseconds.
+         * @param cpuTime        - CPU time in nanoseconds.
+         * @param allocatedBytes - bytes allocated.
+         * @param counter        - count of each kind of diagnostic.
+         * @param status         - compiler result of success or failure.
+         * @param param          - Javac compiler parameters.
+         */
+        Record(final String fileName, final long wallTime, final long cpuTime, final long allocatedBytes,
+               final int[] counter, final boolean status, final List<String> param) {
+
+            this.fileName       = fileName;
+            this.wallTime       = wallTime;
+            this.cpuTime        = cpuTime;
+            this.allocatedBytes = allocatedBytes;
+            this.counter        = counter;
+            this.status         = status;
+            this.param          = param;
+
+        }//end constructor
+
+    }//end class Record
+
+}//end class CompileMetrics
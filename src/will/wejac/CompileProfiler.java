@@ -0,0 +1,331 @@
+/*
+ * @(#)CompileProfiler.java
+ *
+ * Title: WEJAC - Will's Elided Java Api Compiler.
+ *
+ * Description: Profile of the resources used to compile each Java source file, the bytes allocated, garbage
+ *     collections, and peak heap during each compilation task, with a report of the heaviest Java source files
+ *     and an optional JDK Flight Recorder recording with an event of each compilation task.
+ *
+ * @author William F. Gilreath (wfgilreath@yahoo.com)
+ * @version 2.1  6/26/19
+ *
+ * Copyright © 2019 All Rights Reserved.
+ *
+ * License: This software is subject to the terms of the GNU General Public License (GPL)
+ *     version 3.0 available at the following link: http://www.gnu.org/copyleft/gpl.html.
+ *
+ * You must accept the terms of the GNU General Public License (GPL) license agreement
+ *     to use this software.
+ *
+ **/
+package will.wejac;
+
+import java.io.IOException;
+import java.io.PrintStream;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.text.ParseException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import jdk.jfr.Category;
+import jdk.jfr.Configuration;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+final class CompileProfiler {
+
+    private final static int    PROFILE_TOP   = 10;                     //heaviest Java source files reported
+    private final static Path   RECORDING     = Paths.get("wejac.jfr"); //flight recording of the compiler run
+    private final static String RECORD_CONFIG = "profile";              //JDK configuration of the recording
+
+    private final List<Profile> profiles = new ArrayList<>(); //profile of each compiled Java source file
+    private final Recording     recording;                    //flight recording of the compiler run, or null
+
+    /**
+     * Constructor for the profile of a compiler run, and start the flight recording of the run.
+     *
+     * @param record - set to record the compiler run with the JDK Flight Recorder.
+     * @throws IOException    - if the JDK configuration of the flight recording cannot be read.
+     * @throws ParseException - if the JDK configuration of the flight recording cannot be parsed.
+     */
+    CompileProfiler(final boolean record) throws IOException, ParseException {
+
+        if (record) {
+
+            this.recording = new Recording(Configuration.getConfiguration(RECORD_CONFIG));
+            this.recording.setName("WEJAC");
+            this.recording.start();
+
+        } else {
+            this.recording = null;
+        }//end if
+
+    }//end constructor
+
+    /**
+     * Start the profile of a compilation task, with the peak heap reset so the peak of the task is measured.
+     * Compilation tasks in parallel share the garbage collections and heap of the process, so those are measured
+     * for all the tasks at once.
+     *
+     * @param fileNames - names of the Java source files compiled by the task.
+     * @return Sample   - the start of the profile of the task.
+     */
+    Sample start(final List<String> fileNames) {
+
+        Sample sample = new Sample();
+
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                pool.resetPeakUsage();
+            }//end if
+
+        }//end for
+
+        sample.gcCount = AdaptiveBatcher.getGcCount();
+        sample.gcTime  = AdaptiveBatcher.getGcTime();
+
+        if (recording != null) {
+
+            sample.event = new CompileEvent();
+            sample.event.sources = fileNames.size();
+            sample.event.files   = fileNames.size() == 1 ? fileNames.get(0) : fileNames.toString();
+            sample.event.begin();
+
+        }//end if
+
+        return sample;
+
+    }//end start
+
+    /**
+     * Record the profile of the Java source files compiled by one compilation task. The bytes allocated and the
+     * garbage collections of the task are divided between its Java source files in proportion to their wall time,
+     * or evenly if no wall time of a Java source file was measured, and the peak heap is of the whole task.
+     *
+     * @param sample         - the start of the profile of the task.
+     * @param fileNames      - names of the Java source files compiled by the task.
+     * @param diagnosticTime - wall time in milliseconds of each Java source file.
+     * @param allocatedBytes - bytes allocated by the task.
+     */
+    void record(final Sample sample, final List<String> fileNames, final long[] diagnosticTime,
+                final long allocatedBytes) {
+
+        long gcCount  = AdaptiveBatcher.getGcCount() - sample.gcCount;
+        long gcTime   = AdaptiveBatcher.getGcTime() - sample.gcTime;
+        long peakHeap = 0;
+
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+
+            if (pool.getType() == MemoryType.HEAP && pool.isValid() && pool.getPeakUsage() != null) {
+                peakHeap += pool.getPeakUsage().getUsed();
+            }//end if
+
+        }//end for
+
+        if (sample.event != null) {
+
+            sample.event.allocated = allocatedBytes;
+            sample.event.gcCount   = gcCount;
+            sample.event.gcTime    = gcTime;
+            sample.event.peakHeap  = peakHeap;
+            sample.event.commit();
+
+        }//end if
+
+        long totalTime = 0;
+
+        for (long time : diagnosticTime) {
+            totalTime += time;
+        }//end for
+
+        int count = fileNames.size();
+
+        synchronized (profiles) {
+
+            for (int x = 0; x < count; x++) {
+
+                double share = totalTime > 0 ? (double) diagnosticTime[x] / totalTime : 1.0 / count;
+
+                profiles.add(new Profile(fileNames.get(x), diagnosticTime[x], (long) (allocatedBytes * share),
+                                         Math.round(gcCount * share), (long) (gcTime * share), peakHeap));
+
+            }//end for
+
+        }//end synchronized
+
+    }//end record
+
+    /**
+     * Report the heaviest Java source files by bytes allocated to compile them, and stop the flight recording
+     * and write it to the recording file.
+     *
+     * @param out - compiler output of the report.
+     */
+    void report(final PrintStream out) {
+
+        List<Profile> list;
+
+        synchronized (profiles) {
+            list = new ArrayList<>(profiles);
+        }//end synchronized
+
+        Collections.sort(list, new Comparator<Profile>() {
+
+            @Override
+            public int compare(final Profile a, final Profile b) {
+                return Long.compare(b.allocatedBytes, a.allocatedBytes);
+            }//end compare
+
+        });
+
+        long allocatedBytes = 0;
+        long gcCount        = 0;
+        long gcTime         = 0;
+        long peakHeap       = 0;
+
+        for (Profile profile : list) {
+
+            allocatedBytes += profile.allocatedBytes;
+            gcCount        += profile.gcCount;
+            gcTime         += profile.gcTime;
+            peakHeap        = Math.max(peakHeap, profile.peakHeap);
+
+        }//end for
+
+        out.printf("%nProfile of %d Java source files: %d-KB allocated, %d GC in %d-ms, %d-KB peak heap.%n",
+                   list.size(), allocatedBytes / 1024, gcCount, gcTime, peakHeap / 1024);
+
+        if (!list.isEmpty()) {
+            out.printf("Heaviest Java source files:%n");
+        }//end if
+
+        for (int x = 0; x < list.size() && x < PROFILE_TOP; x++) {
+
+            Profile profile = list.get(x);
+
+            out.printf("  %10d-KB allocated %4d GC in %6d-ms %10d-KB peak heap %7d-ms: %s%n",
+                       profile.allocatedBytes / 1024, profile.gcCount, profile.gcTime, profile.peakHeap / 1024,
+                       profile.wallTime, profile.fileName);
+
+        }//end for
+
+        if (recording != null) {
+
+            try {
+
+                recording.stop();
+                recording.dump(RECORDING);
+
+                out.printf("Flight recording: '%s' written.%n", RECORDING.toAbsolutePath());
+
+            } catch (IOException ex) {
+                out.printf(ERROR_RECORDING, RECORDING, ex.getClass().getName(), ex.getMessage());
+            } finally {
+                recording.close();
+            }//end try
+
+        }//end if
+
+    }//end report
+
+    /**
+     * Start of the profile of a compilation task.
+     */
+    final static class Sample {
+
+        private long         gcCount = 0;    //number of garbage collections at the start of the task
+        private long         gcTime  = 0;    //time in milliseconds of garbage collection at the start of the task
+        private CompileEvent event   = null; //flight recording event of the task, or null
+
+    }//end class Sample
+
+    /**
+     * Profile of a compiled Java source file.
+     */
+    private final static class Profile {
+
+        private final String fileName;       //name of the Java source file
+        private final long   wallTime;       //wall time in milliseconds to compile
+        private final long   allocatedBytes; //bytes allocated to compile
+        private final long   gcCount;        //number of garbage collections while compiling
+        private final long   gcTime;         //time in milliseconds of garbage collection while compiling
+        private final long   peakHeap;       //peak heap bytes used by the compilation task
+
+        /**
+         * Constructor for the profile of a compiled Java source file.
+         *
+         * @param fileName       - name of the Java source file.
+         * @param wallTime       - wall time in milliseconds to compile.
+         * @param allocatedBytes - bytes allocated to compile.
+         * @param gcCount        - number of garbage collections while compiling.
+         * @param gcTime         - time in milliseconds of garbage collection while compiling.
+         * @param peakHeap       - peak heap bytes used by the compilation task.
+         */
+        Profile(final String fileName, final long wallTime, final long allocatedBytes, final long gcCount,
+                final long gcTime, final long peakHeap) {
+
+            this.fileName       = fileName;
+            this.wallTime       = wallTime;
+            this.allocatedBytes = allocatedBytes;
+            this.gcCount        = gcCount;
+            this.gcTime         = gcTime;
+            this.peakHeap       = peakHeap;
+
+        }//end constructor
+
+    }//end class Profile
+
+    /**
+     * Flight recording event of a compilation task, from the start to the end of the compile.
+     */
+    @Name("will.wejac.Compile")
+    @Label("WEJAC Compile")
+    @Category("WEJAC")
+    @Description("Compilation task of one or more Java source files")
+    @StackTrace(false)
+    final static class CompileEvent extends Event {
+
+        @Label("Files")
+        String files;
+
+        @Label("Sources")
+        int sources;
+
+        @Label("Allocated")
+        @DataAmount
+        long allocated;
+
+        @Label("GC Count")
+        long gcCount;
+
+        @Label("GC Time")
+        @Timespan(Timespan.MILLISECONDS)
+        long gcTime;
+
+        @Label("Peak Heap")
+        @DataAmount
+        long peakHeap;
+
+    }//end class CompileEvent
+
+    private final static String ERROR_RECORDING = "Flight recording: '%s' not written for exception: '%s' is '%s'.%n";
+
+}//end class CompileProfiler
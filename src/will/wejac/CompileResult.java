@@ -0,0 +1,224 @@
+/*
+ * @(#)CompileResult.java
+ *
+ * Title: WEJAC - Will's Elided Java Api Compiler.
+ *
+ * Description: Immutable result of a compile by the WEJAC compiler embedded in a host, with the exit status,
+ *     the compiler diagnostics, and the time to compile each Java source file.
+ *
+ * @author William F. Gilreath (wfgilreath@yahoo.com)
+ * @version 2.1  6/26/19
+ *
+ * Copyright © 2019 All Rights Reserved.
+ *
+ * License: This software is subject to the terms of the GNU General Public License (GPL)
+ *     version 3.0 available at the following link: http://www.gnu.org/copyleft/gpl.html.
+ *
+ * You must accept the terms of the GNU General Public License (GPL) license agreement
+ *     to use this software.
+ *
+ **/
+package will.wejac;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+public final class CompileResult {
+
+    private final int               status;      //exit status code of the compile
+    private final long              timeMillis;  //time in milliseconds of the compile
+    private final List<Message>     diagnostics; //compiler diagnostics in the order reported
+    private final Map<String, Long> fileTimes;   //time in milliseconds to compile each Java source file
+    private final String            message;     //text of the problem that stopped the compile, or null
+
+    /**
+     * Constructor for the result of a compile.
+     *
+     * @param status      - exit status code of the compile.
+     * @param timeMillis  - time in milliseconds of the compile.
+     * @param diagnostics - compiler diagnostics in the order reported.
+     * @param fileTimes   - time in milliseconds to compile each Java source file, in compile order.
+     * @param message     - text of the problem that stopped the compile, or null.
+     */
+    CompileResult(final int status, final long timeMillis, final List<Message> diagnostics,
+                  final Map<String, Long> fileTimes, final String message) {
+
+        this.status      = status;
+        this.timeMillis  = timeMillis;
+        this.diagnostics = Collections.unmodifiableList(new ArrayList<>(diagnostics));
+        this.fileTimes   = Collections.unmodifiableMap(new LinkedHashMap<>(fileTimes));
+        this.message     = message;
+
+    }//end constructor
+
+    /**
+     * Get the exit status code of the compile, the same as the exit status of the WEJAC command line.
+     *
+     * @return int - 0 for success, 1 for failure to compile a Java source file, 2 for a problem such as an
+     *               option that is not valid or a Java source file that is not found.
+     */
+    public int getStatus() {
+
+        return status;
+
+    }//end getStatus
+
+    /**
+     * Check if every Java source file compiled with success.
+     *
+     * @return boolean - true if the compile succeeded.
+     */
+    public boolean isSuccess() {
+
+        return status == Compiler.EXIT_CODE_SUCCESS;
+
+    }//end isSuccess
+
+    /**
+     * Get the time of the compile.
+     *
+     * @return long - time in milliseconds of the compile.
+     */
+    public long getTimeMillis() {
+
+        return timeMillis;
+
+    }//end getTimeMillis
+
+    /**
+     * Get the compiler diagnostics of the compile.
+     *
+     * @return List - the compiler diagnostics in the order reported.
+     */
+    public List<Message> getDiagnostics() {
+
+        return diagnostics;
+
+    }//end getDiagnostics
+
+    /**
+     * Get the time to compile each Java source file.
+     *
+     * @return Map - time in milliseconds to compile each Java source file by name, in compile order.
+     */
+    public Map<String, Long> getFileTimes() {
+
+        return fileTimes;
+
+    }//end getFileTimes
+
+    /**
+     * Get the text of the problem that stopped the compile before or without compiler diagnostics, such as an
+     * option that is not valid or a Java source file that is not found.
+     *
+     * @return String - the text of the problem the WEJAC command line prints after "Error!", or null if the
+     *                  status is not a problem.
+     */
+    public String getMessage() {
+
+        return message;
+
+    }//end getMessage
+
+    /**
+     * Compiler diagnostic of a compile, copied from the diagnostic reported by javac so the compiler trees of the
+     * compile are not kept by the result.
+     */
+    public final static class Message {
+
+        private final Diagnostic.Kind kind;     //kind of the diagnostic
+        private final String          fileName; //name of the Java source file, or null
+        private final long            line;     //line number in the Java source file, or Diagnostic.NOPOS
+        private final long            column;   //column number in the line, or Diagnostic.NOPOS
+        private final String          text;     //localized message of the diagnostic
+
+        /**
+         * Constructor for a copy of a compiler diagnostic.
+         *
+         * @param fileName   - name of the Java source file of the diagnostic, or null.
+         * @param diagnostic - the diagnostic reported by javac.
+         * @param locale     - locale for the message of the diagnostic.
+         */
+        Message(final String fileName, final Diagnostic<? extends JavaFileObject> diagnostic, final Locale locale) {
+
+            this.kind     = diagnostic.getKind();
+            this.fileName = fileName;
+            this.line     = diagnostic.getLineNumber();
+            this.column   = diagnostic.getColumnNumber();
+            this.text     = diagnostic.getMessage(locale);
+
+        }//end constructor
+
+        /**
+         * Get the kind of the diagnostic.
+         *
+         * @return Kind - the kind of the diagnostic.
+         */
+        public Diagnostic.Kind getKind() {
+
+            return kind;
+
+        }//end getKind
+
+        /**
+         * Get the name of the Java source file of the diagnostic.
+         *
+         * @return String - the name of the Java source file, or null if the diagnostic has none.
+         */
+        public String getFileName() {
+
+            return fileName;
+
+        }//end getFileName
+
+        /**
+         * Get the line number of the diagnostic.
+         *
+         * @return long - the line number, or Diagnostic.NOPOS if the diagnostic has no position.
+         */
+        public long getLineNumber() {
+
+            return line;
+
+        }//end getLineNumber
+
+        /**
+         * Get the column number of the diagnostic.
+         *
+         * @return long - the column number, or Diagnostic.NOPOS if the diagnostic has no position.
+         */
+        public long getColumnNumber() {
+
+            return column;
+
+        }//end getColumnNumber
+
+        /**
+         * Get the message of the diagnostic.
+         *
+         * @return String - the localized message.
+         */
+        public String getMessage() {
+
+            return text;
+
+        }//end getMessage
+
+        @Override
+        public String toString() {
+
+            return fileName == null ? String.format("%s: %s", kind, text)
+                                    : String.format("%s:%d:%d: %s: %s", fileName, line, column, kind, text);
+
+        }//end toString
+
+    }//end class Message
+
+}//end class CompileResult
@@ -0,0 +1,387 @@
+/*
+ * @(#)CompileTimer.java
+ *
+ * Title: WEJAC - Will's Elided Java Api Compiler.
+ *
+ * Description: A Java compiler task listener that times each compiler phase and each Java source file, and the
+ *     annotation processors of the task.
+ *
+ * @author William F. Gilreath (wfgilreath@yahoo.com)
+ * @version 2.1  6/26/19
+ *
+ * Copyright © 2019 All Rights Reserved.
+ *
+ * License: This software is subject to the terms of the GNU General Public License (GPL)
+ *     version 3.0 available at the following link: http://www.gnu.org/copyleft/gpl.html.
+ *
+ * You must accept the terms of the GNU General Public License (GPL) license agreement
+ *     to use this software.
+ *
+ **/
+package will.wejac;
+
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
+
+import java.io.PrintStream;
+
+import java.net.URI;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.Completion;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+
+import javax.tools.JavaFileObject;
+
+final class CompileTimer implements TaskListener {
+
+    //task events that span the phases of the whole task or of annotation processing, printed apart from the phases
+    private final static Set<TaskEvent.Kind> SPANS = Collections.unmodifiableSet(
+        EnumSet.of(TaskEvent.Kind.COMPILATION, TaskEvent.Kind.ANNOTATION_PROCESSING,
+                   TaskEvent.Kind.ANNOTATION_PROCESSING_ROUND));
+
+    private final static String TIME_FORMAT   = "  %-28s %10.3f-ms%n";           //name and time of a table row
+    private final static String ROUNDS_FORMAT = "  %-28s %10.3f-ms in %d rounds%n"; //time and rounds of a processor
+
+    private final Map<String, Long> started = new HashMap<>(); //start time of each open phase of a source file
+    private final Map<URI, Long>    elapsed = new HashMap<>(); //total time in nanoseconds of each source file
+    private final Map<URI, String>  names   = new LinkedHashMap<>(); //name of each source file
+
+    private final Map<TaskEvent.Kind, Long>    phaseTime   = new EnumMap<>(TaskEvent.Kind.class); //time of each phase
+    private final Map<TaskEvent.Kind, Long>    phaseStart  = new EnumMap<>(TaskEvent.Kind.class); //start of a phase
+    private final Map<TaskEvent.Kind, Integer> phaseActive = new EnumMap<>(TaskEvent.Kind.class); //open events
+
+    private final Map<TaskEvent.Kind, List<URI>> phaseUnits = new EnumMap<>(TaskEvent.Kind.class); //units of a phase
+
+    private final Map<String, long[]> processorTime = new LinkedHashMap<>(); //time and rounds of each processor
+
+    /**
+     * Record the start time of a compiler phase for a Java source file.
+     *
+     * @param event - compiler task event of the phase started.
+     */
+    @Override
+    public void started(final TaskEvent event) {
+
+        long           time   = System.nanoTime();
+        TaskEvent.Kind kind   = event.getKind();
+        JavaFileObject source = event.getSourceFile();
+
+        Integer active = phaseActive.get(kind);
+
+        if (active == null || active == 0) {
+            phaseStart.put(kind, time);
+            phaseUnits.put(kind, new ArrayList<URI>());
+        }//end if
+
+        phaseActive.put(kind, active == null ? 1 : active + 1);
+
+        if (source != null) {
+
+            names.put(source.toUri(), source.getName());
+            started.put(kind + source.toUri().toString(), time);
+            phaseUnits.get(kind).add(source.toUri());
+
+        }//end if
+
+    }//end started
+
+    /**
+     * Add the time of a finished compiler phase to the total time of the phase and of the Java source file. The
+     * time of a phase that runs for many Java source files at once, as entering symbols does, is divided evenly
+     * between those Java source files.
+     *
+     * @param event - compiler task event of the phase finished.
+     */
+    @Override
+    public void finished(final TaskEvent event) {
+
+        long           time   = System.nanoTime();
+        TaskEvent.Kind kind   = event.getKind();
+        JavaFileObject source = event.getSourceFile();
+
+        Integer active = phaseActive.get(kind);
+
+        if (active == null || active == 0) {
+            return;
+        }//end if
+
+        phaseActive.put(kind, active - 1);
+
+        List<URI> units = phaseUnits.get(kind);
+
+        if (source != null && units.size() <= 1) {
+
+            Long timeStart = started.remove(kind + source.toUri().toString());
+
+            if (timeStart != null) {
+                this.addTime(source.toUri(), time - timeStart);
+            }//end if
+
+        }//end if
+
+        if (active == 1) {
+
+            long phase = time - phaseStart.get(kind);
+
+            Long total = phaseTime.get(kind);
+            phaseTime.put(kind, (total == null ? 0L : total) + phase);
+
+            if (units.size() > 1) {
+
+                for (URI unit : units) {
+                    started.remove(kind + unit.toString());
+                    this.addTime(unit, phase / units.size());
+                }//end for
+
+            }//end if
+
+        }//end if
+
+    }//end finished
+
+    /**
+     * Add time to the total time of a Java source file.
+     *
+     * @param source - URI of the Java source file.
+     * @param time   - time in nanoseconds to add.
+     */
+    private void addTime(final URI source, final long time) {
+
+        Long total = elapsed.get(source);
+        elapsed.put(source, (total == null ? 0L : total) + time);
+
+    }//end addTime
+
+    /**
+     * Get the total compile time of a Java source file in milliseconds.
+     *
+     * @param source - URI of the Java source file.
+     * @return long  - total time in milliseconds of all compiler phases for the source file.
+     */
+    long getTimeMillis(final URI source) {
+
+        Long total = elapsed.get(source);
+
+        return total == null ? 0L : total / 1000000L;
+
+    }//end getTimeMillis
+
+    /**
+     * Time the annotation processors of the task, each wrapped so the time of its initialization and of each round
+     * it processes is added to the time of the processor.
+     *
+     * @param processors - the processors of the task.
+     * @return List      - the timed processors, in the same order.
+     */
+    List<Processor> time(final List<Processor> processors) {
+
+        List<Processor> timed = new ArrayList<>(processors.size());
+
+        for (Processor processor : processors) {
+            timed.add(new TimedProcessor(processor));
+        }//end for
+
+        return timed;
+
+    }//end time
+
+    /**
+     * Add time and a round to the total time of an annotation processor.
+     *
+     * @param name   - class name of the processor.
+     * @param time   - time in nanoseconds to add.
+     * @param rounds - rounds to add.
+     */
+    private void addProcessorTime(final String name, final long time, final int rounds) {
+
+        long[] total = processorTime.get(name);
+
+        if (total == null) {
+            total = new long[2];
+            processorTime.put(name, total);
+        }//end if
+
+        total[0] += time;
+        total[1] += rounds;
+
+    }//end addProcessorTime
+
+    /**
+     * Print the time of each compiler phase, of each compilation unit, and of each annotation processor, sorted
+     * slowest first. The whole task and annotation processing span other phases, so their times are printed
+     * apart from the phases. Attribution and flow analysis are both in the analyze phase, as javac reports no
+     * event of each.
+     *
+     * @param out - compiler output of the times.
+     */
+    void print(final PrintStream out) {
+
+        List<Map.Entry<TaskEvent.Kind, Long>> phases = new ArrayList<>(phaseTime.entrySet());
+        Collections.sort(phases, new Comparator<Map.Entry<TaskEvent.Kind, Long>>() {
+
+            @Override
+            public int compare(final Map.Entry<TaskEvent.Kind, Long> a, final Map.Entry<TaskEvent.Kind, Long> b) {
+                return Long.compare(b.getValue(), a.getValue());
+            }//end compare
+
+        });
+
+        //analyze is one javac phase of attribution, flow analysis, and desugaring, with no event of each
+        out.printf("Phase times:%n");
+
+        for (Map.Entry<TaskEvent.Kind, Long> phase : phases) {
+
+            if (!SPANS.contains(phase.getKey())) {
+                out.printf(TIME_FORMAT, phase.getKey(), phase.getValue() / 1000000.0);
+            }//end if
+
+        }//end for
+
+        out.printf("Span times, including the phases in them:%n");
+
+        for (Map.Entry<TaskEvent.Kind, Long> phase : phases) {
+
+            if (SPANS.contains(phase.getKey())) {
+                out.printf(TIME_FORMAT, phase.getKey(), phase.getValue() / 1000000.0);
+            }//end if
+
+        }//end for
+
+        List<Map.Entry<URI, Long>> units = new ArrayList<>(elapsed.entrySet());
+        Collections.sort(units, new Comparator<Map.Entry<URI, Long>>() {
+
+            @Override
+            public int compare(final Map.Entry<URI, Long> a, final Map.Entry<URI, Long> b) {
+                return Long.compare(b.getValue(), a.getValue());
+            }//end compare
+
+        });
+
+        out.printf("Compilation unit times:%n");
+
+        for (Map.Entry<URI, Long> unit : units) {
+            out.printf(TIME_FORMAT, names.get(unit.getKey()), unit.getValue() / 1000000.0);
+        }//end for
+
+        if (!processorTime.isEmpty()) {
+
+            List<Map.Entry<String, long[]>> processors = new ArrayList<>(processorTime.entrySet());
+            Collections.sort(processors, new Comparator<Map.Entry<String, long[]>>() {
+
+                @Override
+                public int compare(final Map.Entry<String, long[]> a, final Map.Entry<String, long[]> b) {
+                    return Long.compare(b.getValue()[0], a.getValue()[0]);
+                }//end compare
+
+            });
+
+            out.printf("Processor times:%n");
+
+            for (Map.Entry<String, long[]> processor : processors) {
+                out.printf(ROUNDS_FORMAT, processor.getKey(), processor.getValue()[0] / 1000000.0,
+                           processor.getValue()[1]);
+            }//end for
+
+        }//end if
+
+        out.println();
+
+    }//end print
+
+    /**
+     * Annotation processor that delegates to a processor of the task and times its initialization and rounds.
+     */
+    private final class TimedProcessor implements Processor {
+
+        private final Processor processor; //the processor timed
+        private final String    name;      //class name of the processor
+
+        /**
+         * Constructor for the timed annotation processor.
+         *
+         * @param processor - the processor timed.
+         */
+        TimedProcessor(final Processor processor) {
+
+            this.processor = processor;
+            this.name      = processor.getClass().getName();
+
+        }//end constructor
+
+        @Override
+        public Set<String> getSupportedOptions() {
+
+            return processor.getSupportedOptions();
+
+        }//end getSupportedOptions
+
+        @Override
+        public Set<String> getSupportedAnnotationTypes() {
+
+            return processor.getSupportedAnnotationTypes();
+
+        }//end getSupportedAnnotationTypes
+
+        @Override
+        public SourceVersion getSupportedSourceVersion() {
+
+            return processor.getSupportedSourceVersion();
+
+        }//end getSupportedSourceVersion
+
+        @Override
+        public void init(final ProcessingEnvironment env) {
+
+            long timeStart = System.nanoTime();
+
+            try {
+                processor.init(env);
+            } finally {
+                addProcessorTime(name, System.nanoTime() - timeStart, 0);
+            }//end try
+
+        }//end init
+
+        @Override
+        public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment round) {
+
+            long timeStart = System.nanoTime();
+
+            try {
+                return processor.process(annotations, round);
+            } finally {
+                addProcessorTime(name, System.nanoTime() - timeStart, 1);
+            }//end try
+
+        }//end process
+
+        @Override
+        public Iterable<? extends Completion> getCompletions(final Element element, final AnnotationMirror annotation,
+                                                             final ExecutableElement member, final String userText) {
+
+            return processor.getCompletions(element, annotation, member, userText);
+
+        }//end getCompletions
+
+    }//end class TimedProcessor
+
+}//end class CompileTimer
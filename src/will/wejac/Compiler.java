@@ -19,38 +19,130 @@
  **/
 package will.wejac;
 
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.io.Writer;
 
+import java.net.URI;
+
 import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import javax.annotation.processing.Processor;
 
 import javax.tools.Diagnostic;
-import javax.tools.DiagnosticCollector;
+import javax.tools.DiagnosticListener;
 import javax.tools.JavaCompiler;
 import javax.tools.JavaFileObject;
 import javax.tools.StandardJavaFileManager;
-import javax.tools.ToolProvider;
+import javax.tools.StandardLocation;
 
 public final class Compiler {
 
-    private static boolean briefFlag = false;  //set brief error reporting a count of error diagnostics
-    private static boolean finalFlag = false;  //set final compilation with no debug information
+    private boolean batchFlag = false;  //set batch compile of all Java source files in one compilation task
+    private boolean briefFlag = false;  //set brief error reporting a count of error diagnostics
+    private boolean finalFlag = false;  //set final compilation with no debug information
+
+    private boolean echoFlag  = false;  //set echo Java compiler parameters and compiler status
+    private boolean hushFlag  = false;  //set hush compiler diagnostics except errors
+    private boolean muteFlag  = false;  //set mute all compiler diagnostics are silenced
+    private boolean timeFlag  = false;  //set to time overall time to compile a Java source file
+
+    private boolean daemonFlag = false; //set daemon to serve compile requests from a long-lived process
+    private boolean cdsFlag    = false; //set cds to create the class data sharing archive of the jar file
+    private boolean quietFlag  = false; //set quiet to create the archive with no timed runs for the launcher
+
+    private boolean incrementalFlag = false; //set incremental compile of only changed Java source files
+
+    private boolean watchFlag = false;  //set watch to compile changed Java source files until stopped
+
+    private boolean failFastFlag = false; //set fail fast to stop all compiles at the first error diagnostic
+    private boolean adaptiveFlag = false; //set adaptive compile in batches of Java source files sized to the heap
+    private boolean checkFlag    = false; //set check to parse and analyze Java source files with no class files
+    private boolean profileFlag  = false; //set profile to report the resources used to compile each Java source
+    private boolean recordFlag   = false; //set record to profile with a JDK Flight Recorder recording of the run
+    private boolean pipelineFlag = false; //set pipeline to compile groups of dependent packages on parallel threads
+
+    private int     parallelCount = 0;  //set number of threads to compile Java source files in parallel
+
+    private final ArrayList<String> files   = new ArrayList<>(); //Javac compiler Java source files
+    private final ArrayList<String> sources = new ArrayList<>(); //sources given, watched for new Java source files
+    private final ArrayList<String> param   = new ArrayList<>(); //Javac compiler parameters implicit and explicit
+
+    private BuildManifest manifest = null; //manifest of compiled Java source files for incremental compile
+
+    private String              jarFile = null; //set jar file to write the classes compiled in memory
+    private Map<String, byte[]> classes = null; //bytecode of each class by binary name compiled in memory
+
+    private Map<String, byte[]> resources = null; //bytes of each class output resource by path written in memory
+
+    private String processorPrint = ""; //fingerprint of the annotation processors computed once for the run
+
+    private String         metricsFile = null; //set metrics file to write the metrics of each Java source file
+    private CompileMetrics metrics     = null; //metrics of each compiled Java source file and the compiler run
 
-    private static boolean echoFlag  = false;  //set echo Java compiler parameters and compiler status
-    private static boolean hushFlag  = false;  //set hush compiler diagnostics except errors
-    private static boolean muteFlag  = false;  //set mute all compiler diagnostics are silenced
-    private static boolean timeFlag  = false;  //set to time overall time to compile a Java source file
+    private String              format    = null; //set format of diagnostics written as json or sarif
+    private DiagnosticFormatter formatter = null; //writer of the diagnostics in the format as they are reported
 
-    private final static ArrayList<String> files = new ArrayList<>(); //Javac compiler Java source files
-    private final static ArrayList<String> param = new ArrayList<>(); //Javac compiler parameters implicit and explicit
+    private String      cacheLocation = null; //set directory or HTTP URL of the shared cache of class files
+    private OutputCache cache         = null; //cache of the class files compiled by each compilation task
+
+    private CompileProfiler profiler = null; //profile of the resources used to compile each Java source file
+
+    private PipelineScheduler pipeline = null; //groups and header Java source files of a pipelined compile
+
+    private DiagnosticCounter total = new DiagnosticCounter(1, null); //count of each kind of diagnostic of the run
+
+    private List<CompileResult.Message> messages  = null; //diagnostics kept for the result of an embedded compile
+    private Map<String, Long>           fileTimes = null; //time of each Java source file for an embedded compile
+
+    private boolean successFlag = false; //compiler result of success or failure for all the Java source files
+    private String  problem     = null;  //text of the problem that stopped the compiler, for an embedded compile
+
+    private final PrintStream out;      //compiler output of diagnostics and results
+    private final Writer      err;      //Javac compiler output other than diagnostics
 
     private final static Charset CHARSET = Charset.defaultCharset();
     private final static String  ENDLN   = System.getProperty("line.separator");
@@ -63,439 +155,2234 @@ public final class Compiler {
      * Private constructor to prevent instantiating this class except internally.
      */
     private Compiler() {
+
+        this(System.out, SYS_ERR);
+
+    }//end constructor
+
+    /**
+     * Constructor for a compiler with its own output, such as for a compile request served by the daemon.
+     *
+     * @param out - compiler output of diagnostics and results.
+     * @param err - Javac compiler output other than diagnostics.
+     */
+    Compiler(final PrintStream out, final Writer err) {
+
+        this.out = out;
+        this.err = err;
+
+    }//end constructor
+
+    /**
+     * Private constructor to copy the compiler parameters of a compiler with its own output for a parallel task.
+     *
+     * @param wejac - compiler with the compiler parameters to copy.
+     * @param out   - compiler output of diagnostics and results for the parallel task.
+     */
+    private Compiler(final Compiler wejac, final PrintStream out) {
+
+        this.batchFlag = wejac.batchFlag;
+        this.briefFlag = wejac.briefFlag;
+        this.finalFlag = wejac.finalFlag;
+        this.echoFlag  = wejac.echoFlag;
+        this.hushFlag  = wejac.hushFlag;
+        this.muteFlag  = wejac.muteFlag;
+        this.timeFlag  = wejac.timeFlag;
+
+        this.failFastFlag = wejac.failFastFlag;
+        this.adaptiveFlag = wejac.adaptiveFlag;
+        this.checkFlag    = wejac.checkFlag;
+        this.profileFlag  = wejac.profileFlag;
+        this.recordFlag   = wejac.recordFlag;
+        this.pipelineFlag = wejac.pipelineFlag;
+
+        this.incrementalFlag = wejac.incrementalFlag;
+        this.manifest        = wejac.manifest;
+
+        this.jarFile = wejac.jarFile;
+        this.classes = wejac.classes;
+
+        this.resources = wejac.resources;
+
+        this.processorPrint = wejac.processorPrint;
+
+        this.metricsFile = wejac.metricsFile;
+        this.metrics     = wejac.metrics;
+
+        this.cacheLocation = wejac.cacheLocation;
+        this.cache         = wejac.cache;
+
+        this.format    = wejac.format;
+        this.formatter = wejac.formatter;
+
+        this.profiler = wejac.profiler;
+
+        this.total = wejac.total;
+
+        this.messages  = wejac.messages;
+        this.fileTimes = wejac.fileTimes;
+
+        this.param.addAll(wejac.param);
+
+        this.out = out;
+        this.err = new PrintWriter(out, true);
+
+    }//end constructor
+
+    /**
+     * Private constructor for a compiler with the options of a compile by a host embedding the compiler.
+     *
+     * @param options - options of the compile.
+     * @param out     - compiler output of diagnostics and results.
+     */
+    private Compiler(final CompilerOptions options, final PrintStream out) {
+
+        this(out, new PrintWriter(out, true));
+
+        this.batchFlag = options.isBatch();
+        this.briefFlag = options.isBrief();
+        this.finalFlag = options.isFinal();
+        this.echoFlag  = options.isEcho();
+        this.hushFlag  = options.isHush();
+        this.muteFlag  = options.isMute();
+        this.timeFlag  = options.isTime();
+
+        this.failFastFlag    = options.isFailFast();
+        this.adaptiveFlag    = options.isAdaptive();
+        this.checkFlag       = options.isCheck();
+        this.profileFlag     = options.isProfile() || options.isFlightRecord();
+        this.recordFlag      = options.isFlightRecord();
+        this.pipelineFlag    = options.isPipeline();
+        this.incrementalFlag = options.isIncremental();
+        this.parallelCount   = options.getParallelCount();
+
+        this.jarFile     = options.getJarFile();
+        this.metricsFile = options.getMetricsFile();
+
+        this.cacheLocation = options.getCacheLocation();
+        this.format        = options.getFormat();
+
+        this.param.addAll(options.getJavacOptions());
+
+        this.messages  = Collections.synchronizedList(new ArrayList<CompileResult.Message>());
+        this.fileTimes = new ConcurrentHashMap<>();
+
     }//end constructor
 
     /**
-     * Diagnose compiler errors with error, position, and illustrative source code line.
+     * Diagnose a compiler error with error, position, and illustrative source code line as it is reported.
      *
      * @param fileName      - name of the external file containing the Java source code.
-     * @param diagnostics   - diagnostic information from compile of Java source code.
-     * @param javaFileCode  - list containing the lines of Java source code from file.
+     * @param diag          - diagnostic information from compile of Java source code.
+     * @param javaFileCode  - lines of Java source code from file, read only if a diagnostic needs a line.
      */
     private void diagnose(final String fileName,
-                          final DiagnosticCollector<JavaFileObject> diagnostics,
-                          final List<String> javaFileCode){
-
-        for (Diagnostic<?> diag : diagnostics.getDiagnostics()) {
+                          final Diagnostic<?> diag,
+                          final SourceLines javaFileCode){
 
         	if(hushFlag) {
         		if(diag.getKind() != Diagnostic.Kind.ERROR)
-        			continue;
+        			return;
         	}//end if 
         	
-            final String diagnosticText = diag.toString();
-
-            System.out.printf("Error: %s.%n",   fileName);
+            out.printf("Error: %s.%n",   fileName);
 
             if(diag.getKind() != Diagnostic.Kind.NOTE) {
 
-                System.out.printf("Line %d ",   diag.getLineNumber());
-                System.out.printf("At %d:",     diag.getColumnNumber());
+                out.printf("Line %d ",   diag.getLineNumber());
+                out.printf("At %d: ",    diag.getColumnNumber());
+                out.printf("%s%n",       getMessageLine(diag));
+
+                //a diagnostic of an annotation processor may have no position, so no line of code to show
+                if (diag.getLineNumber() != Diagnostic.NOPOS) {
+                    String codeLine = this.getCodeLine(javaFileCode, diag.getLineNumber(), diag.getColumnNumber());
+                    out.printf("%s%n", codeLine);
+                }//end if
+
+            } else {
+                out.println(diag.getMessage(LOCALE));
+            }//end if
+
+            out.println();
+
+    }//end diagnose
+
+    /**
+     * Get the first line of the message of a diagnostic, with the [lint] category of a warning before it as javac
+     * prints it. The message is taken from the diagnostic, not parsed out of its text by the colons around the
+     * file name, line, and kind, so a file name with a drive letter or a message with a colon is not split.
+     *
+     * @param diag    - diagnostic information from compile of Java source code.
+     * @return String - the first line of the message.
+     */
+    private static String getMessageLine(final Diagnostic<?> diag) {
+
+        String message = getFirstLine(diag.getMessage(LOCALE));
+
+        if (diag.getKind() != Diagnostic.Kind.WARNING && diag.getKind() != Diagnostic.Kind.MANDATORY_WARNING) {
+            return message;
+        }//end if
+
+        //the lint category is only in the text of the diagnostic, just before the message
+        String text = getFirstLine(diag.toString());
+        int    end  = text.length() - message.length() - 2;
+
+        if (end > 0 && text.endsWith(message) && text.startsWith("] ", end)) {
+
+            int start = text.lastIndexOf('[', end);
+
+            if (start >= 0) {
+                return text.substring(start);
+            }//end if
+
+        }//end if
+
+        return message;
+
+    }//end getMessageLine
+
+    /**
+     * Get the first line of a text of one or more lines.
+     *
+     * @param text    - the text.
+     * @return String - the first line with no line separator.
+     */
+    private static String getFirstLine(final String text) {
+
+        int end = text.indexOf('\n');
+
+        if (end < 0) {
+            return text;
+        }//end if
+
+        return text.substring(0, end > 0 && text.charAt(end - 1) == '\r' ? end - 1 : end);
+
+    }//end getFirstLine
+
+    /**
+     * Get the source line of Java code and format with indicator of the point of diagnostic error.
+     *
+     * @param srcCode - lines of the Java source code.
+     * @param lineNum - the line number within the Java source code to retrieve.
+     * @param colNum  - the column position within the line for the diagnostic error.
+     *      
+     * @return String - the line of source code formatted to indicate point of error.
+     */
+    private String getCodeLine(final SourceLines srcCode, final long lineNum, final long colNum) {
+
+        try {
+
+            String line = srcCode.getLine(lineNum);
+
+            StringBuilder codeLine = new StringBuilder(line);
+            codeLine.append(ENDLN);
+
+            for (int x = 0; x < colNum - 1; x++) {
+                codeLine.append(" ");
+            }//end for
+
+            codeLine.append("^");
+
+            return codeLine.toString();
+
+        } catch (Exception ex) {
+            out.printf("%s%n", ex.getMessage());
+            ex.printStackTrace();
+        }//end try
+
+        return "";
+
+    }//end getCodeLine
+
+    /**
+     * Compile single Java source code file using the Java Compiler API with compiler parameters.
+     *
+     * @param fileName - name of the external file containing the Java source code.
+     * @return boolean - compiler result of success or failure for the Java source file.
+     */
+    private boolean compileFile(final String fileName) {
+
+        return this.compileFiles(Collections.singletonList(fileName));
+
+    }//end compileFile
+
+    /**
+     * Compile a batch of Java source code files with one compilation task using the Java Compiler API, diagnosing
+     * and counting each diagnostic as it is reported, and then report the brief count, time, and result of each
+     * Java source file as if compiled alone.
+     *
+     * @param fileNames - names of the external files containing the Java source code.
+     * @return boolean  - compiler result of success or failure for all the Java source files.
+     */
+    private boolean compileFiles(final List<String> fileNames) {
+
+        if (echoFlag) {
+
+            out.printf("%nJava Compile Options: %s%n%n",
+                              param.isEmpty() ? "None." : param.toString());
+
+        }//end if
+
+        final int count = fileNames.size();
+
+        //0 - error, 1 - mandatory warning, 2 - note, 3 - other, 4 - warning, 5 - total diagnostic
+        final DiagnosticCounter counter        = new DiagnosticCounter(count, total);
+        final long[]            diagnosticTime = new long[count];
+        final boolean[]         statusFlag     = new boolean[count];
+
+        final Map<URI, Integer> sourceIndex  = new HashMap<>();
+        final SourceLines[]     javaFileCode = new SourceLines[count];
+
+        //diagnostics are counted and diagnosed as reported, so none are kept however many a compile reports
+        final DiagnosticListener<JavaFileObject> diag = new DiagnosticListener<JavaFileObject>() {
+
+            @Override
+            public void report(final Diagnostic<? extends JavaFileObject> diagnostic) {
+
+                //diagnostics of the headers of a pipelined compile are reported by the compile of their group
+                if (pipeline != null && pipeline.isHeader(diagnostic.getSource())) {
+                    return;
+                }//end if
+
+                //diagnostics without a Java source file are reported with the first Java source file
+                Integer pos = diagnostic.getSource() == null ? null : sourceIndex.get(diagnostic.getSource().toUri());
+                int     x   = pos == null ? 0 : pos;
+
+                counter.count(x, diagnostic.getKind());
+
+                if (messages != null) {
+                    messages.add(new CompileResult.Message(pos == null ? null : fileNames.get(x), diagnostic, LOCALE));
+                }//end if
+
+                if (formatter != null) {
+
+                    if (!hushFlag || diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                        formatter.write(pos == null ? null : fileNames.get(x), diagnostic);
+                    }//end if
+
+                } else if (!muteFlag && !briefFlag) {
+
+                    if (javaFileCode[x] == null) {
+                        javaFileCode[x] = new SourceLines(Paths.get(fileNames.get(x)), CHARSET);
+                    }//end if
+
+                    diagnose(fileNames.get(x), diagnostic, javaFileCode[x]);
+
+                }//end if
+
+                if (failFastFlag && diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                    throw new CompileAbort();
+                }//end if
+
+            }//end report
+
+        };
+
+        final String key = this.getCacheKey(fileNames);
+
+        if (key != null && this.restoreCached(key, fileNames, counter)) {
+            return true;
+        }//end if
+
+        boolean resultFlag = false;
+        boolean abortFlag  = false;
+        int     reported   = 0;
+
+        StandardJavaFileManager file = null; //file manager of the task until released into the pool
+
+        try {
+
+            JavaCompiler                        comp	= FileManagerPool.getCompiler();
+
+            file = FileManagerPool.acquire(param, LOCALE, CHARSET);
+
+            //the types of the other groups of a pipelined compile are read from their headers
+            if (pipeline != null) {
+                file.setLocation(StandardLocation.SOURCE_PATH,
+                                 Collections.singletonList(pipeline.getHeaderPath().toFile()));
+            }//end if
+
+            OutputFileManager                   output  = manifest == null && classes == null && key == null
+                                                        ? null : new OutputFileManager(file, classes, resources);
+            IndexedFileManager                  index   = new IndexedFileManager(output == null ? file : output,
+                                                                                 file, CHARSET, param);
+            Iterable<? extends JavaFileObject>  list    = file.getJavaFileObjectsFromStrings(fileNames);
+            JavaCompiler.CompilationTask        task    = comp.getTask( err,
+                                                                        index,
+                                                                        diag,
+                                                                        count > 1 ? this.getTaskParams() : param,
+                                                                        NO_ANNOTATION_PROC,
+                                                                        list);
+
+            final List<URI> sources = new ArrayList<>();
+
+            int idx = 0;
+            for (JavaFileObject source : list) {
+                sourceIndex.put(source.toUri(), idx++);
+                sources.add(source.toUri());
+            }//end for
+
+            final CompileTimer      timer   = new CompileTimer();
+            final DependencyTracker tracker = manifest == null ? null : new DependencyTracker((JavacTask) task);
 
-                String diagText = diagnosticText.split(":")[3];
-                String diagLine = diagText.split(ENDLN)[0];
+            //annotation processors are loaded once for the process, or by javac to report a processor not loaded
+            if (ProcessorCache.isProcessing(param)) {
 
-                System.out.printf("%s%n", diagLine);
+                List<Processor> processors = ProcessorCache.getProcessors(param, processorPrint);
+
+                if (processors != null) {
+                    task.setProcessors(timeFlag ? timer.time(processors) : processors);
+                }//end if
+
+            }//end if
+
+            if (count > 1 || timeFlag) {
+                ((JavacTask) task).addTaskListener(timer);
+            }//end if
+
+            if (tracker != null) {
+                ((JavacTask) task).addTaskListener(tracker);
+            }//end if
+
+            //a compile in progress on another thread is cancelled at its next phase after an error
+            if (failFastFlag) {
+
+                ((JavacTask) task).addTaskListener(new TaskListener() {
+
+                    @Override
+                    public void started(final TaskEvent event) {
+
+                        if (isFailed()) {
+                            throw new CompileAbort();
+                        }//end if
+
+                    }//end started
+
+                    @Override
+                    public void finished(final TaskEvent event) {
+                    }//end finished
+
+                });
+
+            }//end if
+
+            final CompileProfiler.Sample sample = profiler == null ? null : profiler.start(fileNames);
+
+            long cpuStart   = CompileMetrics.getCpuTime();
+            long allocStart = CompileMetrics.getAllocatedBytes();
+
+            long timeStart = System.nanoTime();
+
+            try {
+                resultFlag = checkFlag ? this.check((JavacTask) task, counter, count) : task.call();
+            } catch (RuntimeException ex) {
+
+                if (!CompileAbort.isCause(ex)) {
+                    throw ex;
+                }//end if
+
+                resultFlag = false;
+                abortFlag  = true;
+
+            }//end try
+
+            long timeClose = System.nanoTime();
+
+            long cpuTime   = CompileMetrics.getCpuTime() - cpuStart;
+            long allocated = CompileMetrics.getAllocatedBytes() - allocStart;
+
+            if (key != null && resultFlag) {
+                cache.store(key, sources, output);
+            }//end if
+
+            for (int x = 0; x < count; x++) {
+                statusFlag[x] = (resultFlag || count > 1 && !abortFlag && !checkFlag)
+                                && counter.get(x, DiagnosticCounter.COUNTER_ERROR) == 0;
+            }//end for
+
+            //javac writes no class files for a task with an error, so the files with no errors are compiled again
+            final DependencyTracker retried = !resultFlag && count > 1 && !abortFlag && !checkFlag
+                                            ? this.compileAgain(fileNames, statusFlag, counter, diag, comp, file, index)
+                                            : null;
+
+            for (JavaFileObject source : list) {
+
+                int x = sourceIndex.get(source.toUri());
+
+                diagnosticTime[x] = count > 1 ? timer.getTimeMillis(source.toUri()) : (timeClose - timeStart) / 1000000L;
+
+                if (fileTimes != null) {
+                    fileTimes.put(fileNames.get(x), diagnosticTime[x]);
+                }//end if
+
+                if (manifest != null) {
+                    this.updateManifest(fileNames.get(x), source.toUri(), resultFlag ? tracker : retried, output,
+                                        (resultFlag || retried != null) && statusFlag[x]);
+                }//end if
+
+            }//end for
+
+            if (profiler != null) {
+                profiler.record(sample, fileNames, diagnosticTime, allocated);
+            }//end if
+
+            if (metrics != null) {
+
+                int[][] diagnosticCounter = new int[count][];
+
+                for (int x = 0; x < count; x++) {
+                    diagnosticCounter[x] = counter.get(x);
+                }//end for
+
+                metrics.record(fileNames, diagnosticTime, cpuTime, allocated, diagnosticCounter, statusFlag, param);
+
+            }//end if
+
+            if (!muteFlag) {
+
+                for (int x = 0; x < count; x++) {
+
+                    this.report(fileNames.get(x), counter.get(x), diagnosticTime[x], statusFlag[x]);
+                    reported++;
+
+                }//end for
+
+            }//end if (!Compiler.muteFlag)
+
+            if (timeFlag) {
+                timer.print(out);
+            }//end if
+
+            if (formatter != null) {
+                formatter.flush();
+            }//end if
+
+            if (pipeline != null) {
+                file.setLocation(StandardLocation.SOURCE_PATH, null);
+            }//end if
+
+            FileManagerPool.release(param, LOCALE, CHARSET, file);
+            file = null;
+
+        } catch (Exception ex) {
+
+            out.printf("Compiler Exception: '%s' is '%s'.%n", ex.getClass().getName(), ex.getMessage());
+
+        } finally {
+
+            //a file manager not released after an exception is closed, so a long running process does not leak it
+            if (file != null) {
+                FileManagerPool.discard(file);
+            }//end if
+
+            for (int x = reported; x < count; x++) {
+                this.report(fileNames.get(x), counter.get(x), diagnosticTime[x], statusFlag[x]);
+            }//end for
+
+        }//end try
+
+        return resultFlag;
+
+    }//end compileFiles
+
+    /**
+     * Compile again the Java source files with no errors of their own of a task of many that failed by an error in
+     * another file, as javac writes no class files for a task with an error, so each of them has its class files as
+     * when compiled alone. A file with an error in a compile again, such as one that uses a type of a failed file,
+     * is failed and reported with its errors, and the rest are compiled again until a task has success or no file
+     * is left. The warnings reported by the first compile, and the errors of the failed files, are not reported
+     * again.
+     *
+     * @param fileNames  - names of the external files containing the Java source code of the failed task.
+     * @param statusFlag - set for each Java source file with no errors, cleared for each one that fails again.
+     * @param counter    - count of each kind of diagnostic of each Java source file of the failed task.
+     * @param diag       - listener of the failed task that counts and reports a diagnostic.
+     * @param comp       - the Java compiler.
+     * @param file       - standard file manager of the failed task.
+     * @param index      - file manager of the failed task.
+     * @return DependencyTracker - tracker of the task with success when there is a manifest, else null.
+     * @throws IOException - if a Java source file cannot be read.
+     */
+    private DependencyTracker compileAgain(final List<String> fileNames, final boolean[] statusFlag,
+                                           final DiagnosticCounter counter,
+                                           final DiagnosticListener<JavaFileObject> diag, final JavaCompiler comp,
+                                           final StandardJavaFileManager file, final IndexedFileManager index)
+            throws IOException {
+
+        final Set<URI> retry = new HashSet<>(); //URI of each Java source file compiled again
+        List<String>   names = new ArrayList<>();
+        List<Integer>  pos   = new ArrayList<>(); //position of each Java source file compiled again in the task
+
+        for (int x = 0; x < fileNames.size(); x++) {
+
+            if (statusFlag[x]) {
+                names.add(fileNames.get(x));
+                pos.add(x);
+            }//end if
+
+        }//end for
+
+        DiagnosticListener<JavaFileObject> errors = new DiagnosticListener<JavaFileObject>() {
+
+            @Override
+            public void report(final Diagnostic<? extends JavaFileObject> diagnostic) {
+
+                if (diagnostic.getKind() == Diagnostic.Kind.ERROR && diagnostic.getSource() != null
+                        && retry.contains(diagnostic.getSource().toUri())) {
+                    diag.report(diagnostic);
+                }//end if
+
+            }//end report
+
+        };
+
+        while (!names.isEmpty()) {
+
+            Iterable<? extends JavaFileObject> list = file.getJavaFileObjectsFromStrings(names);
+
+            retry.clear();
+
+            for (JavaFileObject source : list) {
+                retry.add(source.toUri());
+            }//end for
+
+            JavaCompiler.CompilationTask task    = comp.getTask(err, index, errors,
+                                                                names.size() > 1 ? this.getTaskParams() : param,
+                                                                NO_ANNOTATION_PROC, list);
+            DependencyTracker            tracker = manifest == null ? null : new DependencyTracker((JavacTask) task);
+
+            List<Processor> processors = ProcessorCache.isProcessing(param)
+                                       ? ProcessorCache.getProcessors(param, processorPrint) : null;
+
+            if (processors != null) {
+                task.setProcessors(processors);
+            }//end if
+
+            if (tracker != null) {
+                ((JavacTask) task).addTaskListener(tracker);
+            }//end if
+
+            if (task.call()) {
+                return tracker;
+            }//end if
+
+            List<String>  namesLeft = new ArrayList<>();
+            List<Integer> posLeft   = new ArrayList<>();
+
+            for (int y = 0; y < names.size(); y++) {
+
+                if (counter.get(pos.get(y), DiagnosticCounter.COUNTER_ERROR) == 0) {
+                    namesLeft.add(names.get(y));
+                    posLeft.add(pos.get(y));
+                } else {
+                    statusFlag[pos.get(y)] = false;
+                }//end if
+
+            }//end for
+
+            //no file has an error of its own, so all fail by the failed files they use
+            if (namesLeft.size() == names.size()) {
+                break;
+            }//end if
+
+            names = namesLeft;
+            pos   = posLeft;
+
+        }//end while
+
+        for (int x : pos) {
+            statusFlag[x] = false;
+        }//end for
+
+        return null;
+
+    }//end compileAgain
+
+    /**
+     * Get the fingerprint of the annotation processors of the run, once for the run so no compilation task walks
+     * the processor path again.
+     *
+     * @return String - the fingerprint, or empty if there are no processors or the processor path cannot be read.
+     */
+    private String getProcessorPrint() {
+
+        try {
+            return ProcessorCache.getFingerprint(param);
+        } catch (IOException ex) {
+            return ""; //the processors are loaded again for each task, and javac reports the path it cannot read
+        }//end try
+
+    }//end getProcessorPrint
+
+    /**
+     * Get the Javac compiler parameters of a compilation task of many Java source files, which attribute and
+     * analyze every file after an error in one of them, so each file reports its own errors and warnings as it
+     * does when compiled on its own. No class files are generated by a task with an error.
+     *
+     * @return List - the Javac compiler parameters of the task.
+     */
+    private List<String> getTaskParams() {
+
+        for (String option : param) {
+            if (option.startsWith(JAVAC_SHOULD_STOP)) {
+                return param;
+            }//end if
+        }//end for
+
+        List<String> options = new ArrayList<>(param);
+        options.add(JAVAC_SHOULD_STOP + JAVAC_STOP_FLOW);
+
+        return options;
+
+    }//end getTaskParams
+
+    /**
+     * Check a compilation task of Java source files by parsing and analyzing them only, with no code generation
+     * and no class files written, and the same diagnostics as a full compile reports before code generation.
+     *
+     * @param task     - the compilation task.
+     * @param counter  - count of each kind of diagnostic of each Java source file of the task.
+     * @param count    - number of Java source files of the task.
+     * @return boolean - compiler result of success if no Java source file has an error.
+     * @throws IOException - if a Java source file cannot be read.
+     */
+    private boolean check(final JavacTask task, final DiagnosticCounter counter, final int count)
+            throws IOException {
+
+        task.analyze();
+
+        for (int x = 0; x < count; x++) {
+
+            if (counter.get(x, DiagnosticCounter.COUNTER_ERROR) > 0) {
+                return false;
+            }//end if
+
+        }//end for
+
+        return true;
+
+    }//end check
+
+    /**
+     * Get the key in the shared cache of a compilation task of Java source files.
+     *
+     * @param fileNames - names of the external files containing the Java source code.
+     * @return String   - the key of the compilation task, or null if there is no cache or a file cannot be read.
+     */
+    private String getCacheKey(final List<String> fileNames) {
+
+        if (cache == null) {
+            return null;
+        }//end if
+
+        try {
+            return cache.getKey(fileNames, files, param);
+        } catch (IOException ex) {
+            return null; //compiled instead, so javac reports the file that cannot be read
+        }//end try
+
+    }//end getCacheKey
+
+    /**
+     * Restore the class files of a compilation task from the shared cache with no compile, and report each Java
+     * source file as compiled with success. The diagnostics of the compile that stored the class files are not
+     * reported again.
+     *
+     * @param key       - the key of the compilation task.
+     * @param fileNames - names of the external files containing the Java source code.
+     * @param counter   - count of each kind of diagnostic of each Java source file, all none.
+     * @return boolean  - true if the class files were restored, false to compile the Java source files.
+     */
+    private boolean restoreCached(final String key, final List<String> fileNames, final DiagnosticCounter counter) {
+
+        final int count = fileNames.size();
+
+        long timeStart = System.nanoTime();
+
+        try {
+
+            if (!cache.restore(key, fileNames, param, classes)) {
+                return false;
+            }//end if
+
+        } catch (IOException ex) {
+            return false;
+        }//end try
+
+        long timeClose = (System.nanoTime() - timeStart) / 1000000L;
+
+        long[]    diagnosticTime    = new long[count];
+        boolean[] statusFlag        = new boolean[count];
+        int[][]   diagnosticCounter = new int[count][];
+
+        for (int x = 0; x < count; x++) {
+
+            diagnosticTime[x]    = timeClose / count;
+            statusFlag[x]        = true;
+            diagnosticCounter[x] = counter.get(x);
+
+            if (fileTimes != null) {
+                fileTimes.put(fileNames.get(x), diagnosticTime[x]);
+            }//end if
+
+        }//end for
+
+        if (metrics != null) {
+            metrics.record(fileNames, diagnosticTime, 0L, 0L, diagnosticCounter, statusFlag, param);
+        }//end if
+
+        if (!muteFlag) {
+
+            for (int x = 0; x < count; x++) {
+                this.report(fileNames.get(x), diagnosticCounter[x], diagnosticTime[x], statusFlag[x]);
+            }//end for
+
+        }//end if
+
+        return true;
+
+    }//end restoreCached
+
+    /**
+     * Update the manifest entry of a compiled Java source file with its API fingerprint, dependencies, supertypes,
+     * and class files, or remove the entry of a Java source file that failed to compile.
+     *
+     * @param fileName   - name of the external file containing the Java source code.
+     * @param source     - URI of the Java source file.
+     * @param tracker    - dependency tracker of the compilation task.
+     * @param output     - file manager with the class files output by the compilation task.
+     * @param statusFlag - compiler result of success or failure for the Java source file.
+     * @throws IOException - if a class file cannot be read.
+     */
+    private void updateManifest(final String fileName, final URI source, final DependencyTracker tracker,
+                                final OutputFileManager output, final boolean statusFlag) throws IOException {
+
+        if (!statusFlag) {
+            manifest.remove(fileName);
+            return;
+        }//end if
+
+        List<JavaFileObject> outputs = output.getOutputs(source);
+        List<Path>           classes = new ArrayList<>(outputs.size());
+
+        for (JavaFileObject classFile : outputs) {
+            classes.add(Paths.get(classFile.toUri()));
+        }//end for
+
+        manifest.update(fileName, tracker.getFingerprint(source), tracker.getTypes(source),
+                        tracker.getDependencies(source), tracker.getSupertypes(source), classes);
+
+    }//end updateManifest
+
+    /**
+     * Compile the Java source files changed since the last incremental compile, then compile again each unchanged
+     * Java source file that uses a type whose API changed until no API changes, and report the time and result
+     * of each unchanged Java source file that is not compiled.
+     *
+     * @param fileNames - names of the external files containing the Java source code.
+     * @return boolean  - compiler result of success or failure for the compiled Java source files.
+     */
+    private boolean compileChanged(final List<String> fileNames) {
+
+        List<String> changed   = new ArrayList<>();
+        List<String> unchanged = new ArrayList<>();
+
+        try {
+
+            manifest = BuildManifest.load(param, CHARSET);
+
+            for (String sourceFile : fileNames) {
+
+                if (manifest.isUpToDate(sourceFile)) {
+                    unchanged.add(sourceFile);
+                } else {
+                    changed.add(sourceFile);
+                }//end if
+
+            }//end for
+
+        } catch (IOException ex) {
+            error(ERROR_MANIFEST, ex.getClass().getName(), ex.getMessage());
+        }//end try
+
+        boolean resultFlag = this.compileSources(changed);
+
+        List<String> dependents = manifest.getDependents(unchanged, manifest.takeChangedTypes());
+
+        //the dependents of an API that compiled are compiled even when another file failed, else their class files
+        //no longer link, and those left when failing fast are compiled in the next run as their entries are stale
+        while (!dependents.isEmpty()) {
+
+            unchanged.removeAll(dependents);
+
+            if (this.isFailed()) {
+                break;
+            }//end if
+
+            resultFlag = this.compileSources(dependents) && resultFlag;
+            dependents = manifest.getDependents(unchanged, manifest.takeChangedTypes());
+
+        }//end while
+
+        for (String sourceFile : unchanged) {
+
+            if (timeFlag) {
+                out.printf("Time: %d-ms for: %s (cached)%n", 0, sourceFile);
+            }//end if
+
+            if (echoFlag) {
+                out.printf("Compiler result for file: '%s' is: Up-to-date.%n", sourceFile);
+            }//end if
+
+        }//end for
+
+        return resultFlag;
+
+    }//end compileChanged
+
+    /**
+     * Save the manifest of the incremental compile, and report the count of cached and compiled Java source files.
+     */
+    private void saveManifest() {
+
+        try {
+            manifest.save();
+        } catch (IOException ex) {
+            error(ERROR_MANIFEST, ex.getClass().getName(), ex.getMessage());
+        }//end try
+
+        if (echoFlag || timeFlag) {
+            out.printf("Incremental: %d cached, %d compiled, %d dependents compiled.%n",
+                       manifest.getHits(), manifest.getMisses(), manifest.getDependents());
+        }//end if
+
+    }//end saveManifest
+
+    /**
+     * Compile the Java source files on parallel threads, each Java source file in a compilation task of its own,
+     * and print the output of each file in input order as it is the same as compiling the files one after another.
+     * With -batch the files are compiled in independent groups of one compilation task each instead, found from a
+     * quick parse of the package dependencies, so no group uses a type of a Java source file of another, and each
+     * Java source file of a group compiles after the packages it uses. The output of each group is printed in the
+     * order of its first file. A Java source file with a syntax error makes all the files one group.
+     *
+     * @param fileNames - names of the external files containing the Java source code.
+     * @return boolean  - compiler result of success or failure for all the Java source files.
+     */
+    private boolean compileParallel(final List<String> fileNames) {
+
+        final List<List<String>> sets = batchFlag ? this.getParallelGroups(fileNames) : new ArrayList<List<String>>();
+
+        if (sets == null) {
+            return this.compileGroup(fileNames);
+        }//end if
+
+        if (!batchFlag) {
+            for (String sourceFile : fileNames) {
+                sets.add(Collections.singletonList(sourceFile));
+            }//end for
+        }//end if
+
+        final int groups = sets.size();
+
+        final ForkJoinPool pool = new ForkJoinPool(parallelCount);
+
+        final List<ForkJoinTask<Boolean>>   tasks  = new ArrayList<>(groups);
+        final List<ByteArrayOutputStream>   output = new ArrayList<>(groups);
+
+        for (int x = 0; x < groups; x++) {
+
+            final List<String> group = sets.get(x);
+
+            final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            final Compiler              wejac  = new Compiler(this, new PrintStream(buffer, true));
+
+            output.add(buffer);
+            tasks.add(pool.submit(new Callable<Boolean>() {
+
+                @Override
+                public Boolean call() {
+                    return wejac.compileGroup(group);
+                }//end call
+
+            }));
+
+        }//end for
+
+        boolean resultFlag = true;
+
+        try {
+
+            for (int x = 0; x < groups; x++) {
+
+                resultFlag &= tasks.get(x).join();
+
+                out.print(output.get(x).toString());
+                out.flush();
+
+            }//end for
+
+        } finally {
+            pool.shutdown();
+        }//end try
+
+        return resultFlag;
+
+    }//end compileParallel
+
+    /**
+     * Get the independent groups of Java source files of a parallel batch compile, each a compilation task, in the
+     * order of the first Java source file of each group in the input.
+     *
+     * @param fileNames - names of the external files containing the Java source code.
+     * @return List     - the Java source files of each group, or null if the files cannot be parsed.
+     */
+    private List<List<String>> getParallelGroups(final List<String> fileNames) {
+
+        final List<List<String>> sets;
+
+        try {
+            sets = new PipelineScheduler(fileNames, param, LOCALE, CHARSET, err, false)
+                                        .getIndependentTasks(parallelCount);
+        } catch (IOException ex) {
+
+            out.printf("Parallel Exception: '%s' is '%s'.%n", ex.getClass().getName(), ex.getMessage());
+            return null;
+
+        }//end try
+
+        final Map<String, Integer> order = new HashMap<>(); //position of each Java source file in the input
+
+        for (int x = 0; x < fileNames.size(); x++) {
+            order.put(fileNames.get(x), x);
+        }//end for
+
+        Collections.sort(sets, new Comparator<List<String>>() {
+
+            @Override
+            public int compare(final List<String> a, final List<String> b) {
+                return Integer.compare(getFirst(a), getFirst(b));
+            }//end compare
+
+            private int getFirst(final List<String> set) {
+
+                int first = Integer.MAX_VALUE;
+
+                for (String sourceFile : set) {
+                    first = Math.min(first, order.get(sourceFile));
+                }//end for
+
+                return first;
+
+            }//end getFirst
+
+        });
+
+        if (echoFlag) {
+            out.printf("Parallel groups: %d independent groups on %d threads.%n", sets.size(), parallelCount);
+        }//end if
+
+        return sets;
+
+    }//end getParallelGroups
+
+    /**
+     * Compile the groups of Java source files of dependent packages from a quick parse on parallel threads, the
+     * groups merged in topological order into a compilation task of each thread against the headers of the other
+     * groups, so no task waits for the class files of the groups it depends on. The output of each task is printed
+     * in topological order.
+     *
+     * @param fileNames - names of the external files containing the Java source code.
+     * @return boolean  - compiler result of success or failure for all the Java source files.
+     */
+    private boolean compilePipelined(final List<String> fileNames) {
+
+        final PipelineScheduler scheduler;
+
+        try {
+            scheduler = new PipelineScheduler(fileNames, param, LOCALE, CHARSET, err, true);
+        } catch (IOException ex) {
+
+            out.printf("Pipeline Exception: '%s' is '%s'.%n", ex.getClass().getName(), ex.getMessage());
+            return this.compileFiles(fileNames);
+
+        }//end try
+
+        if (scheduler.getHeaderPath() == null) {
+            return this.compileFiles(fileNames);
+        }//end if
+
+        final int                threads = parallelCount > 0 ? parallelCount
+                                                             : Runtime.getRuntime().availableProcessors();
+        final List<List<String>> groups  = scheduler.getTasks(threads);
+
+        if (echoFlag) {
+            out.printf("Pipeline of %d groups of %d packages in %d compilation tasks on %d threads.%n",
+                       scheduler.getGroups().size(), scheduler.getPackageCount(), groups.size(), threads);
+        }//end if
+
+        final ForkJoinPool pool = new ForkJoinPool(threads);
+
+        final List<ForkJoinTask<Boolean>>   tasks  = new ArrayList<>(groups.size());
+        final List<ByteArrayOutputStream>   output = new ArrayList<>(groups.size());
+
+        boolean resultFlag = true;
+
+        try {
+
+            for (final List<String> group : groups) {
+
+                final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                final Compiler              wejac  = new Compiler(this, new PrintStream(buffer, true));
+
+                wejac.pipeline = scheduler;
+                wejac.param.add(JAVAC_IMPLICIT);
+                wejac.param.add(JAVAC_PREFER);
+
+                output.add(buffer);
+                tasks.add(pool.submit(new Callable<Boolean>() {
+
+                    @Override
+                    public Boolean call() {
+                        return wejac.compileFiles(group);
+                    }//end call
+
+                }));
+
+            }//end for
+
+            for (int x = 0; x < groups.size(); x++) {
+
+                resultFlag &= tasks.get(x).join();
+
+                out.print(output.get(x).toString());
+                out.flush();
+
+            }//end for
+
+        } finally {
+
+            pool.shutdown();
+            scheduler.delete();
+
+        }//end try
+
+        return resultFlag;
+
+    }//end compilePipelined
+
+    /**
+     * Compile a group of Java source files as one batch, or one Java source file at a time.
+     *
+     * @param fileNames - names of the external files containing the Java source code.
+     * @return boolean  - compiler result of success or failure for all the Java source files.
+     */
+    private boolean compileGroup(final List<String> fileNames) {
+
+        if (batchFlag) {
+            return this.compileFiles(fileNames);
+        }//end if
+
+        boolean resultFlag = true;
+
+        for (String sourceFile : fileNames) {
+
+            if (this.isFailed()) {
+                return false;
+            }//end if
+
+            resultFlag &= this.compileFile(sourceFile);
+
+        }//end for
+
+        return resultFlag;
+
+    }//end compileGroup
+
+    /**
+     * Compile the Java source files in consecutive batches each of one compilation task, with each batch sized to
+     * the free heap from the heap used and garbage collection time of the batches before it.
+     *
+     * @param fileNames - names of the external files containing the Java source code.
+     * @return boolean  - compiler result of success or failure for all the Java source files.
+     */
+    private boolean compileAdaptive(final List<String> fileNames) {
+
+        AdaptiveBatcher batcher = new AdaptiveBatcher(fileNames);
+
+        boolean resultFlag = true;
+
+        for (List<String> batch = batcher.next(); !batch.isEmpty() && !this.isFailed(); batch = batcher.next()) {
+
+            if (echoFlag) {
+                out.printf("Adaptive batch of %d Java source files of %d-KB.%n", batch.size(),
+                           batcher.getBatchBytes() / 1024L);
+            }//end if
+
+            resultFlag &= this.compileFiles(batch);
+            batcher.done();
+
+        }//end for
+
+        return resultFlag;
+
+    }//end compileAdaptive
+
+    /**
+     * Check if the compiler run has failed fast, so no more Java source files are compiled.
+     *
+     * @return boolean - true if failing fast and an error diagnostic is reported.
+     */
+    private boolean isFailed() {
+
+        return failFastFlag && total.get(0, DiagnosticCounter.COUNTER_ERROR) > 0;
+
+    }//end isFailed
+
+    /**
+     * Report the brief count of diagnostics, time, and compiler result for a compiled Java source file.
+     *
+     * @param fileName          - name of the external file containing the Java source code.
+     * @param diagnosticCounter - count of each kind of diagnostic and total count of diagnostics.
+     * @param diagnosticTime    - time in milliseconds to compile the Java source file.
+     * @param statusFlag        - compiler result of success or failure for the Java source file.
+     */
+    private void report(final String fileName, final int[] diagnosticCounter,
+                        final long diagnosticTime, final boolean statusFlag) {
+
+        if (briefFlag) {
+            if (diagnosticCounter[5] > 0){
+                out.printf("%3d Diagnostic messages:%n", diagnosticCounter[5]);
+                for(int x=0;x<diagnosticCounter.length-1;x++){
+                    if(diagnosticCounter[x] > 0){
+
+                        //0 - error, 1 - mandatory warning, 2 - note, 3 - other, 4 - warning, 5 - total diagnostic
+
+                        switch(x){
+                            case 0: out.printf("  %3d Error%n", diagnosticCounter[x]); break;
+                            case 1: out.printf("  %3d Mandatory Warning%n", diagnosticCounter[x]); break;
+                            case 2: out.printf("  %3d Note%n", diagnosticCounter[x]); break;
+                            case 3: out.printf("  %3d Other%n", diagnosticCounter[x]);
+                            case 4: out.printf("  %3d Warning%n", diagnosticCounter[x]); break;
+                        }//end switch
+
+                    }//end if
+
+                }//end for
+
+                out.println();
+
+            } else {
+
+                out.println("No compiler diagnostic messages.");
+
+            }//end if
+
+        }//end if
+
+        if (timeFlag) {
+            out.printf("Time: %d-ms for: %s%n", diagnosticTime, fileName);
+        }//end if
+
+        if (echoFlag) {
+            out.printf("Compiler result for file: '%s' is: ", fileName);
+            out.printf("%s%n", statusFlag ? "Success." : "Failure!");
+        }//end if
+
+    }//end report
+
+    /**
+     * Report the total count of each kind of diagnostic of all the Java source files compiled by the compiler run,
+     * or only of errors when hushed.
+     */
+    private void reportTotal() {
+
+        int[] counts = total.get(0);
+
+        StringBuilder text = new StringBuilder();
+
+        for (int x = 0; x < TOTAL_NAMES.length; x++) {
+
+            if (counts[x] > 0 && (!hushFlag || x == DiagnosticCounter.COUNTER_ERROR)) {
+                text.append(text.length() == 0 ? "" : ", ").append(counts[x]).append(' ').append(TOTAL_NAMES[x]);
+            }//end if
+
+        }//end for
+
+        if (!muteFlag && text.length() > 0) {
+            out.printf("Total: %s.%n", text);
+        }//end if
+
+    }//end reportTotal
+
+    /**
+     * Report a compiler error and then exit with status code of failure with a problem.
+     *
+     * @param text -  error message to report to the user.
+     * @param args -  error message arguments to report.
+     */
+    private void error(final String text, final Object... args) {
+
+        problem = String.format(text, args);
+
+        out.printf("%nError! ");
+        out.printf("%s", problem);
+        out.printf("%n%n");
+        throw new CompilerExit(EXIT_CODE_PROBLEM);
+
+    }//end error
+
+    /**
+     * Print compiler USEINFO and OPTIONS and then exit without invoking compiler.
+     *
+     */
+    private void printOptions() {
+
+        out.printf("%n%s%n%s%n", USEINFO, OPTIONS);
+        throw new CompilerExit(EXIT_CODE_SUCCESS);
+
+    }//end printOptions
+
+    /**
+     * Print compiler RELEASE and VERSION and then exit without invoking compiler.
+     *
+     */
+    private void printVersion() {
+
+        out.printf("%s%n%s%n", RELEASE, VERSION);
+        throw new CompilerExit(EXIT_CODE_SUCCESS);
+
+    }//end printVersion
+
+    /**
+     * Add any Javac compiler parameters to the compiler parameters passed to the Java Compiler API, up to the
+     * first Java source file, or up to -- before sources that are directories, glob patterns, or @argfiles.
+     *
+     * @param args -  command line arguments for the Javac compiler passed to Java Compiler API.
+     * @param idx  -  starting index position within array of command line arguments.
+     * @return int -  closing index position within the array of command line arguments.
+     */
+    private int processJavacArguments(final String[] args, final int idx) {
+
+        int pos;
+
+        for (pos = idx + 1; pos < args.length; pos++) {
+
+            if (args[pos].equals(JAVAC_END)) {
+                return pos;
+            } else if (args[pos].contains(SourceDiscovery.FILE_SOURCE_EXT)) {
+                break;
+            } else {
+                param.add(args[pos]);
+            }//end if
+
+        }//end for
+
+        return pos - 1;
+
+    }//end processJavacArguments
+
+    /**
+     * Process the number of threads of the parallel option given as -parallel=N on the command line.
+     *
+     * @param arg  -  command line argument of the parallel option with the number of threads.
+     * @return int -  number of threads to compile Java source files in parallel.
+     */
+    private int processParallelCount(final String arg) {
+
+        int count = 0;
+
+        try {
+            count = Integer.parseInt(arg.substring(OPTION_PARALLEL.length()));
+        } catch (NumberFormatException ex) {
+            error(ERROR_OPT_PARALLEL, arg);
+        }//end try
+
+        if (count < 1) {
+            error(ERROR_OPT_PARALLEL, arg);
+        }//end if
+
+        return count;
+
+    }//end processParallelCount
+
+    /**
+     * Process the command line arguments to set the internal parameters for compilation.
+     *
+     * @param args - command line arguments to set compiler parameters during compilation.
+     */
+    private void processCommandLineArgs(final String[] args) {
+
+        int x;
+        for (x = 0; x < args.length; x++) {
+
+            if (args[x].startsWith("-")) {
+
+                switch (args[x]) {
+
+                    case "-time":
+                        timeFlag = true;
+                        break;
+                    case "-batch":
+                        batchFlag = true;
+                        break;
+                    case "-adaptive":
+                        adaptiveFlag = true;
+                        break;
+                    case "-check":
+                        checkFlag = true;
+                        break;
+                    case "-profile":
+                        profileFlag = true;
+                        break;
+                    case "-echo":
+                        echoFlag = true;
+                        break;
+                    case "-final":
+                        finalFlag = true;
+                        break;
+                    case "-brief":
+                        if (hushFlag || muteFlag)
+                            error(ERROR_OPT_BRIEF);
+                        briefFlag = true;
+                        break;
+                    case "-hush":
+                        if (briefFlag || muteFlag)
+                            error(ERROR_OPT_HUSH);
+                        hushFlag = true;
+                        break;
+                    case "-mute":
+                        if (briefFlag || hushFlag)
+                            error(ERROR_OPT_MUTE);
+                        muteFlag = true;
+                        break;
+                    case "-parallel":
+                        parallelCount = Runtime.getRuntime().availableProcessors();
+                        break;
+                    case "-pipeline":
+                        pipelineFlag = true;
+                        break;
+                    case "-incremental":
+                        incrementalFlag = true;
+                        break;
+                    case "-watch":
+                        watchFlag = true;
+                        break;
+                    case "-failfast":
+                        failFastFlag = true;
+                        break;
+                    case "-jar":
+                        if (x + 1 == args.length)
+                            error(ERROR_OPT_JAR_FILE);
+                        jarFile = args[++x];
+                        break;
+                    case "-metrics":
+                        if (x + 1 == args.length)
+                            error(ERROR_OPT_METRICS);
+                        metricsFile = args[++x];
+                        break;
+                    case "-cache":
+                        if (x + 1 == args.length)
+                            error(ERROR_OPT_CACHE);
+                        cacheLocation = args[++x];
+                        break;
+                    case "-format":
+                        if (x + 1 == args.length || !DiagnosticFormatter.isFormat(args[x + 1]))
+                            error(ERROR_OPT_FORMAT);
+                        format = args[++x];
+                        break;
+                    case "-daemon":
+                        daemonFlag = true;
+                        break;
+                    case "-cds":
+                        cdsFlag = true;
+                        break;
+                    case "-javac":
+                        x = processJavacArguments(args, x);
+                        break;
+                    case "-help":
+                        printOptions();
+                        break;
+                    case "-info":
+                        printVersion();
+                        break;
+                    default:
+                        if (args[x].startsWith(OPTION_PARALLEL)) {
+                            parallelCount = processParallelCount(args[x]);
+                        } else if (args[x].equals(OPTION_PROFILE_JFR)) {
+                            profileFlag = true;
+                            recordFlag  = true;
+                        } else if (args[x].equals(OPTION_CDS_QUIET)) {
+                            cdsFlag   = true;
+                            quietFlag = true;
+                        } else {
+                            error(ERROR_PARAM_WRONG, args[x]);
+                        }//end if
+                        break;
+                }//end switch
+
+            } else {
+
+                for (; x < args.length; x++) {
+
+                    if (args[x].startsWith("-")) {
+                        error(ERROR_PARAM_FILES, args[x]);
+                    } else {
+                        files.add(args[x]);
+                    }//end if
+
+                }//end for
+
+                break;
+
+            }//end if
+
+        }//end for
+
+    }//end processCommandLineArgs
+
+    /**
+     * Compile the Java source files in pipelined groups, in parallel, in adaptive batches, as one batch, or one at a time until the
+     * first error when failing fast.
+     *
+     * @param fileNames - names of the external files containing the Java source code.
+     * @return boolean  - compiler result of success or failure for the compiled Java source files.
+     */
+    private boolean compileSources(final List<String> fileNames) {
+
+        if (fileNames.isEmpty()) {
+            return true;
+        }//end if
+
+        if (pipelineFlag) {
+            return this.compilePipelined(fileNames);
+        }//end if
+
+        if (parallelCount > 0) {
+            return this.compileParallel(fileNames);
+        }//end if
+
+        if (adaptiveFlag) {
+            return this.compileAdaptive(fileNames);
+        }//end if
+
+        if (batchFlag) {
+            return this.compileFiles(fileNames);
+        }//end if
+
+        return this.compileGroup(fileNames);
+
+    }//end compileSources
+
+    /**
+     * Start the profile of the resources used to compile each Java source file, with a flight recording of the
+     * compile if recording.
+     */
+    private void startProfile() {
+
+        if (!profileFlag) {
+            return;
+        }//end if
+
+        try {
+            profiler = new CompileProfiler(recordFlag);
+        } catch (Exception ex) {
+            error(ERROR_PROFILE, ex.getClass().getName(), ex.getMessage());
+        }//end try
+
+    }//end startProfile
+
+    /**
+     * Compile the Java source files, or every changed Java source file and its dependents for an incremental
+     * compile, with the diagnostics in the format begun before and ended after, so each compile is one SARIF log.
+     *
+     * @param fileNames - names of the Java source files to compile, or of the changed files while watching.
+     * @return boolean  - compiler result of success or failure for the compiled Java source files.
+     */
+    private boolean compileFormatted(final List<String> fileNames) {
+
+        if (formatter != null) {
+            formatter.begin();
+        }//end if
+
+        try {
+            return incrementalFlag ? this.compileChanged(files) : this.compileSources(fileNames);
+        } finally {
+
+            if (formatter != null) {
+                formatter.end();
+            }//end if
+
+        }//end try
+
+    }//end compileFormatted
+
+    /**
+     * Write the classes compiled in memory straight into the jar file with no class files written to disk, and
+     * the resources annotation processors wrote to the class output in memory, such as a META-INF/services file.
+     */
+    private void writeJar() {
+
+        Manifest jarManifest = new Manifest();
+        jarManifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        jarManifest.getMainAttributes().put(new Attributes.Name("Created-By"), "WEJAC");
+
+        try (JarOutputStream jar = new JarOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(Paths.get(jarFile))), jarManifest)) {
+
+            for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+
+                jar.putNextEntry(new JarEntry(entry.getKey().replace('.', '/') + JavaFileObject.Kind.CLASS.extension));
+                jar.write(entry.getValue());
+                jar.closeEntry();
+
+            }//end for
+
+            for (Map.Entry<String, byte[]> entry : resources.entrySet()) {
+
+                //the manifest of the jar file is written by the jar file itself
+                if (entry.getKey().equalsIgnoreCase(JarFile.MANIFEST_NAME)) {
+                    continue;
+                }//end if
+
+                jar.putNextEntry(new JarEntry(entry.getKey()));
+                jar.write(entry.getValue());
+                jar.closeEntry();
+
+            }//end for
+
+        } catch (IOException ex) {
+            error(ERROR_JAR_WRITE, jarFile, ex.getClass().getName(), ex.getMessage());
+        }//end try
+
+        if (echoFlag) {
+
+            if (resources.isEmpty()) {
+                out.printf("Jar file: '%s' has %d classes.%n", jarFile, classes.size());
+            } else {
+                out.printf("Jar file: '%s' has %d classes and %d resources.%n", jarFile, classes.size(),
+                           resources.size());
+            }//end if
+
+        }//end if
+
+    }//end writeJar
+
+    /**
+     * Write the metrics of each compiled Java source file and of the compiler run to the metrics file.
+     *
+     * @param resultFlag - compiler result of success or failure for all the Java source files.
+     */
+    private void writeMetrics(final boolean resultFlag) {
+
+        try {
+            metrics.write(resultFlag, param);
+        } catch (IOException ex) {
+            error(ERROR_METRICS_WRITE, metricsFile, ex.getClass().getName(), ex.getMessage());
+        }//end try
+
+        if (echoFlag) {
+            out.printf("Metrics file: '%s' written.%n", metricsFile);
+        }//end if
+
+    }//end writeMetrics
+
+    /**
+     * Watch the directories of the Java source files, and compile the Java source files changed in each burst of
+     * edits with the warm compiler, until the compiler is stopped or interrupted.
+     */
+    private void watch() {
+
+        Map<Path, String> watched = new HashMap<>(); //name of each Java source file by its absolute path
+        Set<Path>         dirs    = new HashSet<>();
+        List<Path>        roots   = new ArrayList<>(); //directory of each directory or glob pattern source
+
+        try (WatchService watcher = FileSystems.getDefault().newWatchService()) {
+
+            for (String sourceFile : files) {
+
+                Path path = Paths.get(sourceFile).toAbsolutePath().normalize();
+                watched.put(path, sourceFile);
+
+                if (dirs.add(path.getParent())) {
+                    path.getParent().register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                                                        StandardWatchEventKinds.ENTRY_MODIFY);
+                }//end if
+
+            }//end for
+
+            //a directory or glob pattern source is watched in all its subdirectories for new Java source files
+            for (String source : sources) {
+
+                Path dir = SourceDiscovery.getDirectory(source);
+
+                if (dir != null) {
+                    roots.add(dir.toAbsolutePath().normalize());
+                    register(watcher, dir.toAbsolutePath().normalize(), dirs);
+                }//end if
+
+            }//end for
+
+            if (!muteFlag) {
+                out.printf("Watching %d Java source files in %d directories for changes.%n", files.size(), dirs.size());
+                out.flush();
+            }//end if
+
+            while (true) {
+
+                Set<String> changed = new HashSet<>();
+                WatchKey    key     = watcher.take();
+                boolean     created = false; //set when a new Java source file or directory may be in a source
+
+                //an editor saving a file raises a burst of events, so wait until the burst is over
+                while (key != null) {
+
+                    for (WatchEvent<?> event : key.pollEvents()) {
+
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            changed.addAll(files);
+                            created = true;
+                            continue;
+                        }//end if
+
+                        Path   path       = ((Path) key.watchable()).resolve((Path) event.context());
+                        String sourceFile = watched.get(path);
+
+                        if (sourceFile != null) {
+                            changed.add(sourceFile);
+                        } else if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && isUnder(path, roots)) {
+
+                            try {
+
+                                if (Files.isDirectory(path)) {
+                                    register(watcher, path, dirs);
+                                }//end if
+
+                            } catch (IOException ex) {
+                                //a new directory deleted again is skipped, and not an error of watch mode
+                            }//end try
+
+                            created = true;
+
+                        }//end if
+
+                    }//end for
+
+                    key.reset();
+                    key = watcher.poll(WATCH_DEBOUNCE, TimeUnit.MILLISECONDS);
+
+                }//end while
+
+                if (created) {
+
+                    for (String sourceFile : this.discoverNew(watched)) {
+
+                        Path path = Paths.get(sourceFile).toAbsolutePath().normalize();
+
+                        files.add(sourceFile);
+                        watched.put(path, sourceFile);
+                        changed.add(sourceFile);
+
+                        if (dirs.add(path.getParent())) {
+                            path.getParent().register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                                                                StandardWatchEventKinds.ENTRY_MODIFY);
+                        }//end if
+
+                    }//end for
+
+                }//end if
+
+                List<String> changedFiles = new ArrayList<>();
+
+                for (String sourceFile : files) {
+
+                    if (changed.contains(sourceFile) && isWritten(Paths.get(sourceFile))) {
+                        changedFiles.add(sourceFile);
+                    }//end if
+
+                }//end for
+
+                if (!changedFiles.isEmpty()) {
+                    this.compileWatched(changedFiles);
+                }//end if
+
+            }//end while
+
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ex) {
+            error(ERROR_WATCH, ex.getClass().getName(), ex.getMessage());
+        }//end try
+
+    }//end watch
+
+    /**
+     * Check if a changed Java source file is written when a burst of edits is over, so it is compiled now, and not
+     * deleted, renamed away by an editor saving it, or only partly written, so it is skipped until it changes again.
+     *
+     * @param path     - path of the Java source file.
+     * @return boolean - true if the Java source file is readable and of minimum file size to compile.
+     */
+    private static boolean isWritten(final Path path) {
+
+        try {
+            return Files.isReadable(path) && Files.size(path) >= SourceDiscovery.FILE_SIZE_MINIMUM;
+        } catch (IOException ex) {
+            return false; //deleted after the readable check, such as by an editor saving by rename
+        }//end try
+
+    }//end isWritten
+
+    /**
+     * Discover the Java source files of the directory and glob pattern sources again, for the new Java source
+     * files created in them while watching.
+     *
+     * @param watched - name of each Java source file watched by its absolute path.
+     * @return List   - names of the new Java source files, in order of discovery.
+     */
+    private List<String> discoverNew(final Map<Path, String> watched) {
+
+        SourceDiscovery discovery = new SourceDiscovery(CHARSET);
+
+        for (String source : sources) {
+            discovery.addAgain(source);
+        }//end for
+
+        //a new Java source file only partly written is compiled when it is written again
+        discovery.getProblem();
+
+        List<String> found = new ArrayList<>();
+
+        for (String sourceFile : discovery.getFiles()) {
+
+            if (!watched.containsKey(Paths.get(sourceFile).toAbsolutePath().normalize())) {
+                found.add(sourceFile);
+            }//end if
+
+        }//end for
+
+        return found;
+
+    }//end discoverNew
+
+    /**
+     * Register a directory and all its subdirectories not yet watched with the watch service, with a directory
+     * reached again through a symbolic link, such as a link to a parent directory, listed only once.
+     *
+     * @param watcher - the watch service.
+     * @param dir     - absolute path of the directory.
+     * @param dirs    - directories already watched.
+     * @throws IOException - if a directory cannot be listed or registered.
+     */
+    private static void register(final WatchService watcher, final Path dir, final Set<Path> dirs)
+            throws IOException {
+
+        List<Path> list   = new ArrayList<>(Collections.singletonList(dir));
+        Set<Path>  listed = new HashSet<>(); //real path of each directory listed
+
+        for (int x = 0; x < list.size(); x++) {
+
+            if (!listed.add(list.get(x).toRealPath())) {
+                continue;
+            }//end if
+
+            if (dirs.add(list.get(x))) {
+                list.get(x).register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                                              StandardWatchEventKinds.ENTRY_MODIFY);
+            }//end if
 
-                String codeLine = this.getCodeLine(javaFileCode, diag.getLineNumber(), diag.getColumnNumber());
-                System.out.printf("%s%n", codeLine);
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(list.get(x))) {
 
-            } else {
-                System.out.println(diag.getMessage(LOCALE));
-            }//end if
+                for (Path entry : stream) {
+                    if (Files.isDirectory(entry)) {
+                        list.add(entry);
+                    }//end if
+                }//end for
 
-            System.out.println();
+            }//end try
 
         }//end for
 
-    }//end diagnose
+    }//end register
 
     /**
-     * Get the source line of Java code and format with indicator of the point of diagnostic error.
+     * Check if a path is in any of the directories of the directory and glob pattern sources.
      *
-     * @param srcCode - a list containing the Java source code.
-     * @param lineNum - the line number within the Java source code to retrieve.
-     * @param colNum  - the column position within the line for the diagnostic error.
-     *      
-     * @return String - the line of source code formatted to indicate point of error.
+     * @param path     - absolute path of a file or directory.
+     * @param roots    - absolute paths of the directories.
+     * @return boolean - true if the path is in a directory.
      */
-    private String getCodeLine(final List<String> srcCode, final long lineNum, final long colNum) {
-
-        try {
-
-            String line = srcCode.get((int) lineNum - 1);
-
-            StringBuilder codeLine = new StringBuilder(line);
-            codeLine.append(ENDLN);
+    private static boolean isUnder(final Path path, final List<Path> roots) {
 
-            for (int x = 0; x < colNum - 1; x++) {
-                codeLine.append(" ");
-            }//end for
-
-            codeLine.append("^");
-
-            return codeLine.toString();
-
-        } catch (Exception ex) {
-            System.out.printf("%s%n", ex.getMessage());
-            ex.printStackTrace();
-        }//end try
+        for (Path root : roots) {
+            if (path.startsWith(root)) {
+                return true;
+            }//end if
+        }//end for
 
-        return "";
+        return false;
 
-    }//end getCodeLine
+    }//end isUnder
 
     /**
-     * Compile single Java source code file using the Java Compiler API with compiler parameters.
+     * Compile the Java source files changed while watching, or every changed Java source file and its dependents
+     * for an incremental compile, then update the manifest, jar file, and metrics file.
      *
-     * @param fileName - name of the external file containing the Java source code.
+     * @param changedFiles - names of the Java source files changed while watching.
      */
-    private void compileFile(final String fileName) {
+    private void compileWatched(final List<String> changedFiles) {
 
-        if (echoFlag) {
+        long timeStart = System.nanoTime();
 
-            System.out.printf("%nJava Compile Options: %s%n%n",
-                              param.isEmpty() ? "None." : param.toString());
+        total = new DiagnosticCounter(1, null);
 
+        if (cache != null) {
+            cache = new OutputCache(cacheLocation); //the class path is hashed again for its changes
         }//end if
 
-        //0 - error, 1 - mandatory warning, 2 - note, 3 - other, 4 - warning, 5 - total diagnostic
-        final int[] diagnosticCounter = new int[]{0, 0, 0, 0, 0, 0};
+        processorPrint = this.getProcessorPrint(); //a changed annotation processor is loaded again
 
-        boolean statusFlag = false;
+        this.startProfile();
 
-        long timeStart = 0, timeClose = 0;
+        boolean resultFlag = this.compileFormatted(changedFiles);
 
-        try {
+        this.reportTotal();
 
-            JavaCompiler                        comp	= ToolProvider.getSystemJavaCompiler();
-            DiagnosticCollector<JavaFileObject> diag    = new DiagnosticCollector<>();
-            StandardJavaFileManager             file    = comp.getStandardFileManager(diag, LOCALE, CHARSET);
-            Iterable<? extends JavaFileObject>  list    = file.getJavaFileObjectsFromStrings(Collections.singletonList(fileName));
-            JavaCompiler.CompilationTask        task    = comp.getTask( SYS_ERR,
-                                                                        file,
-                                                                        diag,
-                                                                        param,
-                                                                        NO_ANNOTATION_PROC,
-                                                                        list);
+        if (profiler != null) {
+            profiler.report(out);
+        }//end if
 
-            System.gc();
+        if (manifest != null) {
+            this.saveManifest();
+        }//end if
 
-            timeStart  = System.currentTimeMillis();
-            statusFlag = task.call();
-            timeClose  = System.currentTimeMillis();
+        if (jarFile != null && resultFlag) {
+            this.writeJar();
+        }//end if
 
-            if (!muteFlag) {
+        if (metrics != null) {
+            this.writeMetrics(resultFlag);
+        }//end if
 
-                if (briefFlag) {
-
-                    for (Diagnostic<? extends JavaFileObject> diagnostic : diag.getDiagnostics()) {
-
-                        Diagnostic.Kind kind = diagnostic.getKind();
-
-                        switch (kind) {
-                            case ERROR:
-                                diagnosticCounter[0]++;
-                                diagnosticCounter[5]++;
-                                break;
-                            case MANDATORY_WARNING:
-                                diagnosticCounter[1]++;
-                                diagnosticCounter[5]++;
-                                break;
-                            case NOTE:
-                                diagnosticCounter[2]++;
-                                diagnosticCounter[5]++;
-                                break;
-                            case OTHER:
-                                diagnosticCounter[3]++;
-                                diagnosticCounter[5]++;
-                                break;
-                            case WARNING:
-                                diagnosticCounter[4]++;
-                                diagnosticCounter[5]++;
-                                break;
-                        }//end switch
+        if (!muteFlag) {
+            out.printf("Compiled %d changed Java source files in %d-ms: %s%n", changedFiles.size(),
+                       (System.nanoTime() - timeStart) / 1000000L, resultFlag ? "Success." : "Failure!");
+        }//end if
 
-                    }//end for
+        out.flush();
 
-                }//end if (Compiler.briefFlag)
+    }//end compileWatched
 
-                Path         javaFilePath = Paths.get(".", fileName);
-                List<String> javaFileCode = Files.readAllLines(javaFilePath, CHARSET);
+    /**
+     * Compile Java source files in memory with no class files written to disk, for a caller embedding the compiler.
+     *
+     * The resources annotation processors write to the class output are kept in the map too, by their path, such
+     * as META-INF/services/javax.annotation.processing.Processor, which has a '/' no binary name has.
+     *
+     * @param args - command line arguments of compiler parameters and Java source files.
+     * @return Map - bytecode of each compiled class by binary name and bytes of each resource by path, or null if
+     *               the compile failed.
+     */
+    public static Map<String, byte[]> compileToMemory(final String... args) {
 
-                if(!briefFlag)
-                    this.diagnose(fileName, diag, javaFileCode);
+        final Compiler wejac = new Compiler();
+        wejac.classes   = new ConcurrentSkipListMap<>();
+        wejac.resources = new ConcurrentSkipListMap<>();
 
-                System.gc();
+        wejac.compile(args);
 
-            }//end if (!Compiler.muteFlag)
+        if (!wejac.successFlag) {
+            return null;
+        }//end if
 
-            file.close();
+        Map<String, byte[]> outputs = new ConcurrentSkipListMap<>(wejac.classes);
+        outputs.putAll(wejac.resources);
 
-        } catch (Exception ex) {
+        return outputs;
 
-            System.out.printf("Compiler Exception: '%s' is '%s'.%n", ex.getClass().getName(), ex.getMessage());
+    }//end compileToMemory
 
-        } finally {
+    /**
+     * Compile Java source files with the options of a host embedding the compiler, with the compiler output
+     * discarded. Compiles on many threads at once are independent of each other.
+     *
+     * @param options        - options of the compile.
+     * @param sources        - Java source files, directories, glob patterns, or @argfiles of Java source files.
+     * @return CompileResult - the exit status, compiler diagnostics, and times of the compile.
+     */
+    public static CompileResult compile(final CompilerOptions options, final List<String> sources) {
 
-            if (briefFlag) {
-                if (diagnosticCounter[5] > 0){
-                    System.out.printf("%3d Diagnostic messages:%n", diagnosticCounter[5]);
-                    for(int x=0;x<diagnosticCounter.length-1;x++){
-                        if(diagnosticCounter[x] > 0){
+        return compile(options, sources, new PrintStream(new OutputStream() {
 
-                            //0 - error, 1 - mandatory warning, 2 - note, 3 - other, 4 - warning, 5 - total diagnostic
+            @Override
+            public void write(final int b) {
+            }//end write
 
-                            switch(x){
-                                case 0: System.out.printf("  %3d Error%n", diagnosticCounter[x]); break;
-                                case 1: System.out.printf("  %3d Mandatory Warning%n", diagnosticCounter[x]); break;
-                                case 2: System.out.printf("  %3d Note%n", diagnosticCounter[x]); break;
-                                case 3: System.out.printf("  %3d Other%n", diagnosticCounter[x]);
-                                case 4: System.out.printf("  %3d Warning%n", diagnosticCounter[x]); break;
-                            }//end switch
+            @Override
+            public void write(final byte[] b, final int off, final int len) {
+            }//end write
 
-                        }//end if
+        }));
 
-                    }//end for
+    }//end compile
+
+    /**
+     * Compile Java source files with the options of a host embedding the compiler, with the compiler output the
+     * same as the WEJAC command line. Compiles on many threads at once are independent of each other.
+     *
+     * @param options        - options of the compile.
+     * @param sources        - Java source files, directories, glob patterns, or @argfiles of Java source files.
+     * @param out            - compiler output of diagnostics and results.
+     * @return CompileResult - the exit status, compiler diagnostics, and times of the compile.
+     */
+    public static CompileResult compile(final CompilerOptions options, final List<String> sources,
+                                        final PrintStream out) {
 
-                    System.out.println();
+        final Compiler wejac = new Compiler(options, out);
+        wejac.files.addAll(sources);
 
-                } else {
+        long timeStart = System.nanoTime();
+        int  status    = wejac.run();
 
-                    System.out.println("No compiler diagnostic messages.");
+        //the exit status of the command line is success without -echo or -failfast, a result is always exact
+        if (status == EXIT_CODE_SUCCESS && !wejac.successFlag) {
+            status = EXIT_CODE_FAILURE;
+        }//end if
 
-                }//end if
+        Map<String, Long> fileTimes = new LinkedHashMap<>();
 
-            }//end if
+        for (String sourceFile : wejac.files) {
 
-            if (timeFlag) {
-                System.out.printf("Time: %d-ms for: %s%n", (timeClose - timeStart), fileName);
-            }//end if
+            Long time = wejac.fileTimes.get(sourceFile);
 
-            if (echoFlag) {
-                System.out.printf("Compiler result for file: '%s' is: ", fileName);
-                System.out.printf("%s%n", statusFlag ? "Success." : "Failure!");
-                System.exit(statusFlag ? EXIT_CODE_SUCCESS : EXIT_CODE_FAILURE);
+            if (time != null) {
+                fileTimes.put(sourceFile, time);
             }//end if
 
-        }//end try
+        }//end for
+
+        return new CompileResult(status, (System.nanoTime() - timeStart) / 1000000L, wejac.messages, fileTimes,
+                                 wejac.problem);
 
     }//end compile
 
     /**
-     * Report a compiler error and then exit with status code of failure with a problem.
+     * Compile using the command line arguments of compiler parameters and Java source files.
      *
-     * @param text -  error message to report to the user.
-     * @param args -  error message arguments to report.
+     * @param args - command line arguments passed to the WEJAC compiler.
+     * @return int - exit status code of the compiler.
      */
-    private static void error(final String text, final Object... args) {
+    int compile(final String[] args) {
 
-        System.out.printf("%nError! ");
-        System.out.printf(text, args);
-        System.out.printf("%n%n");
-        System.exit(EXIT_CODE_PROBLEM);
+        try {
 
-    }//end error
+            if (args.length == 0) {
+                error(ERROR_NO_INPUT);
+            }//end if
 
-    /**
-     * Print compiler USEINFO and OPTIONS and then exit without invoking compiler.
-     *
-     */
-    private static void printOptions() {
+            this.processCommandLineArgs(args);
 
-        System.out.printf("%n%s%n%s%n", USEINFO, OPTIONS);
-        System.exit(EXIT_CODE_SUCCESS);
+            if (daemonFlag) {
+                return CompilerDaemon.serve(out);
+            }//end if
 
-    }//end printOptions
+            if (cdsFlag) {
+                return ClassDataArchive.create(out, quietFlag);
+            }//end if
 
-    /**
-     * Print compiler RELEASE and VERSION and then exit without invoking compiler.
-     *
-     */
-    private static void printVersion() {
+        } catch (CompilerExit exit) {
 
-        System.out.printf("%s%n%s%n", RELEASE, VERSION);
-        System.exit(EXIT_CODE_SUCCESS);
+            out.flush();
+            return exit.status;
 
-    }//end printVersion
+        }//end try
+
+        return this.run();
+
+    }//end compile
 
     /**
-     * Add any Javac compiler parameters to the compiler parameters passed to the Java Compiler API.
+     * Compile the Java source files with the compiler parameters from the command line or of a host embedding
+     * the compiler.
      *
-     * @param args -  command line arguments for the Javac compiler passed to Java Compiler API.
-     * @param idx  -  starting index position within array of command line arguments.
-     * @return int -  closing index position within the array of command line arguments.
+     * @return int - exit status code of the compiler.
      */
-    private int processJavacArguments(final String[] args, final int idx) {
-
-        int pos;
+    private int run() {
 
-        for (pos = idx + 1; pos < args.length; pos++) {
+        try {
 
-            if (args[pos].contains(FILE_SOURCE_EXT)) {
-                break;
-            } else {
-                param.add(args[pos]);
+            if (files.isEmpty()) {
+                error(ERROR_NO_FILES);
             }//end if
 
-        }//end for
+            if (incrementalFlag && (jarFile != null || classes != null)) {
+                error(ERROR_OPT_JAR);
+            }//end if
 
-        return pos - 1;
+            if (adaptiveFlag && (batchFlag || parallelCount > 0)) {
+                error(ERROR_OPT_ADAPTIVE);
+            }//end if
 
-    }//end processJavacArguments
+            if (cacheLocation != null && incrementalFlag) {
+                error(ERROR_OPT_CACHE_INC);
+            }//end if
 
-    /**
-     * Process the command line arguments to set the internal parameters for compilation.
-     *
-     * @param args - command line arguments to set compiler parameters during compilation.
-     */
-    private void processCommandLineArgs(final String[] args) {
+            if (format != null && (briefFlag || muteFlag || echoFlag || timeFlag || profileFlag)) {
+                error(ERROR_OPT_REPORT);
+            }//end if
 
-        int x;
-        for (x = 0; x < args.length; x++) {
+            if (pipelineFlag && (adaptiveFlag || batchFlag || incrementalFlag || cacheLocation != null
+                    || param.contains(JAVAC_SOURCEPATH) || param.contains(JAVAC_SOURCE_PATH))) {
+                error(ERROR_OPT_PIPELINE);
+            }//end if
 
-            if (args[x].contains("-")) {
+            if (checkFlag && (incrementalFlag || jarFile != null || classes != null || cacheLocation != null)) {
+                error(ERROR_OPT_CHECK);
+            }//end if
 
-                switch (args[x]) {
+            this.configureParams();
 
-                    case "-time":
-                        timeFlag = true;
-                        break;
-                    case "-echo":
-                        echoFlag = true;
-                        break;
-                    case "-final":
-                        finalFlag = true;
-                        break;
-                    case "-brief":
-                        if (hushFlag || muteFlag)
-                            error(ERROR_OPT_BRIEF);
-                        briefFlag = true;
-                        break;
-                    case "-hush":
-                        if (briefFlag || muteFlag)
-                            error(ERROR_OPT_HUSH);
-                        hushFlag = true;
-                        break;
-                    case "-mute":
-                        if (briefFlag || hushFlag)
-                            error(ERROR_OPT_MUTE);
-                        muteFlag = true;
-                        break;
-                    case "-javac":
-                        x = processJavacArguments(args, x);
-                        break;
-                    case "-help":
-                        printOptions();
-                        break;
-                    case "-info":
-                        printVersion();
-                        break;
-                    default:
-                        error(ERROR_PARAM_WRONG, args[x]);
-                        break;
-                }//end switch
+            processorPrint = this.getProcessorPrint();
 
-            } else {
+            if (cacheLocation != null) {
+                cache = new OutputCache(cacheLocation);
+            }//end if
 
-                for (; x < args.length; x++) {
+            if (jarFile != null) {
+                classes   = new ConcurrentSkipListMap<>();
+                resources = new ConcurrentSkipListMap<>();
+            }//end if
 
-                    if (args[x].contains(FILE_SOURCE_EXT)) {
-                        files.add(args[x]);
-                    } else {
+            if (metricsFile != null) {
+                metrics = new CompileMetrics(metricsFile);
+            }//end if
 
-                        if (args[x].contains("-")) {
-                            error(ERROR_PARAM_FILES, args[x]);
-                        } else {
-                            error(ERROR_FILE_EXT, args[x]);
-                        }//end if
+            if (format != null) {
+                formatter = new DiagnosticFormatter(format, out, LOCALE);
+                muteFlag  = true; //the diagnostics in the format are the only compiler output
+            }//end if
 
-                    }//end if
+            this.startProfile();
 
-                }//end for
+            boolean resultFlag = this.compileFormatted(files);
 
-                break;
+            this.reportTotal();
 
+            if (profiler != null) {
+                profiler.report(out);
             }//end if
 
-        }//end for
+            if (manifest != null) {
+                this.saveManifest();
+            }//end if
 
-    }//end processCommandLineArgs
+            if (jarFile != null && resultFlag) {
+                this.writeJar();
+            }//end if
 
-    /**
-     * Compile using the command line arguments of compiler parameters and Java source files.
-     *
-     * @param args - command line arguments passed to the WEJAC compiler.
-     */
-    private static void compile(final String[] args) {
+            if (metrics != null) {
+                this.writeMetrics(resultFlag);
+            }//end if
 
-        if (args.length == 0) {
-            error(ERROR_NO_INPUT);
-        }//end if
+            if (cache != null && echoFlag) {
+                out.printf("Cache: %d hits, %d misses.%n", cache.getHits(), cache.getMisses());
+            }//end if
 
-        final Compiler wejac = new Compiler();
+            if (watchFlag) {
+                this.watch();
+            }//end if
 
-        wejac.processCommandLineArgs(args);
+            successFlag = resultFlag;
 
-        if (files.isEmpty()) {
-            error(ERROR_NO_FILES);
-        }//end if
+            if (echoFlag || failFastFlag) {
+                return resultFlag ? EXIT_CODE_SUCCESS : EXIT_CODE_FAILURE;
+            }//end if
 
-        wejac.configureParams();
+        } catch (CompilerExit exit) {
+            return exit.status;
+        } finally {
+            out.flush();
+        }//end try
 
-        for (String sourceFile : files) {
-            wejac.compileFile(sourceFile);
-        }//end for
+        return EXIT_CODE_SUCCESS;
 
-    }//end compile
+    }//end run
 
     private final static String JAVAC_FINAL = "-g:none";
     private final static String JAVAC_DEBUG = "-g";
+    private final static String JAVAC_END   = "--"; //end of Javac compiler parameters before the sources
+
+    private final static String JAVAC_IMPLICIT    = "-implicit:none";  //no class files of headers of a pipeline
+    private final static String JAVAC_PREFER      = "-Xprefer:source"; //headers before older class files
+    private final static String JAVAC_SHOULD_STOP = "-XDshould-stop.ifError="; //last phase after an error
+    private final static String JAVAC_STOP_FLOW   = "FLOW";            //all files attributed after an error
+    private final static String JAVAC_SOURCEPATH  = "-sourcepath";
+    private final static String JAVAC_SOURCE_PATH = "--source-path";
+
+    private final static List<String> JAVAC_CLASSPATH = Arrays.asList("-cp", "-classpath", "--class-path");
     
     /**
-     * Configure underlying Javac compiler parameters the WEJAC parameters passed as command line arguments.
+     * Configure underlying Javac compiler parameters the WEJAC parameters passed as command line arguments, after
+     * the sources are expanded into the Java source files found and verified.
      *
      */
     private void configureParams() {
 
-        for (String sourceFile : files) {
-            verifyFile(sourceFile);
+        SourceDiscovery discovery = new SourceDiscovery(CHARSET);
+
+        for (String source : files) {
+            discovery.add(source);
         }//end for
 
+        String problem = discovery.getProblem();
+
+        if (problem != null) {
+            error("%s", problem);
+        }//end if
+
+        sources.clear();
+        sources.addAll(files);
+
+        files.clear();
+        files.addAll(discovery.getFiles());
+
         	param.add(finalFlag ? JAVAC_FINAL : JAVAC_DEBUG);
+
+        if (incrementalFlag) {
+            this.addClassPath(BuildManifest.getOutputDirectory(param).toString());
+        }//end if
+
     }//end configureParams
 
     /**
-     * Verify a Java source file in given path exists, is readable, and is of minimum file size to compile.
+     * Add a directory to the end of the class path Javac compiler parameter, so the class files of unchanged Java
+     * source files are found when only changed and dependent Java source files are compiled. With no class path
+     * given the directory is added after the CLASSPATH environment variable, or else the working directory, as
+     * javac uses either only when no class path is given.
      *
-     * @param filePath - file path to Java source file to compiler.
+     * @param dir - the directory to add to the class path.
      */
-    private static void verifyFile(final String filePath) {
-
-        Path path = Paths.get(filePath);
+    private void addClassPath(final String dir) {
 
-        try {
+        for (int x = 0; x + 1 < param.size(); x++) {
 
-            if (!Files.exists(path)) {
-                error(ERROR_FILE_EXIST, path.toString());
-            } else if (!Files.isReadable(path)) {
-                error(ERROR_FILE_READ, path.toString());
-            } else if (Files.size(path) < FILE_SIZE_MINIMUM) {
-                error(ERROR_FILE_SMALL, path.toString());
+            if (JAVAC_CLASSPATH.contains(param.get(x))) {
+                param.set(x + 1, param.get(x + 1) + File.pathSeparator + dir);
+                return;
             }//end if
 
-        } catch (Exception ex) {
-            error("Verify File Exception: '%s' is '%s'.%n", ex.getClass().getName(), ex.getMessage());
-        }//end try
+        }//end for
 
-    }//end verifyFile
+        String classPath = System.getenv("CLASSPATH");
 
-    private final static int EXIT_CODE_SUCCESS      = 0; //success - compiler success in compiling Java source file.
-    private final static int EXIT_CODE_FAILURE      = 1; //failure - compiler failure in compiling Java source file.
-    private final static int EXIT_CODE_PROBLEM      = 2; //problem - compiler failure with a problem for Java source file.
+        param.add("-cp");
+        param.add((classPath == null || classPath.isEmpty() ? "." : classPath) + File.pathSeparator + dir);
 
-    private final static long   FILE_SIZE_MINIMUM   = 10;      //smallest java file size is 10-bytes
-    private final static String FILE_SOURCE_EXT     = ".java"; //Java source file extension
+    }//end addClassPath
+
+    final static int EXIT_CODE_SUCCESS      = 0; //success - compiler success in compiling Java source file.
+    final static int EXIT_CODE_FAILURE      = 1; //failure - compiler failure in compiling Java source file.
+    final static int EXIT_CODE_PROBLEM      = 2; //problem - compiler failure with a problem for Java source file.
 
     private final static String ERROR_NO_INPUT      = "No compiler options or files given! Use -help for options.";
     private final static String ERROR_NO_FILES      = "No source files given! Use -help for options.";
@@ -503,34 +2390,85 @@ public final class Compiler {
     private final static String ERROR_PARAM_FILES   = "Compiler option: '%s' must precede Java files list.";
     private final static String ERROR_PARAM_WRONG   = "Compiler option: '%s' is not recognized.";
 
-    private final static String ERROR_FILE_EXT      = "File: '%s' does not have '.java' extension.";
-    private final static String ERROR_FILE_EXIST    = "File: '%s' does not exist.";
-    private final static String ERROR_FILE_READ     = "File: '%s' is not readable.";
-    private final static String ERROR_FILE_SMALL    = "File: '%s' is too small.";
-
     private final static String ERROR_OPT_BRIEF     = "Option -brief ambiguous with option -hush and/or -mute option.";
     private final static String ERROR_OPT_HUSH      = "Option -hush ambiguous with option -brief and/or -mute option.";
     private final static String ERROR_OPT_MUTE      = "Option -mute ambiguous with -brief and/or -hush option.";
+    private final static String ERROR_OPT_ADAPTIVE  = "Option -adaptive ambiguous with -batch and/or -parallel option.";
+    private final static String ERROR_OPT_CHECK     = "Option -check ambiguous with -cache, -incremental, -jar and/or in memory compile.";
+    private final static String ERROR_OPT_PIPELINE  = "Option -pipeline ambiguous with -adaptive, -batch, -cache, -incremental and/or -javac -sourcepath option.";
+    private final static String ERROR_OPT_PARALLEL  = "Option: '%s' must be -parallel or -parallel=N with N threads of 1 or more.";
+
+    private final static String ERROR_OPT_JAR       = "Option -jar and in memory compile ambiguous with -incremental option.";
+    private final static String ERROR_OPT_JAR_FILE  = "Option -jar must be followed by the jar file to write.";
+    private final static String ERROR_JAR_WRITE     = "Jar file: '%s' not written for exception: '%s' is '%s'.";
+
+    private final static String ERROR_OPT_METRICS   = "Option -metrics must be followed by the metrics file to write.";
+    private final static String ERROR_METRICS_WRITE = "Metrics file: '%s' not written for exception: '%s' is '%s'.";
+
+    private final static String ERROR_OPT_FORMAT    = "Option -format must be followed by the format json or sarif.";
+    private final static String ERROR_OPT_REPORT    = "Option -format ambiguous with -brief, -echo, -mute, -profile and/or -time option.";
+
+    private final static String ERROR_OPT_CACHE     = "Option -cache must be followed by the cache directory or HTTP URL.";
+    private final static String ERROR_OPT_CACHE_INC = "Option -cache ambiguous with -incremental option.";
+
+    private final static String ERROR_PROFILE       = "Profile Exception: '%s' is '%s'.";
+
+    private final static String ERROR_WATCH         = "Watch Exception: '%s' is '%s'.";
+
+    private final static String ERROR_MANIFEST      = "Incremental Manifest Exception: '%s' is '%s'.";
+
+    private final static String OPTION_PARALLEL     = "-parallel=";
+    private final static String OPTION_PROFILE_JFR  = "-profile=jfr";
+    private final static String OPTION_CDS_QUIET    = "-cds=quiet";
+
+    //names of the diagnostic counts of the total, 0 - error, 1 - mandatory warning, 2 - note, 3 - other, 4 - warning
+    private final static String[] TOTAL_NAMES = { "Error", "Mandatory Warning", "Note", "Other", "Warning" };
+
+    private final static long   WATCH_DEBOUNCE      = 300; //milliseconds without changes that end a burst of edits
 
     private final static String LICENSE             = "License is GNU General Public License (GPL) version 3.0";
     private final static String VERSION             = "Version 1.3 Released July 2019";
 
     private final static String RELEASE             = "WEJAC - Will's Elided Java Api Compiler\n(C) Copyright 2019 William F. Gilreath. All Rights Reserved";
-    private final static String USEINFO             = "Usage:  wejac (option)* [ -javac (javac-options)+ ] (java-file)+ | ( -help | -info )";
+    private final static String USEINFO             = "Usage:  wejac (option)* [ -javac (javac-options)+ [ -- ] ] (java-file | directory | glob | @argfile)+ | ( -help | -info )";
 
     private final static String OPTIONS =   "                                                                        \n\r" +
                                             "  WEJAC OPTIONS:                                                          \n" +
 											"                                                                          \n" +
-											"  Compiler Options:  [ -echo ] | [ -final ] | [ -time ]                   \n" +
+											"  Compiler Options:  [ -adaptive ] | [ -batch ] | [ -cache dir|url ] | [ -check ] | [ -echo ] | [ -failfast ] | [ -final ] | [ -incremental ] | [ -jar file ] | [ -metrics file ] | [ -parallel[=N] ] | [ -pipeline ] | [ -profile[=jfr] ] | [ -time ] | [ -watch ] \n" +
 											"                                                                          \n" +
+											"    -adaptive    Compile Java source files in batches sized to the heap.  \n" +
+											"    -batch       Compile all Java source files in one compilation task.   \n" +
+											"    -cache dir|url                                                        \n" +
+											"                 Restore unchanged class files from a shared output cache.\n" +
+											"    -check       Check Java source files for errors with no class files.  \n" +
 											"    -echo        Print Java compiler options and success or failure.      \n" +
+											"    -failfast    Stop all compiles at the first error and exit failure.   \n" +
 											"    -final       Compile final release without debug information.         \n" +
-											"    -time        Print total time for success compiling of a source file. \n" +
+											"    -incremental Compile only Java source files changed since last compile.\n" +
+											"    -jar file    Compile classes in memory and write them into a jar file.\n" +
+											"    -metrics file                                                         \n" +
+											"                 Write compile metrics of each file to a JSON or CSV file.\n" +
+											"    -parallel    Compile each Java source file on N or all cores in order.\n" +
+											"    -pipeline    Compile groups of dependent packages at once from headers.\n" +
+											"    -profile     Print memory and GC of the heaviest files, jfr to record.\n" +
+											"    -time        Print total time for success compiling of a source file, \n" +
+											"                 and the time of each phase, compilation unit and processor.\n" +
+											"    -watch       Compile changed Java source files again until stopped.   \n" +
+											"                                                                          \n" +
+											"  Daemon Option:  [ -daemon ] | [ -cds[=quiet] ]                          \n" +
+											"                                                                          \n" +
+											"    -cds         Write a class data sharing archive for a faster startup. \n" +
+											"                 With =quiet the startup before and after is not timed.   \n" +
+											"    -daemon      Serve compiles from a warm compiler in this directory.   \n" +
+											"                 A client still starts a JVM, but never loads javac.      \n" +
 											"                                                                          \n" +
 
-											"  Error Reporting Option: [ -brief | -hush | -mute ]                      \n" +
+											"  Error Reporting Option: [ -brief | -hush | -mute ] | [ -format json|sarif ]\n" +
 											"                                                                          \n" +
 											"    -brief       Print only a brief count of compiler messages.           \n" +
+											"    -format json|sarif                                                    \n" +
+											"                 Print compiler messages as JSON lines or a SARIF log.    \n" +
 											"    -hush        Disable all compiler messages except errors.             \n" +
 											"    -mute        Disable all compiler messages.                           \n" +
 											"                                                                          \n" +
@@ -541,6 +2479,10 @@ public final class Compiler {
 											"    -info        Print compiler version information and exit.                 \n" +
 											"                                                                          \n" +
 											"  Note: All options for -javac are passed as-is to the compiler.          \n" +
+											"        End them with -- before a directory, glob, or @argfile source.    \n" +
+											"                                                                          \n" +
+											"  Sources: A Java file, a directory of Java files, a quoted glob pattern  \n" +
+											"        such as 'src/**/*.java', or an @argfile listing a source per line.\n" +
 											"                                                                        \n\r" ;
 
     /**
@@ -554,10 +2496,74 @@ public final class Compiler {
             System.out.printf("%s %s%n%s%n", RELEASE, VERSION, LICENSE);
         }//end if
 
-        compile(args);
+        int status = CompilerDaemon.request(args);
+
+        if (status == CompilerDaemon.NO_DAEMON) {
+            status = new Compiler().compile(args);
+        }//end if
 
-        System.exit(EXIT_CODE_SUCCESS);
+        System.exit(status);
 
     }//end main
 
+    /**
+     * Exit of the compiler with a status code, thrown instead of System.exit so a daemon keeps running.
+     */
+    private final static class CompilerExit extends RuntimeException {
+
+        private final static long serialVersionUID = 1L;
+
+        private final int status; //exit status code of the compiler
+
+        /**
+         * Constructor for an exit of the compiler with a status code.
+         *
+         * @param status - exit status code of the compiler.
+         */
+        CompilerExit(final int status) {
+
+            super(null, null, false, false);
+            this.status = status;
+
+        }//end constructor
+
+    }//end class CompilerExit
+
+    /**
+     * Abort of a compilation task at the first error diagnostic when failing fast, thrown from a listener.
+     */
+    private final static class CompileAbort extends RuntimeException {
+
+        private final static long serialVersionUID = 1L;
+
+        /**
+         * Constructor for an abort of a compilation task.
+         */
+        CompileAbort() {
+
+            super(null, null, false, false);
+
+        }//end constructor
+
+        /**
+         * Check if an exception thrown by a compilation task is caused by an abort, as javac wraps an exception
+         * thrown from a listener.
+         *
+         * @param ex       - exception thrown by the compilation task.
+         * @return boolean - true if the exception or one of its causes is an abort.
+         */
+        static boolean isCause(final Throwable ex) {
+
+            for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+                if (cause instanceof CompileAbort) {
+                    return true;
+                }//end if
+            }//end for
+
+            return false;
+
+        }//end isCause
+
+    }//end class CompileAbort
+
 }//end class Compiler
\ No newline at end of file
@@ -0,0 +1,418 @@
+/*
+ * @(#)CompilerDaemon.java
+ *
+ * Title: WEJAC - Will's Elided Java Api Compiler.
+ *
+ * Description: A long-lived compiler daemon with a warm Java compiler, and the client that sends it compiles.
+ *
+ * @author William F. Gilreath (wfgilreath@yahoo.com)
+ * @version 2.1  6/26/19
+ *
+ * Copyright © 2019 All Rights Reserved.
+ *
+ * License: This software is subject to the terms of the GNU General Public License (GPL)
+ *     version 3.0 available at the following link: http://www.gnu.org/copyleft/gpl.html.
+ *
+ * You must accept the terms of the GNU General Public License (GPL) license agreement
+ *     to use this software.
+ *
+ **/
+package will.wejac;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+import java.util.List;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+final class CompilerDaemon {
+
+    final static int NO_DAEMON = -1; //no daemon is serving compiles for the working directory
+
+    private final static Path   DAEMON_FILE     = Paths.get(".wejac-daemon"); //port and token of the daemon
+    private final static int    CONNECT_TIMEOUT = 1000; //milliseconds to wait to connect to the daemon
+    private final static int    TOKEN_SIZE      = 32;   //bytes of the random token a client must present
+
+    private final static byte   FRAME_EXIT      = 0; //frame with the exit status code of the compile
+    private final static byte   FRAME_OUT       = 1; //frame of compiler output of diagnostics and results
+    private final static byte   FRAME_ERR       = 2; //frame of Javac compiler output other than diagnostics
+
+    /**
+     * Private constructor to prevent instantiating this class.
+     */
+    private CompilerDaemon() {
+    }//end constructor
+
+    /**
+     * Serve compile requests from clients in the working directory, each compiled in this process by a warm
+     * Java compiler, until the daemon process is stopped.
+     *
+     * @param out  - output for the status of the daemon.
+     * @return int - exit status code of the daemon if it cannot start.
+     */
+    static int serve(final PrintStream out) {
+
+        final ExecutorService pool = Executors.newCachedThreadPool();
+
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+
+            final byte[] token = new byte[TOKEN_SIZE];
+            new SecureRandom().nextBytes(token);
+
+            writeDaemonFile(server.getLocalPort(), token);
+
+            Runtime.getRuntime().addShutdownHook(new Thread() {
+
+                @Override
+                public void run() {
+
+                    try {
+                        Files.deleteIfExists(DAEMON_FILE);
+                    } catch (IOException ex) {
+                        //the daemon file is stale and a client falls back to compile in its own process
+                    }//end try
+
+                }//end run
+
+            });
+
+            out.printf("WEJAC daemon serving '%s' on port %d.%n",
+                       Paths.get("").toAbsolutePath(), server.getLocalPort());
+            out.flush();
+
+            while (true) {
+
+                final Socket socket = server.accept();
+
+                pool.execute(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        handle(socket, token);
+                    }//end run
+
+                });
+
+            }//end while
+
+        } catch (IOException ex) {
+
+            out.printf("Daemon Exception: '%s' is '%s'.%n", ex.getClass().getName(), ex.getMessage());
+            return Compiler.EXIT_CODE_PROBLEM;
+
+        } finally {
+            pool.shutdown();
+        }//end try
+
+    }//end serve
+
+    /**
+     * Request a compile from the daemon serving the working directory, and stream its output to this process.
+     * This client is a Java process of its own, so only the loading and warm-up of the Java compiler is saved,
+     * not the startup of the JVM, and it uses no class of the Java compiler before it knows no daemon is serving.
+     *
+     * @param args - command line arguments passed to the WEJAC compiler.
+     * @return int - exit status code of the compile, or NO_DAEMON if no daemon can compile the request.
+     */
+    static int request(final String[] args) {
+
+        if (args.length == 0 || !Files.isRegularFile(DAEMON_FILE) || isDaemonArgument(args)) {
+            return NO_DAEMON;
+        }//end if
+
+        Socket socket = null;
+        byte[] token;
+
+        try {
+
+            List<String> lines = Files.readAllLines(DAEMON_FILE, StandardCharsets.UTF_8);
+
+            int port = Integer.parseInt(lines.get(0).trim());
+            token    = fromHex(lines.get(1).trim());
+
+            socket = new Socket();
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), CONNECT_TIMEOUT);
+
+        } catch (Exception ex) {
+
+            close(socket);
+            return NO_DAEMON;
+
+        }//end try
+
+        try {
+            return exchange(socket, token, args);
+        } finally {
+            close(socket);
+        }//end try
+
+    }//end request
+
+    /**
+     * Send the command line arguments to the daemon, then copy its output frames to this process until the
+     * exit status code of the compile is received.
+     *
+     * @param socket - connection to the daemon.
+     * @param token  - random token of the daemon to present with the request.
+     * @param args   - command line arguments passed to the WEJAC compiler.
+     * @return int   - exit status code of the compile.
+     */
+    private static int exchange(final Socket socket, final byte[] token, final String[] args) {
+
+        try {
+
+            DataOutputStream request = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+            request.write(token);
+            request.writeInt(args.length);
+
+            for (String arg : args) {
+                request.writeUTF(arg);
+            }//end for
+
+            request.flush();
+
+            DataInputStream response = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+
+            while (true) {
+
+                byte kind = response.readByte();
+
+                if (kind == FRAME_EXIT) {
+                    return response.readInt();
+                }//end if
+
+                byte[] data = new byte[response.readInt()];
+                response.readFully(data);
+
+                PrintStream stream = kind == FRAME_ERR ? System.err : System.out;
+                stream.write(data, 0, data.length);
+                stream.flush();
+
+            }//end while
+
+        } catch (IOException ex) {
+
+            System.out.printf("Daemon Exception: '%s' is '%s'.%n", ex.getClass().getName(), ex.getMessage());
+            return Compiler.EXIT_CODE_PROBLEM;
+
+        }//end try
+
+    }//end exchange
+
+    /**
+     * Handle one compile request of a client by compiling in this process with output streamed to the client.
+     *
+     * @param socket - connection to the client.
+     * @param token  - random token a client must present to request a compile.
+     */
+    private static void handle(final Socket socket, final byte[] token) {
+
+        try {
+
+            DataInputStream        request  = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            final DataOutputStream response = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+            byte[] secret = new byte[TOKEN_SIZE];
+            request.readFully(secret);
+
+            if (!MessageDigest.isEqual(secret, token)) {
+                return;
+            }//end if
+
+            String[] args = new String[request.readInt()];
+
+            for (int x = 0; x < args.length; x++) {
+                args[x] = request.readUTF();
+            }//end for
+
+            PrintStream out = new PrintStream(new FrameOutputStream(response, FRAME_OUT), true);
+            PrintWriter err = new PrintWriter(new OutputStreamWriter(new FrameOutputStream(response, FRAME_ERR)), true);
+
+            int status = isDaemonArgument(args) ? Compiler.EXIT_CODE_PROBLEM : new Compiler(out, err).compile(args);
+
+            out.flush();
+            err.flush();
+
+            synchronized (response) {
+
+                response.writeByte(FRAME_EXIT);
+                response.writeInt(status);
+                response.flush();
+
+            }//end synchronized
+
+        } catch (IOException ex) {
+            System.err.printf("Daemon Exception: '%s' is '%s'.%n", ex.getClass().getName(), ex.getMessage());
+        } finally {
+            close(socket);
+        }//end try
+
+    }//end handle
+
+    /**
+     * Write the daemon file with the port and token of the daemon readable only by the owner when supported.
+     *
+     * @param port  - port of the daemon on the loopback address.
+     * @param token - random token a client must present to request a compile.
+     * @throws IOException - if the daemon file cannot be written.
+     */
+    private static void writeDaemonFile(final int port, final byte[] token) throws IOException {
+
+        Files.deleteIfExists(DAEMON_FILE);
+
+        try {
+            Files.createFile(DAEMON_FILE, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } catch (UnsupportedOperationException ex) {
+            Files.createFile(DAEMON_FILE);
+        }//end try
+
+        StringBuilder text = new StringBuilder();
+        text.append(port).append('\n');
+
+        for (byte b : token) {
+            text.append(String.format("%02x", b & 0xFF));
+        }//end for
+
+        text.append('\n');
+
+        Files.write(DAEMON_FILE, text.toString().getBytes(StandardCharsets.UTF_8));
+
+    }//end writeDaemonFile
+
+    /**
+     * Check if the command line arguments request a long-lived process, to start a daemon or to watch Java source
+     * files, or to create the class data sharing archive of this process, which is never sent to a daemon.
+     *
+     * @param args     - command line arguments passed to the WEJAC compiler.
+     * @return boolean - true if an argument is the daemon, watch, or any form of the cds option.
+     */
+    private static boolean isDaemonArgument(final String[] args) {
+
+        for (String arg : args) {
+            if (arg.equals("-daemon") || arg.equals("-watch") || arg.startsWith("-cds")) {
+                return true;
+            }//end if
+        }//end for
+
+        return false;
+
+    }//end isDaemonArgument
+
+    /**
+     * Convert text of hexadecimal digits into bytes.
+     *
+     * @param text    - text of hexadecimal digits.
+     * @return byte[] - the bytes of the hexadecimal digits.
+     */
+    private static byte[] fromHex(final String text) {
+
+        byte[] data = new byte[text.length() / 2];
+
+        for (int x = 0; x < data.length; x++) {
+            data[x] = (byte) Integer.parseInt(text.substring(2 * x, 2 * x + 2), 16);
+        }//end for
+
+        return data;
+
+    }//end fromHex
+
+    /**
+     * Close a socket quietly.
+     *
+     * @param socket - the socket to close, or null.
+     */
+    private static void close(final Socket socket) {
+
+        if (socket == null) {
+            return;
+        }//end if
+
+        try {
+            socket.close();
+        } catch (IOException ex) {
+            //the connection is done either way
+        }//end try
+
+    }//end close
+
+    /**
+     * Output stream that writes each write as a frame of one kind to the connection to a client.
+     */
+    private final static class FrameOutputStream extends OutputStream {
+
+        private final DataOutputStream response; //connection to the client shared by all frame kinds
+        private final byte             kind;     //kind of frame written by this stream
+
+        /**
+         * Constructor for an output stream of frames of one kind.
+         *
+         * @param response - connection to the client.
+         * @param kind     - kind of frame written by this stream.
+         */
+        FrameOutputStream(final DataOutputStream response, final byte kind) {
+
+            this.response = response;
+            this.kind     = kind;
+
+        }//end constructor
+
+        @Override
+        public void write(final int b) throws IOException {
+
+            this.write(new byte[]{(byte) b}, 0, 1);
+
+        }//end write
+
+        @Override
+        public void write(final byte[] data, final int off, final int len) throws IOException {
+
+            if (len == 0) {
+                return;
+            }//end if
+
+            synchronized (response) {
+
+                response.writeByte(kind);
+                response.writeInt(len);
+                response.write(data, off, len);
+
+            }//end synchronized
+
+        }//end write
+
+        @Override
+        public void flush() throws IOException {
+
+            synchronized (response) {
+                response.flush();
+            }//end synchronized
+
+        }//end flush
+
+    }//end class FrameOutputStream
+
+}//end class CompilerDaemon
@@ -0,0 +1,675 @@
+/*
+ * @(#)CompilerOptions.java
+ *
+ * Title: WEJAC - Will's Elided Java Api Compiler.
+ *
+ * Description: Immutable options of a compile by the WEJAC compiler embedded in a host, the same as the WEJAC
+ *     command line options, made with a builder and safe to share between compiles on many threads.
+ *
+ * @author William F. Gilreath (wfgilreath@yahoo.com)
+ * @version 2.1  6/26/19
+ *
+ * Copyright © 2019 All Rights Reserved.
+ *
+ * License: This software is subject to the terms of the GNU General Public License (GPL)
+ *     version 3.0 available at the following link: http://www.gnu.org/copyleft/gpl.html.
+ *
+ * You must accept the terms of the GNU General Public License (GPL) license agreement
+ *     to use this software.
+ *
+ **/
+package will.wejac;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public final class CompilerOptions {
+
+    private final boolean adaptiveFlag;    //compile Java source files in batches sized to the heap
+    private final boolean batchFlag;       //compile all Java source files in one compilation task
+    private final boolean briefFlag;       //report a brief count of compiler diagnostics
+    private final boolean checkFlag;       //parse and analyze Java source files with no class files written
+    private final boolean echoFlag;        //print Java compiler parameters and compiler status
+    private final boolean failFastFlag;    //stop all compiles at the first error diagnostic
+    private final boolean finalFlag;       //compile with no debug information
+    private final boolean hushFlag;        //report compiler diagnostics of errors only
+    private final boolean muteFlag;        //report no compiler diagnostics
+    private final boolean timeFlag;        //report the time to compile each Java source file
+    private final boolean incrementalFlag; //compile only changed Java source files
+    private final boolean profileFlag;     //report the resources used to compile each Java source file
+    private final boolean recordFlag;      //profile with a JDK Flight Recorder recording of the compile
+    private final boolean pipelineFlag;    //compile groups of dependent packages at once from their headers
+
+    private final int    parallelCount; //number of threads to compile Java source files in parallel, or 0
+    private final String jarFile;       //jar file to write the classes compiled in memory, or null
+    private final String metricsFile;   //metrics file to write the metrics of each Java source file, or null
+    private final String cacheLocation; //directory or HTTP URL of the shared cache of class files, or null
+    private final String format;        //format json or sarif to write the diagnostics, or null
+
+    private final List<String> javacOptions; //Javac compiler parameters passed as-is
+
+    /**
+     * Private constructor for the options made by a builder.
+     *
+     * @param builder - the builder of the options.
+     */
+    private CompilerOptions(final Builder builder) {
+
+        this.adaptiveFlag    = builder.adaptiveFlag;
+        this.batchFlag       = builder.batchFlag;
+        this.briefFlag       = builder.briefFlag;
+        this.checkFlag       = builder.checkFlag;
+        this.echoFlag        = builder.echoFlag;
+        this.failFastFlag    = builder.failFastFlag;
+        this.finalFlag       = builder.finalFlag;
+        this.hushFlag        = builder.hushFlag;
+        this.muteFlag        = builder.muteFlag;
+        this.timeFlag        = builder.timeFlag;
+        this.incrementalFlag = builder.incrementalFlag;
+        this.profileFlag     = builder.profileFlag;
+        this.recordFlag      = builder.recordFlag;
+        this.pipelineFlag    = builder.pipelineFlag;
+
+        this.parallelCount = builder.parallelCount;
+        this.jarFile       = builder.jarFile;
+        this.metricsFile   = builder.metricsFile;
+        this.cacheLocation = builder.cacheLocation;
+        this.format        = builder.format;
+
+        this.javacOptions = Collections.unmodifiableList(new ArrayList<>(builder.javacOptions));
+
+    }//end constructor
+
+    /**
+     * Create a builder of options, with every option off and no Javac compiler parameters.
+     *
+     * @return Builder - the builder of options.
+     */
+    public static Builder builder() {
+
+        return new Builder();
+
+    }//end builder
+
+    /**
+     * Check if Java source files are compiled in batches sized to the heap.
+     *
+     * @return boolean - true for the -adaptive option.
+     */
+    public boolean isAdaptive() {
+
+        return adaptiveFlag;
+
+    }//end isAdaptive
+
+    /**
+     * Check if all Java source files are compiled in one compilation task.
+     *
+     * @return boolean - true for the -batch option.
+     */
+    public boolean isBatch() {
+
+        return batchFlag;
+
+    }//end isBatch
+
+    /**
+     * Check if only a brief count of compiler diagnostics is reported.
+     *
+     * @return boolean - true for the -brief option.
+     */
+    public boolean isBrief() {
+
+        return briefFlag;
+
+    }//end isBrief
+
+    /**
+     * Check if Java source files are only parsed and analyzed for errors, with no class files written.
+     *
+     * @return boolean - true for the -check option.
+     */
+    public boolean isCheck() {
+
+        return checkFlag;
+
+    }//end isCheck
+
+    /**
+     * Check if the Java compiler parameters and compiler status are printed.
+     *
+     * @return boolean - true for the -echo option.
+     */
+    public boolean isEcho() {
+
+        return echoFlag;
+
+    }//end isEcho
+
+    /**
+     * Check if all compiles stop at the first error diagnostic.
+     *
+     * @return boolean - true for the -failfast option.
+     */
+    public boolean isFailFast() {
+
+        return failFastFlag;
+
+    }//end isFailFast
+
+    /**
+     * Check if the compile is a final release with no debug information.
+     *
+     * @return boolean - true for the -final option.
+     */
+    public boolean isFinal() {
+
+        return finalFlag;
+
+    }//end isFinal
+
+    /**
+     * Check if only compiler diagnostics of errors are reported.
+     *
+     * @return boolean - true for the -hush option.
+     */
+    public boolean isHush() {
+
+        return hushFlag;
+
+    }//end isHush
+
+    /**
+     * Check if no compiler diagnostics are reported.
+     *
+     * @return boolean - true for the -mute option.
+     */
+    public boolean isMute() {
+
+        return muteFlag;
+
+    }//end isMute
+
+    /**
+     * Check if the time to compile each Java source file is reported.
+     *
+     * @return boolean - true for the -time option.
+     */
+    public boolean isTime() {
+
+        return timeFlag;
+
+    }//end isTime
+
+    /**
+     * Check if only the Java source files changed since the last compile are compiled.
+     *
+     * @return boolean - true for the -incremental option.
+     */
+    public boolean isIncremental() {
+
+        return incrementalFlag;
+
+    }//end isIncremental
+
+    /**
+     * Check if the resources used to compile each Java source file are reported.
+     *
+     * @return boolean - true for the -profile option.
+     */
+    public boolean isProfile() {
+
+        return profileFlag;
+
+    }//end isProfile
+
+    /**
+     * Check if the compile is profiled with a JDK Flight Recorder recording written to wejac.jfr.
+     *
+     * @return boolean - true for the -profile=jfr option.
+     */
+    public boolean isFlightRecord() {
+
+        return recordFlag;
+
+    }//end isFlightRecord
+
+    /**
+     * Check if groups of dependent packages are compiled at once against the headers of the other groups.
+     *
+     * @return boolean - true for the -pipeline option.
+     */
+    public boolean isPipeline() {
+
+        return pipelineFlag;
+
+    }//end isPipeline
+
+    /**
+     * Get the number of threads to compile Java source files in parallel.
+     *
+     * @return int - number of threads for the -parallel option, or 0 to compile on the calling thread.
+     */
+    public int getParallelCount() {
+
+        return parallelCount;
+
+    }//end getParallelCount
+
+    /**
+     * Get the jar file to write the classes compiled in memory.
+     *
+     * @return String - the jar file of the -jar option, or null.
+     */
+    public String getJarFile() {
+
+        return jarFile;
+
+    }//end getJarFile
+
+    /**
+     * Get the metrics file to write the metrics of each Java source file.
+     *
+     * @return String - the metrics file of the -metrics option, or null.
+     */
+    public String getMetricsFile() {
+
+        return metricsFile;
+
+    }//end getMetricsFile
+
+    /**
+     * Get the directory or HTTP URL of the shared cache of the class files compiled from Java source files.
+     *
+     * @return String - the cache directory or HTTP URL of the -cache option, or null.
+     */
+    public String getCacheLocation() {
+
+        return cacheLocation;
+
+    }//end getCacheLocation
+
+    /**
+     * Get the format to write the compiler diagnostics to the compiler output.
+     *
+     * @return String - the format json or sarif of the -format option, or null.
+     */
+    public String getFormat() {
+
+        return format;
+
+    }//end getFormat
+
+    /**
+     * Get the Javac compiler parameters passed as-is to the compiler.
+     *
+     * @return List - the Javac compiler parameters of the -javac option.
+     */
+    public List<String> getJavacOptions() {
+
+        return javacOptions;
+
+    }//end getJavacOptions
+
+    /**
+     * Builder of the options of a compile, not safe to share between threads.
+     */
+    public final static class Builder {
+
+        private boolean adaptiveFlag    = false;
+        private boolean batchFlag       = false;
+        private boolean briefFlag       = false;
+        private boolean checkFlag       = false;
+        private boolean echoFlag        = false;
+        private boolean failFastFlag    = false;
+        private boolean finalFlag       = false;
+        private boolean hushFlag        = false;
+        private boolean muteFlag        = false;
+        private boolean timeFlag        = false;
+        private boolean incrementalFlag = false;
+        private boolean profileFlag     = false;
+        private boolean recordFlag      = false;
+        private boolean pipelineFlag    = false;
+
+        private int    parallelCount = 0;
+        private String jarFile       = null;
+        private String metricsFile   = null;
+        private String cacheLocation = null;
+        private String format        = null;
+
+        private final List<String> javacOptions = new ArrayList<>();
+
+        /**
+         * Private constructor for a builder with every option off.
+         */
+        private Builder() {
+        }//end constructor
+
+        /**
+         * Set if Java source files are compiled in batches sized to the heap.
+         *
+         * @param flag     - true for the -adaptive option.
+         * @return Builder - this builder.
+         */
+        public Builder adaptive(final boolean flag) {
+
+            this.adaptiveFlag = flag;
+            return this;
+
+        }//end adaptive
+
+        /**
+         * Set if all Java source files are compiled in one compilation task.
+         *
+         * @param flag     - true for the -batch option.
+         * @return Builder - this builder.
+         */
+        public Builder batch(final boolean flag) {
+
+            this.batchFlag = flag;
+            return this;
+
+        }//end batch
+
+        /**
+         * Set if only a brief count of compiler diagnostics is reported.
+         *
+         * @param flag     - true for the -brief option.
+         * @return Builder - this builder.
+         */
+        public Builder brief(final boolean flag) {
+
+            this.briefFlag = flag;
+            return this;
+
+        }//end brief
+
+        /**
+         * Set if Java source files are only parsed and analyzed for errors, with no class files written.
+         *
+         * @param flag     - true for the -check option.
+         * @return Builder - this builder.
+         */
+        public Builder check(final boolean flag) {
+
+            this.checkFlag = flag;
+            return this;
+
+        }//end check
+
+        /**
+         * Set if the Java compiler parameters and compiler status are printed.
+         *
+         * @param flag     - true for the -echo option.
+         * @return Builder - this builder.
+         */
+        public Builder echo(final boolean flag) {
+
+            this.echoFlag = flag;
+            return this;
+
+        }//end echo
+
+        /**
+         * Set if all compiles stop at the first error diagnostic.
+         *
+         * @param flag     - true for the -failfast option.
+         * @return Builder - this builder.
+         */
+        public Builder failFast(final boolean flag) {
+
+            this.failFastFlag = flag;
+            return this;
+
+        }//end failFast
+
+        /**
+         * Set if the compile is a final release with no debug information.
+         *
+         * @param flag     - true for the -final option.
+         * @return Builder - this builder.
+         */
+        public Builder finalRelease(final boolean flag) {
+
+            this.finalFlag = flag;
+            return this;
+
+        }//end finalRelease
+
+        /**
+         * Set if only compiler diagnostics of errors are reported.
+         *
+         * @param flag     - true for the -hush option.
+         * @return Builder - this builder.
+         */
+        public Builder hush(final boolean flag) {
+
+            this.hushFlag = flag;
+            return this;
+
+        }//end hush
+
+        /**
+         * Set if no compiler diagnostics are reported.
+         *
+         * @param flag     - true for the -mute option.
+         * @return Builder - this builder.
+         */
+        public Builder mute(final boolean flag) {
+
+            this.muteFlag = flag;
+            return this;
+
+        }//end mute
+
+        /**
+         * Set if the time to compile each Java source file is reported.
+         *
+         * @param flag     - true for the -time option.
+         * @return Builder - this builder.
+         */
+        public Builder time(final boolean flag) {
+
+            this.timeFlag = flag;
+            return this;
+
+        }//end time
+
+        /**
+         * Set if only the Java source files changed since the last compile are compiled.
+         *
+         * @param flag     - true for the -incremental option.
+         * @return Builder - this builder.
+         */
+        public Builder incremental(final boolean flag) {
+
+            this.incrementalFlag = flag;
+            return this;
+
+        }//end incremental
+
+        /**
+         * Set if the resources used to compile each Java source file are reported.
+         *
+         * @param flag     - true for the -profile option.
+         * @return Builder - this builder.
+         */
+        public Builder profile(final boolean flag) {
+
+            this.profileFlag = flag;
+            return this;
+
+        }//end profile
+
+        /**
+         * Set if the compile is profiled with a JDK Flight Recorder recording written to wejac.jfr.
+         *
+         * @param flag     - true for the -profile=jfr option.
+         * @return Builder - this builder.
+         */
+        public Builder flightRecord(final boolean flag) {
+
+            this.recordFlag = flag;
+            return this;
+
+        }//end flightRecord
+
+        /**
+         * Set if groups of dependent packages are compiled at once against the headers of the other groups.
+         *
+         * @param flag     - true for the -pipeline option.
+         * @return Builder - this builder.
+         */
+        public Builder pipeline(final boolean flag) {
+
+            this.pipelineFlag = flag;
+            return this;
+
+        }//end pipeline
+
+        /**
+         * Set the number of threads to compile Java source files in parallel.
+         *
+         * @param count    - number of threads of the -parallel option, or 0 to compile on the calling thread.
+         * @return Builder - this builder.
+         */
+        public Builder parallel(final int count) {
+
+            this.parallelCount = count;
+            return this;
+
+        }//end parallel
+
+        /**
+         * Set the jar file to write the classes compiled in memory.
+         *
+         * @param file     - the jar file of the -jar option, or null.
+         * @return Builder - this builder.
+         */
+        public Builder jar(final String file) {
+
+            this.jarFile = file;
+            return this;
+
+        }//end jar
+
+        /**
+         * Set the metrics file to write the metrics of each Java source file.
+         *
+         * @param file     - the metrics file of the -metrics option, or null.
+         * @return Builder - this builder.
+         */
+        public Builder metrics(final String file) {
+
+            this.metricsFile = file;
+            return this;
+
+        }//end metrics
+
+        /**
+         * Set the directory or HTTP URL of the shared cache of the class files compiled from Java source files.
+         *
+         * @param location - the cache directory or HTTP URL of the -cache option, or null.
+         * @return Builder - this builder.
+         */
+        public Builder cache(final String location) {
+
+            this.cacheLocation = location;
+            return this;
+
+        }//end cache
+
+        /**
+         * Set the format to write the compiler diagnostics to the compiler output.
+         *
+         * @param format   - the format json or sarif of the -format option, or null.
+         * @return Builder - this builder.
+         */
+        public Builder format(final String format) {
+
+            this.format = format;
+            return this;
+
+        }//end format
+
+        /**
+         * Add Javac compiler parameters passed as-is to the compiler.
+         *
+         * @param options  - the Javac compiler parameters of the -javac option.
+         * @return Builder - this builder.
+         */
+        public Builder javac(final String... options) {
+
+            this.javacOptions.addAll(Arrays.asList(options));
+            return this;
+
+        }//end javac
+
+        /**
+         * Build the immutable options.
+         *
+         * @return CompilerOptions - the options.
+         * @throws IllegalArgumentException - if more than one of brief, hush, and mute is set, jar and
+         *                                    incremental are both set, adaptive is set with batch or parallel,
+         *                                    cache and incremental are both set, check is set with cache,
+         *                                    incremental, or jar, format is not json or sarif or is set with
+         *                                    brief, echo, mute, profile, or time, pipeline is set with adaptive,
+         *                                    batch, cache, or incremental, or the number of threads is negative.
+         */
+        public CompilerOptions build() {
+
+            if ((briefFlag ? 1 : 0) + (hushFlag ? 1 : 0) + (muteFlag ? 1 : 0) > 1) {
+                throw new IllegalArgumentException(ERROR_REPORTING);
+            }//end if
+
+            if (jarFile != null && incrementalFlag) {
+                throw new IllegalArgumentException(ERROR_JAR);
+            }//end if
+
+            if (adaptiveFlag && (batchFlag || parallelCount > 0)) {
+                throw new IllegalArgumentException(ERROR_ADAPTIVE);
+            }//end if
+
+            if (cacheLocation != null && incrementalFlag) {
+                throw new IllegalArgumentException(ERROR_CACHE);
+            }//end if
+
+            if (checkFlag && (cacheLocation != null || incrementalFlag || jarFile != null)) {
+                throw new IllegalArgumentException(ERROR_CHECK);
+            }//end if
+
+            if (format != null && !DiagnosticFormatter.isFormat(format)) {
+                throw new IllegalArgumentException(String.format(ERROR_FORMAT, format));
+            }//end if
+
+            if (format != null && (briefFlag || echoFlag || muteFlag || timeFlag || profileFlag || recordFlag)) {
+                throw new IllegalArgumentException(ERROR_OUTPUT);
+            }//end if
+
+            if (pipelineFlag && (adaptiveFlag || batchFlag || cacheLocation != null || incrementalFlag)) {
+                throw new IllegalArgumentException(ERROR_PIPELINE);
+            }//end if
+
+            if (parallelCount < 0) {
+                throw new IllegalArgumentException(String.format(ERROR_PARALLEL, parallelCount));
+            }//end if
+
+            return new CompilerOptions(this);
+
+        }//end build
+
+    }//end class Builder
+
+    private final static String ERROR_REPORTING = "Options brief, hush, and mute are ambiguous, only one may be set.";
+    private final static String ERROR_JAR       = "Option jar and in memory compile ambiguous with incremental option.";
+    private final static String ERROR_ADAPTIVE  = "Option adaptive ambiguous with batch and/or parallel option.";
+    private final static String ERROR_CACHE     = "Option cache ambiguous with incremental option.";
+    private final static String ERROR_CHECK     = "Option check ambiguous with cache, incremental, and/or jar option.";
+    private final static String ERROR_FORMAT    = "Option format: '%s' must be json or sarif.";
+    private final static String ERROR_OUTPUT    = "Option format ambiguous with brief, echo, mute, profile, and/or time option.";
+    private final static String ERROR_PIPELINE  = "Option pipeline ambiguous with adaptive, batch, cache, and/or incremental option.";
+    private final static String ERROR_PARALLEL  = "Option parallel: '%d' must be 0 or more threads.";
+
+}//end class CompilerOptions
@@ -0,0 +1,389 @@
+/*
+ * @(#)DependencyTracker.java
+ *
+ * Title: WEJAC - Will's Elided Java Api Compiler.
+ *
+ * Description: A Java compiler task listener that records the types each Java source file declares, depends
+ *     on and extends, and a fingerprint of the API of its declared types.
+ *
+ * @author William F. Gilreath (wfgilreath@yahoo.com)
+ * @version 2.1  6/26/19
+ *
+ * Copyright © 2019 All Rights Reserved.
+ *
+ * License: This software is subject to the terms of the GNU General Public License (GPL)
+ *     version 3.0 available at the following link: http://www.gnu.org/copyleft/gpl.html.
+ *
+ * You must accept the terms of the GNU General Public License (GPL) license agreement
+ *     to use this software.
+ *
+ **/
+package will.wejac;
+
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.ImportTree;
+import com.sun.source.tree.MemberSelectTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.TreePathScanner;
+import com.sun.source.util.Trees;
+
+import java.net.URI;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.element.VariableElement;
+
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.IntersectionType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.UnionType;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.Elements;
+
+final class DependencyTracker implements TaskListener {
+
+    private final Trees    trees;    //trees of the compilation task
+    private final Elements elements; //elements of the compilation task
+
+    private final Map<URI, Set<String>>         types  = new HashMap<>(); //types declared by each source file
+    private final Map<URI, Set<String>>         deps   = new HashMap<>(); //types used by each source file
+    private final Map<URI, Set<String>>         supers = new HashMap<>(); //supertypes of the types of each file
+    private final Map<URI, Map<String, String>> apis   = new HashMap<>(); //API of each type of each source file
+
+    /**
+     * Constructor for a dependency tracker of a compilation task.
+     *
+     * @param task - the compilation task to track.
+     */
+    DependencyTracker(final JavacTask task) {
+
+        this.trees    = Trees.instance(task);
+        this.elements = task.getElements();
+
+    }//end constructor
+
+    @Override
+    public void started(final TaskEvent event) {
+    }//end started
+
+    /**
+     * Record the declared type, its API, its supertypes, and the types it uses when a type of a Java source file
+     * is analyzed.
+     *
+     * @param event - compiler task event of the phase finished.
+     */
+    @Override
+    public void finished(final TaskEvent event) {
+
+        if (event.getKind() != TaskEvent.Kind.ANALYZE || event.getTypeElement() == null
+                || event.getSourceFile() == null) {
+            return;
+        }//end if
+
+        final URI         source = event.getSourceFile().toUri();
+        final TypeElement type   = event.getTypeElement();
+        final String      name   = elements.getBinaryName(type).toString();
+
+        getSet(types, source).add(name);
+
+        Map<String, String> api = apis.get(source);
+
+        if (api == null) {
+            api = new TreeMap<>();
+            apis.put(source, api);
+        }//end if
+
+        api.put(name, this.getApi(type));
+
+        this.addSupers(getSet(supers, source), type);
+
+        final Set<String> used = getSet(deps, source);
+
+        TreePathScanner<Void, Void> scanner = new TreePathScanner<Void, Void>() {
+
+            //the type of each expression and variable is used too, as a type reached through a chained call or an
+            //inferred var type is never named in the Java source file
+            @Override
+            public Void scan(final Tree tree, final Void unused) {
+
+                if (tree instanceof ExpressionTree || tree instanceof VariableTree) {
+                    addUsed(used, trees.getTypeMirror(new TreePath(getCurrentPath(), tree)));
+                }//end if
+
+                return super.scan(tree, unused);
+
+            }//end scan
+
+            @Override
+            public Void visitIdentifier(final IdentifierTree tree, final Void unused) {
+
+                addUsed(used, trees.getElement(getCurrentPath()));
+                return super.visitIdentifier(tree, unused);
+
+            }//end visitIdentifier
+
+            @Override
+            public Void visitMemberSelect(final MemberSelectTree tree, final Void unused) {
+
+                addUsed(used, trees.getElement(getCurrentPath()));
+                return super.visitMemberSelect(tree, unused);
+
+            }//end visitMemberSelect
+
+        };
+
+        TreePath path = trees.getPath(type);
+
+        if (path != null) {
+
+            scanner.scan(path, null);
+
+            for (ImportTree tree : path.getCompilationUnit().getImports()) {
+                scanner.scan(new TreePath(new TreePath(path.getCompilationUnit()), tree), null);
+            }//end for
+
+        }//end if
+
+    }//end finished
+
+    /**
+     * Add the top-level type that declares an element used by a Java source file to the types it uses.
+     *
+     * @param used    - the types used by the Java source file.
+     * @param element - the element used, or null.
+     */
+    private void addUsed(final Set<String> used, final Element element) {
+
+        Element top = element;
+
+        while (top != null && top.getEnclosingElement() != null
+                && !(top.getEnclosingElement() instanceof PackageElement)) {
+            top = top.getEnclosingElement();
+        }//end while
+
+        if (top instanceof TypeElement) {
+            used.add(elements.getBinaryName((TypeElement) top).toString());
+        }//end if
+
+    }//end addUsed
+
+    /**
+     * Add the top-level types that declare a type, its type arguments, and its array component or bounds to the
+     * types used by a Java source file. A type variable adds nothing, as its bounds are named where declared.
+     *
+     * @param used - the types used by the Java source file.
+     * @param type - the type of an expression or variable, or null.
+     */
+    private void addUsed(final Set<String> used, final TypeMirror type) {
+
+        if (type instanceof DeclaredType) {
+
+            addUsed(used, ((DeclaredType) type).asElement());
+
+            for (TypeMirror argument : ((DeclaredType) type).getTypeArguments()) {
+                addUsed(used, argument);
+            }//end for
+
+        } else if (type instanceof ArrayType) {
+            addUsed(used, ((ArrayType) type).getComponentType());
+        } else if (type instanceof WildcardType) {
+            addUsed(used, ((WildcardType) type).getExtendsBound());
+            addUsed(used, ((WildcardType) type).getSuperBound());
+        } else if (type instanceof IntersectionType) {
+            for (TypeMirror bound : ((IntersectionType) type).getBounds()) {
+                addUsed(used, bound);
+            }//end for
+        } else if (type instanceof UnionType) {
+            for (TypeMirror alternative : ((UnionType) type).getAlternatives()) {
+                addUsed(used, alternative);
+            }//end for
+        }//end if
+
+    }//end addUsed
+
+    /**
+     * Add the top-level types that declare the direct supertypes of a type and of its nested types, which pass a
+     * change of their API on to the type as inherited members, bridge methods and overrides.
+     *
+     * @param set  - the supertypes of the types of the Java source file.
+     * @param type - the type element.
+     */
+    private void addSupers(final Set<String> set, final TypeElement type) {
+
+        List<TypeMirror> list = new ArrayList<>(type.getInterfaces());
+        list.add(type.getSuperclass());
+
+        for (TypeMirror supertype : list) {
+            if (supertype instanceof DeclaredType) {
+                addUsed(set, ((DeclaredType) supertype).asElement());
+            }//end if
+        }//end for
+
+        for (Element member : type.getEnclosedElements()) {
+            if (member instanceof TypeElement) {
+                this.addSupers(set, (TypeElement) member);
+            }//end if
+        }//end for
+
+    }//end addSupers
+
+    /**
+     * Get the API of a type as text of the type and its non-private members, including nested types and the
+     * values of constants, which change whenever a dependent type could need to be compiled again.
+     *
+     * @param type    - the type element.
+     * @return String - text of the API of the type.
+     */
+    private String getApi(final TypeElement type) {
+
+        StringBuilder text = new StringBuilder();
+
+        text.append(type.getModifiers()).append(' ').append(type.getKind()).append(' ');
+        text.append(type.getQualifiedName()).append(type.getAnnotationMirrors());
+
+        for (TypeParameterElement param : type.getTypeParameters()) {
+            text.append('<').append(param).append(param.getBounds()).append('>');
+        }//end for
+
+        text.append(" extends ").append(type.getSuperclass());
+        text.append(" implements ").append(type.getInterfaces()).append('\n');
+
+        ArrayList<String> members = new ArrayList<>();
+
+        for (Element member : type.getEnclosedElements()) {
+
+            if (member.getModifiers().contains(Modifier.PRIVATE)) {
+                continue;
+            }//end if
+
+            if (member instanceof TypeElement) {
+                members.add(this.getApi((TypeElement) member));
+                continue;
+            }//end if
+
+            StringBuilder line = new StringBuilder();
+            line.append(member.getModifiers()).append(' ').append(member.getKind()).append(' ');
+            line.append(member.getSimpleName()).append(' ').append(member.asType());
+            line.append(member.getAnnotationMirrors());
+
+            if (member instanceof VariableElement) {
+                line.append(" = ").append(((VariableElement) member).getConstantValue());
+            } else if (member instanceof ExecutableElement) {
+                line.append(" throws ").append(((ExecutableElement) member).getThrownTypes());
+                line.append(" default ").append(((ExecutableElement) member).getDefaultValue());
+            }//end if
+
+            members.add(line.toString());
+
+        }//end for
+
+        Collections.sort(members);
+
+        for (String member : members) {
+            text.append(member).append('\n');
+        }//end for
+
+        return text.toString();
+
+    }//end getApi
+
+    /**
+     * Get the binary names of the types declared by a Java source file.
+     *
+     * @param source - URI of the Java source file.
+     * @return Set   - the binary names of the declared types.
+     */
+    Set<String> getTypes(final URI source) {
+
+        return getSet(types, source);
+
+    }//end getTypes
+
+    /**
+     * Get the binary names of the top-level types used by a Java source file, other than its own types.
+     *
+     * @param source - URI of the Java source file.
+     * @return Set   - the binary names of the used types.
+     */
+    Set<String> getDependencies(final URI source) {
+
+        Set<String> used = new TreeSet<>(getSet(deps, source));
+        used.removeAll(getSet(types, source));
+
+        return used;
+
+    }//end getDependencies
+
+    /**
+     * Get the binary names of the top-level types of the supertypes of the types declared by a Java source file,
+     * other than its own types.
+     *
+     * @param source - URI of the Java source file.
+     * @return Set   - the binary names of the supertypes.
+     */
+    Set<String> getSupertypes(final URI source) {
+
+        Set<String> extended = new TreeSet<>(getSet(supers, source));
+        extended.removeAll(getSet(types, source));
+
+        return extended;
+
+    }//end getSupertypes
+
+    /**
+     * Get the fingerprint of the API of all the types declared by a Java source file.
+     *
+     * @param source  - URI of the Java source file.
+     * @return String - hash of the API of the declared types.
+     */
+    String getFingerprint(final URI source) {
+
+        Map<String, String> api = apis.get(source);
+
+        return BuildManifest.hash(String.valueOf(api).getBytes(StandardCharsets.UTF_8));
+
+    }//end getFingerprint
+
+    /**
+     * Get the set of a Java source file in a map of sets, adding an empty set if missing.
+     *
+     * @param map    - map of a set for each Java source file.
+     * @param source - URI of the Java source file.
+     * @return Set   - the set of the Java source file.
+     */
+    private static Set<String> getSet(final Map<URI, Set<String>> map, final URI source) {
+
+        Set<String> set = map.get(source);
+
+        if (set == null) {
+            set = new TreeSet<>();
+            map.put(source, set);
+        }//end if
+
+        return set;
+
+    }//end getSet
+
+}//end class DependencyTracker
@@ -0,0 +1,118 @@
+/*
+ * @(#)DiagnosticCounter.java
+ *
+ * Title: WEJAC - Will's Elided Java Api Compiler.
+ *
+ * Description: Lock-free counts of each kind of compiler diagnostic of each Java source file, added into the
+ *     counts of the whole compiler run as the diagnostics arrive from concurrent compilation tasks.
+ *
+ * @author William F. Gilreath (wfgilreath@yahoo.com)
+ * @version 2.1  6/26/19
+ *
+ * Copyright © 2019 All Rights Reserved.
+ *
+ * License: This software is subject to the terms of the GNU General Public License (GPL)
+ *     version 3.0 available at the following link: http://www.gnu.org/copyleft/gpl.html.
+ *
+ * You must accept the terms of the GNU General Public License (GPL) license agreement
+ *     to use this software.
+ *
+ **/
+package will.wejac;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import javax.tools.Diagnostic;
+
+final class DiagnosticCounter {
+
+    //0 - error, 1 - mandatory warning, 2 - note, 3 - other, 4 - warning, 5 - total diagnostic
+    final static int COUNTER_ERROR = 0;
+    final static int COUNTER_TOTAL = 5;
+    final static int COUNTER_KINDS = 6;
+
+    private final AtomicIntegerArray counter; //count of each kind of diagnostic of each Java source file
+    private final DiagnosticCounter  total;   //counts of the whole compiler run, or null
+
+    /**
+     * Constructor for the counts of the diagnostics of the Java source files of a compilation task.
+     *
+     * @param count - number of Java source files.
+     * @param total - counts of the whole compiler run each diagnostic is added to, or null.
+     */
+    DiagnosticCounter(final int count, final DiagnosticCounter total) {
+
+        this.counter = new AtomicIntegerArray(count * COUNTER_KINDS);
+        this.total   = total;
+
+    }//end constructor
+
+    /**
+     * Count a diagnostic of a Java source file by its kind, and add it to the counts of the compiler run.
+     *
+     * @param file - index of the Java source file.
+     * @param kind - the kind of diagnostic.
+     */
+    void count(final int file, final Diagnostic.Kind kind) {
+
+        int base = file * COUNTER_KINDS;
+
+        counter.incrementAndGet(base + getIndex(kind));
+        counter.incrementAndGet(base + COUNTER_TOTAL);
+
+        if (total != null) {
+            total.count(0, kind);
+        }//end if
+
+    }//end count
+
+    /**
+     * Get the index of the count of a kind of diagnostic.
+     *
+     * @param kind - the kind of diagnostic.
+     * @return int - index of the count of the kind.
+     */
+    private static int getIndex(final Diagnostic.Kind kind) {
+
+        switch (kind) {
+            case ERROR:             return 0;
+            case MANDATORY_WARNING: return 1;
+            case NOTE:              return 2;
+            case WARNING:           return 4;
+            default:                return 3;
+        }//end switch
+
+    }//end getIndex
+
+    /**
+     * Get the count of a kind of diagnostic of a Java source file.
+     *
+     * @param file - index of the Java source file.
+     * @param kind - index of the kind of diagnostic, or COUNTER_TOTAL for all kinds.
+     * @return int - the count of diagnostics.
+     */
+    int get(final int file, final int kind) {
+
+        return counter.get(file * COUNTER_KINDS + kind);
+
+    }//end get
+
+    /**
+     * Get a snapshot of the count of each kind of diagnostic of a Java source file.
+     *
+     * @param file  - index of the Java source file.
+     * @return int[] - count of each kind of diagnostic and total count of diagnostics.
+     */
+    int[] get(final int file) {
+
+        int[] counts = new int[COUNTER_KINDS];
+
+        for (int x = 0; x < COUNTER_KINDS; x++) {
+            counts[x] = this.get(file, x);
+        }//end for
+
+        return counts;
+
+    }//end get
+
+}//end class DiagnosticCounter
@@ -0,0 +1,325 @@
+/*
+ * @(#)DiagnosticFormatter.java
+ *
+ * Title: WEJAC - Will's Elided Java Api Compiler.
+ *
+ * Description: Compiler diagnostics written as they are reported from their structured fields, as JSON lines or
+ *     as a SARIF log, straight to a buffered stream for tools that read the diagnostics of a compile.
+ *
+ * @author William F. Gilreath (wfgilreath@yahoo.com)
+ * @version 2.1  6/26/19
+ *
+ * Copyright © 2019 All Rights Reserved.
+ *
+ * License: This software is subject to the terms of the GNU General Public License (GPL)
+ *     version 3.0 available at the following link: http://www.gnu.org/copyleft/gpl.html.
+ *
+ * You must accept the terms of the GNU General Public License (GPL) license agreement
+ *     to use this software.
+ *
+ **/
+package will.wejac;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+
+import java.util.Locale;
+
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+final class DiagnosticFormatter {
+
+    final static String FORMAT_JSON  = "json";  //JSON object of each diagnostic on a line of its own
+    final static String FORMAT_SARIF = "sarif"; //SARIF 2.1.0 log of a run with a result of each diagnostic
+
+    private final static int    BUFFER_SIZE = 64 * 1024; //characters buffered before a write to the stream
+    private final static char[] HEX_DIGITS  = "0123456789abcdef".toCharArray();
+
+    private final static String SARIF_BEGIN = "{\"version\":\"2.1.0\","
+                                            + "\"$schema\":\"https://json.schemastore.org/sarif-2.1.0.json\","
+                                            + "\"runs\":[{\"tool\":{\"driver\":{\"name\":\"WEJAC\","
+                                            + "\"informationUri\":\"https://github.com/wgilreath/WEJAC\"}},"
+                                            + "\"results\":[";
+    private final static String SARIF_END   = "]}]}";
+
+    private final Writer  writer;  //buffered writer of the stream of diagnostics
+    private final boolean sarif;   //set to write a SARIF log, else JSON lines
+    private final Locale  locale;  //locale for the message of each diagnostic
+
+    private boolean first = true;  //set until the first result of the SARIF log is written
+
+    /**
+     * Constructor for the diagnostics written in a format to a stream.
+     *
+     * @param format - the format, FORMAT_JSON or FORMAT_SARIF.
+     * @param out    - the stream to write the diagnostics, a PrintStream that never throws.
+     * @param locale - locale for the message of each diagnostic.
+     */
+    DiagnosticFormatter(final String format, final PrintStream out, final Locale locale) {
+
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        this.sarif  = FORMAT_SARIF.equals(format);
+        this.locale = locale;
+
+    }//end constructor
+
+    /**
+     * Check if a format of diagnostics is known.
+     *
+     * @param format   - the format.
+     * @return boolean - true for FORMAT_JSON or FORMAT_SARIF.
+     */
+    static boolean isFormat(final String format) {
+
+        return FORMAT_JSON.equals(format) || FORMAT_SARIF.equals(format);
+
+    }//end isFormat
+
+    /**
+     * Begin the diagnostics of a compiler run, with the start of the SARIF log.
+     */
+    synchronized void begin() {
+
+        try {
+
+            if (sarif) {
+                writer.write(SARIF_BEGIN);
+                first = true;
+            }//end if
+
+        } catch (IOException ex) {
+            //the stream is a PrintStream, which keeps its own error state instead of throwing
+        }//end try
+
+    }//end begin
+
+    /**
+     * Write a diagnostic as it is reported, from its kind, code, position, and message.
+     *
+     * @param fileName   - name of the Java source file of the diagnostic, or null if it has none.
+     * @param diagnostic - the diagnostic reported by javac.
+     */
+    synchronized void write(final String fileName, final Diagnostic<? extends JavaFileObject> diagnostic) {
+
+        try {
+
+            if (sarif) {
+                this.writeResult(fileName, diagnostic);
+            } else {
+                this.writeObject(fileName, diagnostic);
+            }//end if
+
+        } catch (IOException ex) {
+            //the stream is a PrintStream, which keeps its own error state instead of throwing
+        }//end try
+
+    }//end write
+
+    /**
+     * End the diagnostics of a compiler run, with the end of the SARIF log, and flush them to the stream.
+     */
+    synchronized void end() {
+
+        try {
+
+            if (sarif) {
+                writer.write(SARIF_END);
+                writer.write('\n');
+            }//end if
+
+            writer.flush();
+
+        } catch (IOException ex) {
+            //the stream is a PrintStream, which keeps its own error state instead of throwing
+        }//end try
+
+    }//end end
+
+    /**
+     * Flush the diagnostics written so far to the stream, at the end of a compilation task.
+     */
+    synchronized void flush() {
+
+        try {
+            writer.flush();
+        } catch (IOException ex) {
+            //the stream is a PrintStream, which keeps its own error state instead of throwing
+        }//end try
+
+    }//end flush
+
+    /**
+     * Write a diagnostic as a JSON object on a line of its own.
+     *
+     * @param fileName   - name of the Java source file of the diagnostic, or null if it has none.
+     * @param diagnostic - the diagnostic reported by javac.
+     * @throws IOException - if the stream cannot be written.
+     */
+    private void writeObject(final String fileName, final Diagnostic<? extends JavaFileObject> diagnostic)
+            throws IOException {
+
+        writer.write("{\"file\":");
+        this.writeString(fileName);
+        writer.write(",\"kind\":\"");
+        writer.write(diagnostic.getKind().name());
+        writer.write("\",\"code\":");
+        this.writeString(diagnostic.getCode());
+        writer.write(",\"line\":");
+        this.writeNumber(diagnostic.getLineNumber());
+        writer.write(",\"column\":");
+        this.writeNumber(diagnostic.getColumnNumber());
+        writer.write(",\"position\":");
+        this.writeNumber(diagnostic.getPosition());
+        writer.write(",\"start\":");
+        this.writeNumber(diagnostic.getStartPosition());
+        writer.write(",\"end\":");
+        this.writeNumber(diagnostic.getEndPosition());
+        writer.write(",\"message\":");
+        this.writeString(diagnostic.getMessage(locale));
+        writer.write("}\n");
+
+    }//end writeObject
+
+    /**
+     * Write a diagnostic as a result of the SARIF log, with a location if it has a Java source file.
+     *
+     * @param fileName   - name of the Java source file of the diagnostic, or null if it has none.
+     * @param diagnostic - the diagnostic reported by javac.
+     * @throws IOException - if the stream cannot be written.
+     */
+    private void writeResult(final String fileName, final Diagnostic<? extends JavaFileObject> diagnostic)
+            throws IOException {
+
+        writer.write(first ? "\n{\"ruleId\":" : ",\n{\"ruleId\":");
+        this.writeString(diagnostic.getCode());
+        writer.write(",\"level\":\"");
+        writer.write(getLevel(diagnostic.getKind()));
+        writer.write("\",\"message\":{\"text\":");
+        this.writeString(diagnostic.getMessage(locale));
+        writer.write('}');
+
+        if (fileName != null) {
+
+            writer.write(",\"locations\":[{\"physicalLocation\":{\"artifactLocation\":{\"uri\":");
+            this.writeString(Paths.get(fileName).toUri().toString());
+            writer.write('}');
+
+            if (diagnostic.getLineNumber() != Diagnostic.NOPOS) {
+
+                writer.write(",\"region\":{\"startLine\":");
+                this.writeNumber(diagnostic.getLineNumber());
+
+                if (diagnostic.getColumnNumber() != Diagnostic.NOPOS) {
+                    writer.write(",\"startColumn\":");
+                    this.writeNumber(diagnostic.getColumnNumber());
+                }//end if
+
+                if (diagnostic.getStartPosition() != Diagnostic.NOPOS
+                        && diagnostic.getEndPosition() != Diagnostic.NOPOS) {
+
+                    writer.write(",\"charOffset\":");
+                    this.writeNumber(diagnostic.getStartPosition());
+                    writer.write(",\"charLength\":");
+                    this.writeNumber(diagnostic.getEndPosition() - diagnostic.getStartPosition());
+
+                }//end if
+
+                writer.write('}');
+
+            }//end if
+
+            writer.write("}}]");
+
+        }//end if
+
+        writer.write('}');
+
+        first = false;
+
+    }//end writeResult
+
+    /**
+     * Get the SARIF level of a kind of diagnostic.
+     *
+     * @param kind    - the kind of diagnostic.
+     * @return String - the level of a SARIF result.
+     */
+    private static String getLevel(final Diagnostic.Kind kind) {
+
+        switch (kind) {
+            case ERROR:             return "error";
+            case MANDATORY_WARNING: return "warning";
+            case WARNING:           return "warning";
+            default:                return "note";
+        }//end switch
+
+    }//end getLevel
+
+    /**
+     * Write a number, or null for Diagnostic.NOPOS.
+     *
+     * @param value - the number.
+     * @throws IOException - if the stream cannot be written.
+     */
+    private void writeNumber(final long value) throws IOException {
+
+        writer.write(value == Diagnostic.NOPOS ? "null" : Long.toString(value));
+
+    }//end writeNumber
+
+    /**
+     * Write a value as a JSON string, escaped a character at a time with no copy of the value, or null.
+     *
+     * @param value - the value, or null.
+     * @throws IOException - if the stream cannot be written.
+     */
+    private void writeString(final String value) throws IOException {
+
+        if (value == null) {
+            writer.write("null");
+            return;
+        }//end if
+
+        writer.write('"');
+
+        int start = 0;
+
+        for (int x = 0; x < value.length(); x++) {
+
+            char c = value.charAt(x);
+
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }//end if
+
+            writer.write(value, start, x - start);
+            start = x + 1;
+
+            switch (c) {
+                case '"':  writer.write("\\\""); break;
+                case '\\': writer.write("\\\\"); break;
+                case '\n': writer.write("\\n");  break;
+                case '\r': writer.write("\\r");  break;
+                case '\t': writer.write("\\t");  break;
+                default:
+                    writer.write("\\u00");
+                    writer.write(HEX_DIGITS[c >> 4]);
+                    writer.write(HEX_DIGITS[c & 0xF]);
+                    break;
+            }//end switch
+
+        }//end for
+
+        writer.write(value, start, value.length() - start);
+        writer.write('"');
+
+    }//end writeString
+
+}//end class DiagnosticFormatter
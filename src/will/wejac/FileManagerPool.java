@@ -0,0 +1,350 @@
+/*
+ * @(#)FileManagerPool.java
+ *
+ * Title: WEJAC - Will's Elided Java Api Compiler.
+ *
+ * Description: A pool of warm Java compiler file managers reused across compilations in the same process.
+ *
+ * @author William F. Gilreath (wfgilreath@yahoo.com)
+ * @version 2.1  6/26/19
+ *
+ * Copyright © 2019 All Rights Reserved.
+ *
+ * License: This software is subject to the terms of the GNU General Public License (GPL)
+ *     version 3.0 available at the following link: http://www.gnu.org/copyleft/gpl.html.
+ *
+ * You must accept the terms of the GNU General Public License (GPL) license agreement
+ *     to use this software.
+ *
+ **/
+package will.wejac;
+
+import java.io.IOException;
+
+import java.nio.charset.Charset;
+import java.io.File;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+final class FileManagerPool {
+
+    private final static JavaCompiler COMPILER = ToolProvider.getSystemJavaCompiler();
+
+    private final static int POOL_SIZE = 8; //most sets of parameters with idle file managers, least recent closed
+
+    //idle file managers by parameters, in least recently used order, so a daemon or watch mode compiling many
+    //sets of parameters keeps the archives of only the most recent ones open
+    private final static Map<String, Entry> POOL = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+
+            if (this.size() > POOL_SIZE) {
+                eldest.getValue().close();
+                return true;
+            }//end if
+
+            return false;
+
+        }//end removeEldestEntry
+
+    };
+
+    //archive stamp of each file manager in use, to close instead of pool one whose archives changed meanwhile
+    private final static Map<StandardJavaFileManager, String> STAMPS = new ConcurrentHashMap<>();
+
+    //Javac compiler parameters of an output directory, created before a file manager reads its paths
+    private final static List<String> OUTPUT_OPTIONS = Arrays.asList("-d", "-s");
+
+    //Javac compiler parameters of a path of archives a file manager keeps open
+    private final static List<String> CLASS_PATH_OPTIONS = Arrays.asList("-cp", "-classpath", "--class-path");
+    private final static List<String> PATH_OPTIONS       = Arrays.asList("-processorpath", "--processor-path",
+                                                                         "-bootclasspath", "--boot-class-path");
+
+    /**
+     * Idle file managers for one set of parameters, with the size and last modified time of their archives.
+     */
+    private final static class Entry {
+
+        private final Queue<StandardJavaFileManager> queue = new ConcurrentLinkedQueue<>(); //idle file managers
+
+        private String stamp = ""; //size and last modified time of the archives the idle file managers opened
+
+        /**
+         * Close all the idle file managers, whose archives are left for the garbage collector if not closed.
+         */
+        private void close() {
+
+            StandardJavaFileManager file;
+
+            while ((file = queue.poll()) != null) {
+                discard(file);
+            }//end while
+
+        }//end close
+
+    }//end class Entry
+
+    /**
+     * Private constructor to prevent instantiating this class.
+     */
+    private FileManagerPool() {
+    }//end constructor
+
+    /**
+     * Get the system Java compiler shared by all compilations in the process.
+     *
+     * @return JavaCompiler - the system Java compiler.
+     */
+    static JavaCompiler getCompiler() {
+
+        return COMPILER;
+
+    }//end getCompiler
+
+    /**
+     * Acquire a file manager for the Javac compiler parameters, reusing a warm file manager with its opened
+     * archives and cached directory listings when one is idle in the pool.
+     *
+     * @param param   - Javac compiler parameters the file manager is configured with by a compilation task.
+     * @param locale  - locale for formatting file manager diagnostics.
+     * @param charset - character set for decoding Java source files.
+     * @return StandardJavaFileManager - the file manager for exclusive use until released.
+     */
+    static StandardJavaFileManager acquire(final List<String> param, final Locale locale, final Charset charset) {
+
+        String                  stamp = getStamp(param);
+        StandardJavaFileManager file;
+
+        synchronized (POOL) {
+
+            Entry entry = getEntry(param, locale, charset);
+
+            //a pooled file manager keeps an archive open as it was first read, so it serves stale classes once
+            //the archive is rebuilt, and is closed instead of reused
+            if (!entry.stamp.equals(stamp)) {
+                entry.close();
+                entry.stamp = stamp;
+            }//end if
+
+            file = entry.queue.poll();
+
+        }//end synchronized
+
+        if (file == null) {
+
+            //a file manager keeps a path entry missing when first read as missing, so an output directory also on
+            //the class path, which javac creates during the first compile, is created before it is read
+            for (int x = 0; x + 1 < param.size(); x++) {
+
+                if (OUTPUT_OPTIONS.contains(param.get(x))) {
+
+                    try {
+                        Files.createDirectories(Paths.get(param.get(x + 1)));
+                    } catch (IOException | RuntimeException ex) {
+                        //javac reports an output directory it cannot write
+                    }//end try
+
+                }//end if
+
+            }//end for
+
+            file = COMPILER.getStandardFileManager(null, locale, charset);
+
+        }//end if
+
+        STAMPS.put(file, stamp);
+
+        return file;
+
+    }//end acquire
+
+    /**
+     * Release a file manager acquired for the Javac compiler parameters back into the pool for reuse, or close
+     * it if an archive it read changed since it was acquired.
+     *
+     * @param param   - Javac compiler parameters the file manager was acquired for.
+     * @param locale  - locale the file manager was acquired for.
+     * @param charset - character set the file manager was acquired for.
+     * @param file    - the file manager to release.
+     * @throws IOException - if the output of the file manager cannot be flushed.
+     */
+    static void release(final List<String> param, final Locale locale, final Charset charset,
+                        final StandardJavaFileManager file) throws IOException {
+
+        file.flush();
+
+        String stamp = STAMPS.remove(file);
+
+        if (stamp == null || !stamp.equals(getStamp(param))) {
+            discard(file);
+            return;
+        }//end if
+
+        synchronized (POOL) {
+
+            Entry entry = getEntry(param, locale, charset);
+
+            if (entry.stamp.equals(stamp)) {
+                entry.queue.offer(file);
+                return;
+            }//end if
+
+        }//end synchronized
+
+        discard(file);
+
+    }//end release
+
+    /**
+     * Close a file manager acquired for a compile that failed with an exception, instead of releasing it into the
+     * pool, as its state after the exception is unknown.
+     *
+     * @param file - the file manager to close.
+     */
+    static void discard(final StandardJavaFileManager file) {
+
+        STAMPS.remove(file);
+
+        try {
+            file.close();
+        } catch (IOException ex) {
+            //the file manager is not used again, so its archives are left for the garbage collector to close
+        }//end try
+
+    }//end discard
+
+    /**
+     * Close and remove all the idle file managers in the pool, so the next compilation starts with a cold file
+     * manager as the first compilation in the process does.
+     *
+     * @throws IOException - if an idle file manager cannot be closed.
+     */
+    static void clear() throws IOException {
+
+        synchronized (POOL) {
+
+            for (Entry entry : POOL.values()) {
+
+                StandardJavaFileManager file;
+
+                while ((file = entry.queue.poll()) != null) {
+                    file.close();
+                }//end while
+
+            }//end for
+
+            POOL.clear();
+
+        }//end synchronized
+
+    }//end clear
+
+    /**
+     * Get the idle file managers for the Javac compiler parameters, locale, and character set, while holding the
+     * lock of the pool.
+     *
+     * @param param   - Javac compiler parameters of the file managers.
+     * @param locale  - locale of the file managers.
+     * @param charset - character set of the file managers.
+     * @return Entry  - the idle file managers.
+     */
+    private static Entry getEntry(final List<String> param, final Locale locale, final Charset charset) {
+
+        StringBuilder key = new StringBuilder();
+
+        for (String option : param) {
+            key.append(option).append('\0');
+        }//end for
+
+        key.append(locale).append('\0').append(charset.name());
+
+        return POOL.computeIfAbsent(key.toString(), name -> new Entry());
+
+    }//end getEntry
+
+    /**
+     * Get the size and last modified time of each archive on the paths of the Javac compiler parameters, or on
+     * the CLASSPATH environment variable when no class path is given.
+     *
+     * @param param   - Javac compiler parameters.
+     * @return String - the stamp of the archives, equal until an archive is changed.
+     */
+    private static String getStamp(final List<String> param) {
+
+        StringBuilder stamp     = new StringBuilder();
+        boolean       classPath = false;
+
+        for (int x = 0; x + 1 < param.size(); x++) {
+
+            if (CLASS_PATH_OPTIONS.contains(param.get(x)) || PATH_OPTIONS.contains(param.get(x))) {
+
+                classPath |= CLASS_PATH_OPTIONS.contains(param.get(x));
+                addStamp(stamp, param.get(x + 1));
+
+            }//end if
+
+        }//end for
+
+        if (!classPath) {
+            addStamp(stamp, System.getenv("CLASSPATH"));
+        }//end if
+
+        return stamp.toString();
+
+    }//end getStamp
+
+    /**
+     * Add the size and last modified time of each archive on a path to a stamp.
+     *
+     * @param stamp - the stamp of the archives.
+     * @param path  - the path of directories and archives, or null.
+     */
+    private static void addStamp(final StringBuilder stamp, final String path) {
+
+        if (path == null) {
+            return;
+        }//end if
+
+        for (String element : path.split(File.pathSeparator)) {
+
+            try {
+
+                Path archive = Paths.get(element);
+
+                if (Files.isRegularFile(archive)) {
+
+                    BasicFileAttributes attrs = Files.readAttributes(archive, BasicFileAttributes.class);
+                    stamp.append(element).append('\0').append(attrs.size()).append('\0')
+                         .append(attrs.lastModifiedTime().toMillis()).append('\0');
+
+                }//end if
+
+            } catch (IOException | RuntimeException ex) {
+                stamp.append(element).append('\0');
+            }//end try
+
+        }//end for
+
+    }//end addStamp
+
+}//end class FileManagerPool
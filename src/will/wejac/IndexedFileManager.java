@@ -0,0 +1,504 @@
+/*
+ * @(#)IndexedFileManager.java
+ *
+ * Title: WEJAC - Will's Elided Java Api Compiler.
+ *
+ * Description: A forwarding file manager that lists the packages of the class path from the persistent index
+ *     of each class path archive, instead of opening and scanning every archive.
+ *
+ * @author William F. Gilreath (wfgilreath@yahoo.com)
+ * @version 2.1  6/26/19
+ *
+ * Copyright © 2019 All Rights Reserved.
+ *
+ * License: This software is subject to the terms of the GNU General Public License (GPL)
+ *     version 3.0 available at the following link: http://www.gnu.org/copyleft/gpl.html.
+ *
+ * You must accept the terms of the GNU General Public License (GPL) license agreement
+ *     to use this software.
+ *
+ **/
+package will.wejac;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+
+import java.net.URI;
+
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+
+final class IndexedFileManager extends ForwardingJavaFileManager<JavaFileManager> {
+
+    private final StandardJavaFileManager standard; //the standard file manager with the class path
+    private final Charset                 charset;  //character set for decoding Java source files
+    private final int                     release;  //release compiled for, to select multi-release entries
+
+    private List<Object> elements = null;  //index of each archive and path of each directory of the class path
+    private boolean      indexed  = false; //set when the class path is listed from the index
+
+    /**
+     * Constructor for a file manager listing the class path from the index of its archives.
+     *
+     * @param file     - the file manager to forward to.
+     * @param standard - the standard file manager configured with the class path of the compilation task.
+     * @param charset  - character set for decoding Java source files.
+     * @param param    - Javac compiler parameters of the compilation task, with any release or target.
+     */
+    IndexedFileManager(final JavaFileManager file, final StandardJavaFileManager standard, final Charset charset,
+                       final List<String> param) {
+
+        super(file);
+
+        this.standard = standard;
+        this.charset  = charset;
+        this.release  = getRelease(param);
+
+    }//end constructor
+
+    /**
+     * Get the release compiled for from the --release or target Javac compiler parameter, or else the release
+     * of the running Java platform, as Javac does to select the entries of multi-release archives.
+     *
+     * @param param - Javac compiler parameters.
+     * @return int  - the release compiled for.
+     */
+    private static int getRelease(final List<String> param) {
+
+        String version = System.getProperty("java.specification.version");
+
+        for (int x = 0; x + 1 < param.size(); x++) {
+
+            String option = param.get(x);
+
+            if (option.equals("--release")) {
+                version = param.get(x + 1);
+                break;
+            } else if (option.equals("-target") || option.equals("--target")) {
+                version = param.get(x + 1);
+            }//end if
+
+        }//end for
+
+        try {
+            return Integer.parseInt(version.startsWith("1.") ? version.substring(2) : version);
+        } catch (NumberFormatException ex) {
+            return Integer.MAX_VALUE;
+        }//end try
+
+    }//end getRelease
+
+    /**
+     * List the files of a package of the class path from the index of each archive and the listing of each
+     * directory, in class path order so the first class found is the one compiled against.
+     *
+     * @param location    - location to list.
+     * @param packageName - name of the package.
+     * @param kinds       - kinds of files to list.
+     * @param recurse     - set to list the subpackages too.
+     * @return Iterable   - the files of the package.
+     * @throws IOException - if a directory or archive cannot be read.
+     */
+    @Override
+    public Iterable<JavaFileObject> list(final Location location, final String packageName,
+                                         final Set<JavaFileObject.Kind> kinds, final boolean recurse)
+            throws IOException {
+
+        if (location != StandardLocation.CLASS_PATH || !this.isIndexed()) {
+            return super.list(location, packageName, kinds, recurse);
+        }//end if
+
+        //the classes compiled in memory in the run are found before the class path
+        List<JavaFileObject> files = fileManager instanceof OutputFileManager
+                                   ? ((OutputFileManager) fileManager).getMemoryClasses(packageName, kinds, recurse)
+                                   : new ArrayList<JavaFileObject>();
+
+        for (Object element : elements) {
+
+            if (element instanceof ArchiveIndex) {
+                this.listArchive((ArchiveIndex) element, packageName, kinds, recurse, files);
+            } else {
+                this.listDirectory((Path) element, packageName, kinds, recurse, files);
+            }//end if
+
+        }//end for
+
+        return files;
+
+    }//end list
+
+    /**
+     * Infer the binary name of a file, which an indexed file knows from the package it was listed for.
+     *
+     * @param location - location of the file.
+     * @param file     - the file.
+     * @return String  - the binary name of the file.
+     */
+    @Override
+    public String inferBinaryName(final Location location, final JavaFileObject file) {
+
+        if (file instanceof IndexedFile) {
+            return ((IndexedFile) file).binaryName;
+        }//end if
+
+        return super.inferBinaryName(location, file);
+
+    }//end inferBinaryName
+
+    /**
+     * Check if two files are the same file, comparing indexed files by URI.
+     *
+     * @param a        - a file.
+     * @param b        - another file.
+     * @return boolean - true if the files are the same file.
+     */
+    @Override
+    public boolean isSameFile(final FileObject a, final FileObject b) {
+
+        if (a instanceof IndexedFile || b instanceof IndexedFile) {
+            return a.toUri().equals(b.toUri());
+        }//end if
+
+        return super.isSameFile(a, b);
+
+    }//end isSameFile
+
+    /**
+     * Check if the class path is listed from the index, indexing its archives on the first check. The class path
+     * is not listed from the index when it has no archive, or an archive cannot be indexed, so the standard file
+     * manager lists it instead.
+     *
+     * @return boolean - true if the class path is listed from the index.
+     */
+    private boolean isIndexed() {
+
+        if (elements != null) {
+            return indexed;
+        }//end if
+
+        elements = new ArrayList<>();
+
+        Iterable<? extends File> path = standard.getLocation(StandardLocation.CLASS_PATH);
+
+        if (path == null) {
+            return indexed;
+        }//end if
+
+        boolean archives = false;
+
+        try {
+
+            for (File entry : path) {
+
+                if (entry.isDirectory()) {
+                    elements.add(entry.toPath());
+                } else if (entry.isFile()) {
+
+                    elements.add(ArchiveIndex.get(entry.toPath()));
+                    archives = true;
+
+                }//end if
+
+            }//end for
+
+        } catch (IOException ex) {
+            return indexed;
+        }//end try
+
+        indexed = archives;
+
+        return indexed;
+
+    }//end isIndexed
+
+    /**
+     * List the files of a package of an archive from its index.
+     *
+     * @param index       - index of the archive.
+     * @param packageName - name of the package.
+     * @param kinds       - kinds of files to list.
+     * @param recurse     - set to list the subpackages too.
+     * @param files       - list to add the files of the package.
+     */
+    private void listArchive(final ArchiveIndex index, final String packageName, final Set<JavaFileObject.Kind> kinds,
+                             final boolean recurse, final List<JavaFileObject> files) {
+
+        List<String> packageNames = new ArrayList<>();
+
+        if (recurse) {
+
+            for (String name : index.getPackages()) {
+                if (name.equals(packageName) || packageName.isEmpty() || name.startsWith(packageName + ".")) {
+                    packageNames.add(name);
+                }//end if
+            }//end for
+
+        } else {
+            packageNames.add(packageName);
+        }//end if
+
+        for (String name : packageNames) {
+
+            for (Map.Entry<String, String> entry : index.getEntries(name, release).entrySet()) {
+
+                JavaFileObject.Kind kind = getKind(entry.getKey());
+
+                if (kinds.contains(kind)) {
+                    files.add(new IndexedFile(index, null, entry.getValue(), getBinaryName(name, entry.getKey()),
+                                              kind, charset));
+                }//end if
+
+            }//end for
+
+        }//end for
+
+    }//end listArchive
+
+    /**
+     * List the files of a package of a directory.
+     *
+     * @param root        - the directory of the class path.
+     * @param packageName - name of the package.
+     * @param kinds       - kinds of files to list.
+     * @param recurse     - set to list the subpackages too.
+     * @param files       - list to add the files of the package.
+     * @throws IOException - if the directory cannot be read.
+     */
+    private void listDirectory(final Path root, final String packageName, final Set<JavaFileObject.Kind> kinds,
+                               final boolean recurse, final List<JavaFileObject> files) throws IOException {
+
+        Path dir = packageName.isEmpty() ? root : root.resolve(packageName.replace('.', File.separatorChar));
+
+        if (!Files.isDirectory(dir)) {
+            return;
+        }//end if
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+
+            for (Path entry : stream) {
+
+                String fileName = entry.getFileName().toString();
+
+                if (Files.isDirectory(entry)) {
+
+                    if (recurse) {
+                        this.listDirectory(root, packageName.isEmpty() ? fileName : packageName + "." + fileName,
+                                           kinds, true, files);
+                    }//end if
+
+                    continue;
+
+                }//end if
+
+                JavaFileObject.Kind kind = getKind(fileName);
+
+                if (kinds.contains(kind)) {
+                    files.add(new IndexedFile(null, entry, fileName, getBinaryName(packageName, fileName), kind,
+                                              charset));
+                }//end if
+
+            }//end for
+
+        }//end try
+
+    }//end listDirectory
+
+    /**
+     * Get the kind of a file from its file name extension.
+     *
+     * @param fileName - the file name.
+     * @return Kind    - the kind of the file.
+     */
+    private static JavaFileObject.Kind getKind(final String fileName) {
+
+        for (JavaFileObject.Kind kind : JavaFileObject.Kind.values()) {
+            if (kind != JavaFileObject.Kind.OTHER && fileName.endsWith(kind.extension)) {
+                return kind;
+            }//end if
+        }//end for
+
+        return JavaFileObject.Kind.OTHER;
+
+    }//end getKind
+
+    /**
+     * Get the binary name of a file of a package, which is the file name without its extension.
+     *
+     * @param packageName - name of the package.
+     * @param fileName    - the file name.
+     * @return String     - the binary name.
+     */
+    private static String getBinaryName(final String packageName, final String fileName) {
+
+        int    dot        = fileName.lastIndexOf('.');
+        String simpleName = dot < 0 ? fileName : fileName.substring(0, dot);
+
+        return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+
+    }//end getBinaryName
+
+    /**
+     * File listed from the index of an archive or a directory of the class path.
+     */
+    private final static class IndexedFile implements JavaFileObject {
+
+        private final ArchiveIndex index;      //index of the archive of the file, or null
+        private final Path         path;       //path of the file in a directory, or null
+        private final String       entryName;  //name of the entry in the archive, or the file name
+        private final String       binaryName; //binary name of the class, Java source, or other file
+        private final Kind         kind;       //kind of the file
+        private final Charset      charset;    //character set for decoding a Java source file
+
+        /**
+         * Constructor for a file listed from the index of an archive or a directory.
+         *
+         * @param index      - index of the archive of the file, or null.
+         * @param path       - path of the file in a directory, or null.
+         * @param entryName  - name of the entry in the archive, or the file name.
+         * @param binaryName - binary name of the file.
+         * @param kind       - kind of the file.
+         * @param charset    - character set for decoding a Java source file.
+         */
+        IndexedFile(final ArchiveIndex index, final Path path, final String entryName, final String binaryName,
+                    final Kind kind, final Charset charset) {
+
+            this.index      = index;
+            this.path       = path;
+            this.entryName  = entryName;
+            this.binaryName = binaryName;
+            this.kind       = kind;
+            this.charset    = charset;
+
+        }//end constructor
+
+        @Override
+        public Kind getKind() {
+            return kind;
+        }//end getKind
+
+        @Override
+        public boolean isNameCompatible(final String simpleName, final Kind fileKind) {
+
+            String fileName = entryName.substring(entryName.lastIndexOf('/') + 1);
+
+            return fileKind == kind && fileName.equals(simpleName + kind.extension);
+
+        }//end isNameCompatible
+
+        @Override
+        public NestingKind getNestingKind() {
+            return null;
+        }//end getNestingKind
+
+        @Override
+        public Modifier getAccessLevel() {
+            return null;
+        }//end getAccessLevel
+
+        @Override
+        public URI toUri() {
+
+            return index == null ? path.toUri() : URI.create("jar:" + index.getArchive().toUri() + "!/" + entryName);
+
+        }//end toUri
+
+        @Override
+        public String getName() {
+
+            return index == null ? path.toString() : index.getArchive() + "(" + entryName + ")";
+
+        }//end getName
+
+        @Override
+        public InputStream openInputStream() throws IOException {
+
+            return index == null ? Files.newInputStream(path) : index.open(entryName);
+
+        }//end openInputStream
+
+        @Override
+        public OutputStream openOutputStream() {
+            throw new UnsupportedOperationException(this.getName());
+        }//end openOutputStream
+
+        @Override
+        public Reader openReader(final boolean ignoreEncodingErrors) throws IOException {
+
+            return kind == Kind.SOURCE ? new StringReader(this.getCharContent(ignoreEncodingErrors).toString())
+                                       : new InputStreamReader(this.openInputStream(), charset);
+
+        }//end openReader
+
+        @Override
+        public CharSequence getCharContent(final boolean ignoreEncodingErrors) throws IOException {
+
+            try (InputStream in = this.openInputStream()) {
+
+                ByteArrayOutputStream bytes  = new ByteArrayOutputStream();
+                byte[]                buffer = new byte[8192];
+                int                   count;
+
+                while ((count = in.read(buffer)) > 0) {
+                    bytes.write(buffer, 0, count);
+                }//end while
+
+                return new String(bytes.toByteArray(), charset);
+
+            }//end try
+
+        }//end getCharContent
+
+        @Override
+        public Writer openWriter() {
+            throw new UnsupportedOperationException(this.getName());
+        }//end openWriter
+
+        @Override
+        public long getLastModified() {
+
+            try {
+                return index == null ? Files.getLastModifiedTime(path).toMillis()
+                                     : Files.getLastModifiedTime(index.getArchive()).toMillis();
+            } catch (IOException ex) {
+                return 0L;
+            }//end try
+
+        }//end getLastModified
+
+        @Override
+        public boolean delete() {
+            return false;
+        }//end delete
+
+        @Override
+        public String toString() {
+            return this.getName();
+        }//end toString
+
+    }//end class IndexedFile
+
+}//end class IndexedFileManager
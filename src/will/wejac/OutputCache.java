@@ -0,0 +1,723 @@
+/*
+ * @(#)OutputCache.java
+ *
+ * Title: WEJAC - Will's Elided Java Api Compiler.
+ *
+ * Description: A content-addressed cache of the class files compiled by each compilation task, in a directory
+ *     or on an HTTP server, shared by compiles of the same Java source files in different checkouts.
+ *
+ * @author William F. Gilreath (wfgilreath@yahoo.com)
+ * @version 2.1  6/26/19
+ *
+ * Copyright © 2019 All Rights Reserved.
+ *
+ * License: This software is subject to the terms of the GNU General Public License (GPL)
+ *     version 3.0 available at the following link: http://www.gnu.org/copyleft/gpl.html.
+ *
+ * You must accept the terms of the GNU General Public License (GPL) license agreement
+ *     to use this software.
+ *
+ **/
+package will.wejac;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.lang.model.SourceVersion;
+
+import javax.tools.JavaFileObject;
+
+final class OutputCache {
+
+    private final static int    ENTRY_MAGIC  = 0x57454A43; //magic number of a cache entry, WEJC
+    private final static int    ENTRY_FORMAT = 1;          //format version of a cache entry
+    private final static String HTTP_PREFIX  = "http://";  //prefix of a cache on an HTTP server
+    private final static String ARCHIVE_EXT  = ".jar";     //extension of an archive in a class path directory
+    private final static int    HTTP_TIMEOUT = 5000;       //milliseconds to connect to or read from the server
+
+    //Javac compiler parameters with an output directory or class path value, left out of the key
+    private final static List<String> PATH_OPTIONS = Arrays.asList("-d", "-s", "-h", "-cp", "-classpath",
+                                                                   "--class-path");
+    private final static int          PATH_CLASS   = 3; //index of the first class path option
+
+    //Javac compiler parameters with a processor path value, left out of the key as its content is hashed
+    private final static List<String> PROCESSOR_OPTIONS = Arrays.asList("-processorpath", "--processor-path");
+
+    //Javac compiler parameters with a source path value, left out of the key as its content is hashed
+    private final static List<String> SOURCE_OPTIONS    = Arrays.asList("-sourcepath", "--source-path");
+
+    //hash of each class path file by its path, size, and modified time, for the compiles of the process
+    private final static ConcurrentMap<String, String> FILE_HASHES = new ConcurrentHashMap<>();
+
+    private final String location; //directory or HTTP URL of the cache
+    private final Path   dir;      //directory of the cache, or null for an HTTP server
+
+    private final AtomicInteger hits   = new AtomicInteger(); //count of compilation tasks restored
+    private final AtomicInteger misses = new AtomicInteger(); //count of compilation tasks compiled
+
+    private String config = null; //hash of the JDK version, Javac compiler parameters, paths, and all sources
+
+    /**
+     * Constructor for a cache in a directory, or on an HTTP server for a location starting with http://.
+     *
+     * @param location - directory or HTTP URL of the cache.
+     */
+    OutputCache(final String location) {
+
+        this.location = location.endsWith("/") ? location.substring(0, location.length() - 1) : location;
+        this.dir      = location.startsWith(HTTP_PREFIX) ? null : Paths.get(location);
+
+    }//end constructor
+
+    /**
+     * Get the key of a compilation task as the hash of the JDK version, the Javac compiler parameters except
+     * output directories, the content of the class path, source path and processor path, the name and content of
+     * every Java source file of the run, and the file name and content of each Java source file of the task. A
+     * compilation task compiles against the other Java source files of the run, so a change to any of them is a
+     * new key, and no class file compiled against an old API of another file is restored.
+     *
+     * @param fileNames - names of the Java source files of the compilation task.
+     * @param sources   - names of all the Java source files of the compiler run.
+     * @param param     - Javac compiler parameters implicit and explicit.
+     * @return String   - the key of the compilation task.
+     * @throws IOException - if a Java source file or the class path cannot be read.
+     */
+    String getKey(final List<String> fileNames, final List<String> sources, final List<String> param)
+            throws IOException {
+
+        StringBuilder text = new StringBuilder(this.getConfig(sources, param));
+
+        for (String fileName : fileNames) {
+
+            Path path = Paths.get(fileName);
+
+            text.append('\0').append(path.getFileName()).append('\0');
+            text.append(BuildManifest.hash(Files.readAllBytes(path)));
+
+        }//end for
+
+        return BuildManifest.hash(text.toString().getBytes(StandardCharsets.UTF_8));
+
+    }//end getKey
+
+    /**
+     * Restore the class files of a compilation task from the cache, into the output directory or next to each
+     * Java source file as javac writes them, or into the map of classes compiled in memory.
+     *
+     * @param key       - the key of the compilation task.
+     * @param fileNames - names of the Java source files of the compilation task.
+     * @param param     - Javac compiler parameters implicit and explicit.
+     * @param classes   - map to put the bytecode of each class by binary name, or null to write to disk.
+     * @return boolean  - true if the class files were restored, false if not in the cache.
+     * @throws IOException - if a class file cannot be written.
+     */
+    boolean restore(final String key, final List<String> fileNames, final List<String> param,
+                    final Map<String, byte[]> classes) throws IOException {
+
+        byte[] entry = this.read(key);
+
+        if (entry == null) {
+            misses.incrementAndGet();
+            return false;
+        }//end if
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(entry));
+
+        if (in.readInt() != ENTRY_MAGIC || in.readInt() != ENTRY_FORMAT || in.readInt() != fileNames.size()) {
+            misses.incrementAndGet();
+            return false;
+        }//end if
+
+        int  count  = in.readInt();
+        int  pos    = param.lastIndexOf("-d");
+        Path output = pos >= 0 && pos + 1 < param.size() ? Paths.get(param.get(pos + 1)).toAbsolutePath().normalize()
+                                                         : null;
+
+        Map<Path, byte[]>   files   = new LinkedHashMap<>();  //each class file to write, once all are valid
+        Map<String, byte[]> entries = new LinkedHashMap<>(); //bytecode of each class, once all are valid
+
+        for (int x = 0; x < count; x++) {
+
+            int    source    = in.readInt();
+            String className = in.readUTF();
+            byte[] bytes     = new byte[in.readInt()];
+
+            in.readFully(bytes);
+
+            //an entry shared by others, or from a server, with a class name that is not a binary name is a miss
+            if (!isBinaryName(className) || source < 0 || source >= fileNames.size()) {
+                misses.incrementAndGet();
+                return false;
+            }//end if
+
+            entries.put(className, bytes);
+
+            if (classes != null) {
+                continue;
+            }//end if
+
+            Path dir       = output != null ? output
+                                            : Paths.get(fileNames.get(source)).toAbsolutePath().normalize().getParent();
+            Path classFile = output != null
+                           ? output.resolve(className.replace('.', File.separatorChar)
+                                            + JavaFileObject.Kind.CLASS.extension).normalize()
+                           : dir.resolve(className.substring(className.lastIndexOf('.') + 1)
+                                         + JavaFileObject.Kind.CLASS.extension).normalize();
+
+            if (!classFile.startsWith(dir)) {
+                misses.incrementAndGet();
+                return false;
+            }//end if
+
+            files.put(classFile, bytes);
+
+        }//end for
+
+        if (classes != null) {
+            classes.putAll(entries);
+        }//end if
+
+        for (Map.Entry<Path, byte[]> file : files.entrySet()) {
+
+            Files.createDirectories(file.getKey().getParent());
+            Files.write(file.getKey(), file.getValue());
+
+        }//end for
+
+        hits.incrementAndGet();
+
+        return true;
+
+    }//end restore
+
+    /**
+     * Check if a class name of a cache entry is a binary name, each of its names separated by a dot a Java name, so
+     * its class file is in the output directory, or beside its Java source file.
+     *
+     * @param className - the class name of the cache entry.
+     * @return boolean  - true if the class name is a binary name.
+     */
+    private static boolean isBinaryName(final String className) {
+
+        for (String name : className.split("\\.", -1)) {
+
+            //a nested class is named after its outer class with $, which is part of a Java name
+            if (!SourceVersion.isName(name)) {
+                return false;
+            }//end if
+
+        }//end for
+
+        return true;
+
+    }//end isBinaryName
+
+    /**
+     * Store the class files compiled by a compilation task in the cache. A cache that cannot be written is
+     * skipped, as the class files are already compiled.
+     *
+     * @param key     - the key of the compilation task.
+     * @param sources - URI of each Java source file of the compilation task, in order.
+     * @param output  - file manager with the class files output by the compilation task.
+     * @throws IOException - if a class file cannot be read.
+     */
+    void store(final String key, final List<URI> sources, final OutputFileManager output) throws IOException {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+
+            List<byte[]> entries = new ArrayList<>();
+
+            for (int x = 0; x < sources.size(); x++) {
+
+                List<JavaFileObject> files = output.getOutputs(sources.get(x));
+                List<String>         names = output.getClassNames(sources.get(x));
+
+                for (int y = 0; y < files.size(); y++) {
+
+                    ByteArrayOutputStream entry = new ByteArrayOutputStream();
+
+                    try (DataOutputStream data = new DataOutputStream(entry);
+                         InputStream in = files.get(y).openInputStream()) {
+
+                        data.writeInt(x);
+                        data.writeUTF(names.get(y));
+
+                        byte[] classFile = readAll(in);
+
+                        data.writeInt(classFile.length);
+                        data.write(classFile);
+
+                    }//end try
+
+                    entries.add(entry.toByteArray());
+
+                }//end for
+
+            }//end for
+
+            out.writeInt(ENTRY_MAGIC);
+            out.writeInt(ENTRY_FORMAT);
+            out.writeInt(sources.size());
+            out.writeInt(entries.size());
+
+            for (byte[] entry : entries) {
+                out.write(entry);
+            }//end for
+
+        }//end try
+
+        try {
+            this.write(key, bytes.toByteArray());
+        } catch (IOException ex) {
+            //the class files are compiled, so a cache that cannot be written is only a lost hit for later
+        }//end try
+
+    }//end store
+
+    /**
+     * Get the count of compilation tasks restored from the cache.
+     *
+     * @return int - count of cache hits.
+     */
+    int getHits() {
+
+        return hits.get();
+
+    }//end getHits
+
+    /**
+     * Get the count of compilation tasks compiled as not in the cache.
+     *
+     * @return int - count of cache misses.
+     */
+    int getMisses() {
+
+        return misses.get();
+
+    }//end getMisses
+
+    /**
+     * Get the hash of the JDK version, the Javac compiler parameters except output directories and paths, the
+     * content of the class path, source path and processor path, and the name and content of every Java source
+     * file of the run in name order, computed once for the compiler run. The paths are hashed as they are at the
+     * start of the run, so a run from the same start compiles the same classes. The output directories of javac
+     * and the cache directory are left out of the class path, as their class files are written by the compiles
+     * and not inputs of them. The class path is hashed only when given by -cp or CLASSPATH.
+     *
+     * @param sources - names of all the Java source files of the compiler run.
+     * @param param   - Javac compiler parameters implicit and explicit.
+     * @return String - the hash of the compiler configuration.
+     * @throws IOException - if a Java source file or the class path cannot be read.
+     */
+    private synchronized String getConfig(final List<String> sources, final List<String> param)
+            throws IOException {
+
+        if (config != null) {
+            return config;
+        }//end if
+
+        StringBuilder text = new StringBuilder();
+
+        text.append(System.getProperty("java.vendor")).append('\0');
+        text.append(System.getProperty("java.version")).append('\0');
+
+        String    classPath     = System.getenv("CLASSPATH"); //null for the working directory as no class path given
+        String    processorPath = null;
+        String    sourcePath    = null;
+        Set<Path> outputs       = new HashSet<>(); //absolute output directories left out of the class path
+
+        if (dir != null) {
+            outputs.add(dir.toAbsolutePath().normalize());
+        }//end if
+
+        for (int x = 0; x < param.size(); x++) {
+
+            text.append(param.get(x)).append('\0');
+
+            if (PATH_OPTIONS.contains(param.get(x)) && x + 1 < param.size()) {
+
+                if (PATH_OPTIONS.indexOf(param.get(x)) >= PATH_CLASS) {
+                    classPath = param.get(x + 1);
+                } else {
+                    outputs.add(Paths.get(param.get(x + 1)).toAbsolutePath().normalize());
+                }//end if
+
+                x++;
+
+            } else if (PROCESSOR_OPTIONS.contains(param.get(x)) && x + 1 < param.size()) {
+
+                processorPath = param.get(x + 1);
+                x++;
+
+            } else if (SOURCE_OPTIONS.contains(param.get(x)) && x + 1 < param.size()) {
+
+                sourcePath = param.get(x + 1);
+                x++;
+
+            }//end if
+
+        }//end for
+
+        //the working directory of no class path given is the source tree, whose Java source files of the run are
+        //hashed, so it is not walked for every change of an unrelated file, such as of a version control directory
+        text.append(classPath == null ? "-" : hashPath(classPath, outputs));
+
+        if (processorPath != null) {
+            text.append('\0').append(hashPath(processorPath, outputs));
+        }//end if
+
+        if (sourcePath != null) {
+            text.append('\0').append(hashPath(sourcePath, outputs));
+        }//end if
+
+        List<String> names = new ArrayList<>(sources);
+        Collections.sort(names);
+
+        for (String name : names) {
+            text.append('\0').append(name).append('\0').append(hashFile(Paths.get(name)));
+        }//end for
+
+        config = BuildManifest.hash(text.toString().getBytes(StandardCharsets.UTF_8));
+
+        return config;
+
+    }//end getConfig
+
+    /**
+     * Hash the content of each entry of a class path or processor path, with each wildcard entry the archives of its
+     * directory.
+     *
+     * @param path    - the class path or processor path.
+     * @param outputs - absolute output directories left out of the path.
+     * @return String - the hash of each entry.
+     * @throws IOException - if an entry cannot be read.
+     */
+    private static String hashPath(final String path, final Set<Path> outputs) throws IOException {
+
+        StringBuilder text = new StringBuilder();
+
+        for (String entry : path.split(File.pathSeparator)) {
+
+            if (entry.endsWith("*")) {
+
+                Path entryDir = Paths.get(entry.substring(0, entry.length() - 1));
+
+                if (Files.isDirectory(entryDir)) {
+
+                    try (DirectoryStream<Path> stream = Files.newDirectoryStream(entryDir, "*.{jar,JAR}")) {
+                        text.append(hashEntries(stream, outputs));
+                    }//end try
+
+                }//end if
+
+            } else {
+                text.append(hashEntry(Paths.get(entry.isEmpty() ? "." : entry), outputs));
+            }//end if
+
+        }//end for
+
+        return text.toString();
+
+    }//end hashPath
+
+    /**
+     * Hash the content of each class path file of a directory stream, in file name order.
+     *
+     * @param stream  - the directory stream.
+     * @param outputs - absolute output directories left out of the path.
+     * @return String - the hash of each file.
+     * @throws IOException - if a file cannot be read.
+     */
+    private static String hashEntries(final DirectoryStream<Path> stream, final Set<Path> outputs)
+            throws IOException {
+
+        List<Path> files = new ArrayList<>();
+
+        for (Path file : stream) {
+            files.add(file);
+        }//end for
+
+        Collections.sort(files);
+
+        StringBuilder text = new StringBuilder();
+
+        for (Path file : files) {
+            text.append(hashEntry(file, outputs));
+        }//end for
+
+        return text.toString();
+
+    }//end hashEntries
+
+    /**
+     * Hash the content of a class path entry, an archive or each input file in a directory and its subdirectories
+     * by their path relative to the directory, leaving out the output directories in it, and any directory not
+     * named as a package, such as a version control directory.
+     *
+     * @param entry   - path of the class path entry.
+     * @param outputs - absolute output directories left out of the path.
+     * @return String - the hash of the content of the entry, or - if it does not exist or is an output directory.
+     * @throws IOException - if the entry cannot be read.
+     */
+    private static String hashEntry(final Path entry, final Set<Path> outputs) throws IOException {
+
+        if (Files.isRegularFile(entry)) {
+            return hashFile(entry) + '\0';
+        }//end if
+
+        if (!Files.isDirectory(entry) || outputs.contains(entry.toAbsolutePath().normalize())) {
+            return "-\0";
+        }//end if
+
+        StringBuilder text = new StringBuilder();
+        List<Path>    dirs = new ArrayList<>(Collections.singletonList(entry));
+
+        for (int x = 0; x < dirs.size(); x++) {
+
+            List<Path> files = new ArrayList<>();
+
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dirs.get(x))) {
+                for (Path file : stream) {
+                    files.add(file);
+                }//end for
+            }//end try
+
+            Collections.sort(files);
+
+            for (Path file : files) {
+
+                if (Files.isDirectory(file)) {
+
+                    //javac finds a class only in a directory of a package, so one of another name is not an input
+                    if (SourceVersion.isName(file.getFileName().toString())
+                            && !outputs.contains(file.toAbsolutePath().normalize())) {
+                        dirs.add(file);
+                    }//end if
+
+                } else if (Files.isRegularFile(file) && isInput(file)) {
+                    text.append(entry.relativize(file)).append('\0').append(hashFile(file)).append('\0');
+                }//end if
+
+            }//end for
+
+        }//end for
+
+        return BuildManifest.hash(text.toString().getBytes(StandardCharsets.UTF_8)) + '\0';
+
+    }//end hashEntry
+
+    /**
+     * Check if a file of a class path directory is an input of a compile, an archive, a Java source file javac can
+     * compile against, or a class file with no Java source file of its top level class beside it. A class file
+     * compiled from a Java source file beside it is an output, so compiling into the class path leaves the hash of
+     * the directory as it is, and the Java source file it is compiled from is the input instead.
+     *
+     * @param file     - path of the file.
+     * @return boolean - true if the file is an input of a compile.
+     */
+    private static boolean isInput(final Path file) {
+
+        String name = file.getFileName().toString();
+
+        if (name.endsWith(ARCHIVE_EXT) || name.endsWith(JavaFileObject.Kind.SOURCE.extension)) {
+            return true;
+        }//end if
+
+        if (!name.endsWith(JavaFileObject.Kind.CLASS.extension)) {
+            return false;
+        }//end if
+
+        int end = name.indexOf('$') > 0 ? name.indexOf('$')
+                                        : name.length() - JavaFileObject.Kind.CLASS.extension.length();
+
+        return !Files.exists(file.resolveSibling(name.substring(0, end) + JavaFileObject.Kind.SOURCE.extension));
+
+    }//end isInput
+
+    /**
+     * Hash the content of a file, once for each path, size, and modified time in the process.
+     *
+     * @param file    - path of the file.
+     * @return String - the hash of the content of the file.
+     * @throws IOException - if the file cannot be read.
+     */
+    private static String hashFile(final Path file) throws IOException {
+
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+
+        String key  = file.toAbsolutePath() + "\0" + attrs.size() + "\0" + attrs.lastModifiedTime().toMillis();
+        String hash = FILE_HASHES.get(key);
+
+        if (hash == null) {
+            hash = BuildManifest.hash(Files.readAllBytes(file));
+            FILE_HASHES.put(key, hash);
+        }//end if
+
+        return hash;
+
+    }//end hashFile
+
+    /**
+     * Read an entry of the cache.
+     *
+     * @param key     - the key of the entry.
+     * @return byte[] - the bytes of the entry, or null if not in the cache or the cache cannot be read.
+     */
+    private byte[] read(final String key) {
+
+        try {
+
+            if (dir != null) {
+
+                Path file = dir.resolve(key.substring(0, 2)).resolve(key);
+
+                return Files.isRegularFile(file) ? Files.readAllBytes(file) : null;
+
+            }//end if
+
+            HttpURLConnection conn = this.connect(key);
+
+            try {
+
+                if (conn.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                    return null;
+                }//end if
+
+                try (InputStream in = conn.getInputStream()) {
+                    return readAll(in);
+                }//end try
+
+            } finally {
+                conn.disconnect();
+            }//end try
+
+        } catch (IOException ex) {
+            return null;
+        }//end try
+
+    }//end read
+
+    /**
+     * Write an entry of the cache, atomically in a directory so a concurrent compile never reads part of it.
+     *
+     * @param key   - the key of the entry.
+     * @param entry - the bytes of the entry.
+     * @throws IOException - if the cache cannot be written.
+     */
+    private void write(final String key, final byte[] entry) throws IOException {
+
+        if (dir != null) {
+
+            Path keyDir = dir.resolve(key.substring(0, 2));
+            Files.createDirectories(keyDir);
+
+            Path temp = Files.createTempFile(keyDir, key, ".tmp");
+
+            try {
+                Files.write(temp, entry);
+                Files.move(temp, keyDir.resolve(key), StandardCopyOption.REPLACE_EXISTING,
+                                                      StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }//end try
+
+            return;
+
+        }//end if
+
+        HttpURLConnection conn = this.connect(key);
+
+        try {
+
+            conn.setRequestMethod("PUT");
+            conn.setDoOutput(true);
+            conn.setFixedLengthStreamingMode(entry.length);
+
+            try (OutputStream out = conn.getOutputStream()) {
+                out.write(entry);
+            }//end try
+
+            int code = conn.getResponseCode();
+
+            if (code < 200 || code > 299) {
+                throw new IOException("Cache: '" + location + "' responded " + code + " to PUT of " + key);
+            }//end if
+
+        } finally {
+            conn.disconnect();
+        }//end try
+
+    }//end write
+
+    /**
+     * Open a connection to the entry of a cache on an HTTP server.
+     *
+     * @param key - the key of the entry.
+     * @return HttpURLConnection - the connection to the entry.
+     * @throws IOException - if the connection cannot be opened.
+     */
+    private HttpURLConnection connect(final String key) throws IOException {
+
+        HttpURLConnection conn = (HttpURLConnection) new URL(location + "/" + key).openConnection();
+
+        conn.setConnectTimeout(HTTP_TIMEOUT);
+        conn.setReadTimeout(HTTP_TIMEOUT);
+
+        return conn;
+
+    }//end connect
+
+    /**
+     * Read all the bytes of an input stream.
+     *
+     * @param in      - the input stream.
+     * @return byte[] - the bytes read.
+     * @throws IOException - if the input stream cannot be read.
+     */
+    private static byte[] readAll(final InputStream in) throws IOException {
+
+        ByteArrayOutputStream bytes  = new ByteArrayOutputStream();
+        byte[]                buffer = new byte[8192];
+
+        for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+            bytes.write(buffer, 0, n);
+        }//end for
+
+        return bytes.toByteArray();
+
+    }//end readAll
+
+}//end class OutputCache
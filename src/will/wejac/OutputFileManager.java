@@ -0,0 +1,540 @@
+/*
+ * @(#)OutputFileManager.java
+ *
+ * Title: WEJAC - Will's Elided Java Api Compiler.
+ *
+ * Description: A forwarding file manager that records the class files output for each Java source file, and
+ *     optionally keeps the class files, generated Java source files and class output resources in memory instead
+ *     of writing them to disk.
+ *
+ * @author William F. Gilreath (wfgilreath@yahoo.com)
+ * @version 2.1  6/26/19
+ *
+ * Copyright © 2019 All Rights Reserved.
+ *
+ * License: This software is subject to the terms of the GNU General Public License (GPL)
+ *     version 3.0 available at the following link: http://www.gnu.org/copyleft/gpl.html.
+ *
+ * You must accept the terms of the GNU General Public License (GPL) license agreement
+ *     to use this software.
+ *
+ **/
+package will.wejac;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import java.net.URI;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+
+final class OutputFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+    private final Map<URI, List<JavaFileObject>> outputs = new HashMap<>(); //output files of each source file
+    private final Map<URI, List<String>>         names   = new HashMap<>(); //class names of each source file
+
+    private final Map<String, byte[]> classes;   //bytecode of each class by binary name when kept in memory
+    private final Map<String, byte[]> resources; //bytes of each class output resource by path when kept in memory
+
+    /**
+     * Constructor for a file manager forwarding to a standard file manager and recording its output files.
+     *
+     * @param file - the standard file manager to forward to.
+     */
+    OutputFileManager(final StandardJavaFileManager file) {
+
+        this(file, null);
+
+    }//end constructor
+
+    /**
+     * Constructor for a file manager forwarding to a standard file manager that keeps the class files output, and
+     * the Java source files generated by annotation processors, in memory instead of writing them to disk.
+     *
+     * @param file    - the standard file manager to forward to.
+     * @param classes - map to put the bytecode of each class by binary name, or null to write to disk.
+     */
+    OutputFileManager(final StandardJavaFileManager file, final Map<String, byte[]> classes) {
+
+        this(file, classes, null);
+
+    }//end constructor
+
+    /**
+     * Constructor for a file manager forwarding to a standard file manager that keeps the class files output, the
+     * Java source files generated by annotation processors, and the resources they write to the class output, such
+     * as a META-INF/services file, in memory instead of writing them to disk.
+     *
+     * @param file      - the standard file manager to forward to.
+     * @param classes   - map to put the bytecode of each class by binary name, or null to write to disk.
+     * @param resources - map to put the bytes of each class output resource by path, or null to write to disk.
+     */
+    OutputFileManager(final StandardJavaFileManager file, final Map<String, byte[]> classes,
+                      final Map<String, byte[]> resources) {
+
+        super(file);
+        this.classes   = classes;
+        this.resources = resources;
+
+    }//end constructor
+
+    /**
+     * Get a file for output of a class, and record it as output of the Java source file it is compiled from.
+     *
+     * @param location  - location of the output.
+     * @param className - binary name of the class.
+     * @param kind      - kind of the output file.
+     * @param sibling   - Java source file the class is compiled from, or null.
+     * @return JavaFileObject - the file for output.
+     * @throws IOException - if the file for output cannot be created.
+     */
+    @Override
+    public JavaFileObject getJavaFileForOutput(final Location location, final String className,
+                                               final JavaFileObject.Kind kind, final FileObject sibling)
+            throws IOException {
+
+        JavaFileObject output;
+
+        if (classes != null && kind == JavaFileObject.Kind.CLASS) {
+            output = new MemoryClassFile(className, classes);
+        } else if (classes != null && kind == JavaFileObject.Kind.SOURCE
+                   && location == StandardLocation.SOURCE_OUTPUT) {
+            output = new MemorySourceFile(className);
+        } else {
+            output = super.getJavaFileForOutput(location, className, kind, sibling);
+        }//end if
+
+        if (sibling != null && kind == JavaFileObject.Kind.CLASS) {
+
+            synchronized (outputs) {
+
+                List<JavaFileObject> list = outputs.get(sibling.toUri());
+
+                if (list == null) {
+                    list = new ArrayList<>();
+                    outputs.put(sibling.toUri(), list);
+                    names.put(sibling.toUri(), new ArrayList<String>());
+                }//end if
+
+                list.add(output);
+                names.get(sibling.toUri()).add(className);
+
+            }//end synchronized
+
+        }//end if
+
+        return output;
+
+    }//end getJavaFileForOutput
+
+    /**
+     * Get a file for output of a resource, kept in memory when it is written to the class output by an annotation
+     * processor while the class files are kept in memory.
+     *
+     * @param location     - location of the output.
+     * @param packageName  - name of the package of the resource.
+     * @param relativeName - name of the resource relative to the package.
+     * @param sibling      - file the resource is written for, or null.
+     * @return FileObject  - the file for output.
+     * @throws IOException - if the file for output cannot be created.
+     */
+    @Override
+    public FileObject getFileForOutput(final Location location, final String packageName,
+                                       final String relativeName, final FileObject sibling) throws IOException {
+
+        if (resources != null && location == StandardLocation.CLASS_OUTPUT) {
+            return new MemoryResourceFile(getResourcePath(packageName, relativeName), resources);
+        }//end if
+
+        return super.getFileForOutput(location, packageName, relativeName, sibling);
+
+    }//end getFileForOutput
+
+    /**
+     * Get a file for input of a resource, the one kept in memory when written to the class output earlier in the
+     * run, so an annotation processor reads back what it wrote.
+     *
+     * @param location     - location of the input.
+     * @param packageName  - name of the package of the resource.
+     * @param relativeName - name of the resource relative to the package.
+     * @return FileObject  - the file for input, or null if none.
+     * @throws IOException - if the file for input cannot be found.
+     */
+    @Override
+    public FileObject getFileForInput(final Location location, final String packageName,
+                                      final String relativeName) throws IOException {
+
+        if (resources != null && location == StandardLocation.CLASS_OUTPUT) {
+
+            String path = getResourcePath(packageName, relativeName);
+
+            return resources.containsKey(path) ? new MemoryResourceFile(path, resources) : null;
+
+        }//end if
+
+        return super.getFileForInput(location, packageName, relativeName);
+
+    }//end getFileForInput
+
+    /**
+     * Get the path of a resource in the class output, the same as the name of its entry in a jar file.
+     *
+     * @param packageName  - name of the package of the resource.
+     * @param relativeName - name of the resource relative to the package.
+     * @return String      - the path of the resource.
+     */
+    private static String getResourcePath(final String packageName, final String relativeName) {
+
+        return packageName.isEmpty() ? relativeName : packageName.replace('.', '/') + "/" + relativeName;
+
+    }//end getResourcePath
+
+    /**
+     * List the files of a package, with the classes compiled in memory first for the class output and class path,
+     * so a later compilation task of the run compiles against the classes of an earlier one.
+     *
+     * @param location    - location to list.
+     * @param packageName - name of the package.
+     * @param kinds       - kinds of files to list.
+     * @param recurse     - set to list the subpackages too.
+     * @return Iterable   - the files of the package.
+     * @throws IOException - if a directory or archive cannot be read.
+     */
+    @Override
+    public Iterable<JavaFileObject> list(final Location location, final String packageName,
+                                         final Set<JavaFileObject.Kind> kinds, final boolean recurse)
+            throws IOException {
+
+        Iterable<JavaFileObject> files = super.list(location, packageName, kinds, recurse);
+
+        if (location != StandardLocation.CLASS_OUTPUT && location != StandardLocation.CLASS_PATH) {
+            return files;
+        }//end if
+
+        List<JavaFileObject> list = this.getMemoryClasses(packageName, kinds, recurse);
+
+        if (list.isEmpty()) {
+            return files;
+        }//end if
+
+        for (JavaFileObject file : files) {
+            list.add(file);
+        }//end for
+
+        return list;
+
+    }//end list
+
+    /**
+     * Get the classes compiled in memory of a package, which javac finds first as the first class of a name found
+     * is the one compiled against.
+     *
+     * @param packageName - name of the package.
+     * @param kinds       - kinds of files to list.
+     * @param recurse     - set to list the subpackages too.
+     * @return List       - the classes compiled in memory of the package, empty if none or not kept in memory.
+     */
+    List<JavaFileObject> getMemoryClasses(final String packageName, final Set<JavaFileObject.Kind> kinds,
+                                          final boolean recurse) {
+
+        List<JavaFileObject> list = new ArrayList<>();
+
+        if (classes == null || !kinds.contains(JavaFileObject.Kind.CLASS)) {
+            return list;
+        }//end if
+
+        String prefix = packageName.isEmpty() ? "" : packageName + ".";
+
+        for (String className : classes.keySet()) {
+
+            if (className.startsWith(prefix) && (recurse || className.indexOf('.', prefix.length()) < 0)) {
+                list.add(new MemoryClassFile(className, classes));
+            }//end if
+
+        }//end for
+
+        return list;
+
+    }//end getMemoryClasses
+
+    /**
+     * Infer the binary name of a file, which a file kept in memory knows from its class name.
+     *
+     * @param location - location of the file.
+     * @param file     - the file.
+     * @return String  - the binary name of the file.
+     */
+    @Override
+    public String inferBinaryName(final Location location, final JavaFileObject file) {
+
+        if (file instanceof MemoryClassFile) {
+            return ((MemoryClassFile) file).className;
+        } else if (file instanceof MemorySourceFile) {
+            return ((MemorySourceFile) file).className;
+        }//end if
+
+        return super.inferBinaryName(location, file);
+
+    }//end inferBinaryName
+
+    /**
+     * Check if two files are the same file, comparing files kept in memory by URI.
+     *
+     * @param a        - a file.
+     * @param b        - another file.
+     * @return boolean - true if the files are the same file.
+     */
+    @Override
+    public boolean isSameFile(final FileObject a, final FileObject b) {
+
+        if (a instanceof MemoryClassFile || b instanceof MemoryClassFile
+                || a instanceof MemorySourceFile || b instanceof MemorySourceFile
+                || a instanceof MemoryResourceFile || b instanceof MemoryResourceFile) {
+            return a.toUri().equals(b.toUri());
+        }//end if
+
+        return super.isSameFile(a, b);
+
+    }//end isSameFile
+
+    /**
+     * Get the class files output for a Java source file.
+     *
+     * @param source - URI of the Java source file.
+     * @return List  - the class files output for the Java source file.
+     */
+    List<JavaFileObject> getOutputs(final URI source) {
+
+        synchronized (outputs) {
+
+            List<JavaFileObject> list = outputs.get(source);
+
+            return list == null ? Collections.<JavaFileObject>emptyList() : new ArrayList<>(list);
+
+        }//end synchronized
+
+    }//end getOutputs
+
+    /**
+     * Get the binary names of the classes output for a Java source file, in the order of its class files.
+     *
+     * @param source - URI of the Java source file.
+     * @return List  - the binary names of the classes output for the Java source file.
+     */
+    List<String> getClassNames(final URI source) {
+
+        synchronized (outputs) {
+
+            List<String> list = names.get(source);
+
+            return list == null ? Collections.<String>emptyList() : new ArrayList<>(list);
+
+        }//end synchronized
+
+    }//end getClassNames
+
+    /**
+     * Class file kept in memory that puts its bytecode into a map when its output stream is closed.
+     */
+    private final static class MemoryClassFile extends SimpleJavaFileObject {
+
+        private final String              className; //binary name of the class
+        private final Map<String, byte[]> classes;   //map to put the bytecode of the class
+        private final long                modified;  //time the class file is made, compiled in the run
+
+        /**
+         * Constructor for a class file kept in memory.
+         *
+         * @param className - binary name of the class.
+         * @param classes   - map to put the bytecode of the class.
+         */
+        MemoryClassFile(final String className, final Map<String, byte[]> classes) {
+
+            super(URI.create("memory:///" + className.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+
+            this.className = className;
+            this.classes   = classes;
+            this.modified  = System.currentTimeMillis();
+
+        }//end constructor
+
+        @Override
+        public InputStream openInputStream() throws IOException {
+
+            byte[] bytes = classes.get(className);
+
+            if (bytes == null) {
+                throw new IOException("Class: '" + className + "' not compiled in memory.");
+            }//end if
+
+            return new ByteArrayInputStream(bytes);
+
+        }//end openInputStream
+
+        @Override
+        public OutputStream openOutputStream() {
+
+            return new ByteArrayOutputStream() {
+
+                @Override
+                public void close() {
+                    classes.put(className, this.toByteArray());
+                }//end close
+
+            };
+
+        }//end openOutputStream
+
+        //the class is compiled in the run, so javac prefers it to its Java source file found on the class path
+        @Override
+        public long getLastModified() {
+            return modified;
+        }//end getLastModified
+
+    }//end class MemoryClassFile
+
+    /**
+     * Java source file generated by an annotation processor kept in memory, which keeps its text when its output
+     * stream is closed for javac to compile in the next round.
+     */
+    private final static class MemorySourceFile extends SimpleJavaFileObject {
+
+        private final String className; //binary name of the class of the source file
+        private       byte[] bytes;     //text of the source file in UTF-8 once written
+
+        /**
+         * Constructor for a generated Java source file kept in memory.
+         *
+         * @param className - binary name of the class of the source file.
+         */
+        MemorySourceFile(final String className) {
+
+            super(URI.create("memory:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+
+            this.className = className;
+
+        }//end constructor
+
+        @Override
+        public CharSequence getCharContent(final boolean ignoreEncodingErrors) throws IOException {
+
+            if (bytes == null) {
+                throw new IOException("Source file: '" + className + "' not generated in memory.");
+            }//end if
+
+            return new String(bytes, StandardCharsets.UTF_8);
+
+        }//end getCharContent
+
+        @Override
+        public OutputStream openOutputStream() {
+
+            return new ByteArrayOutputStream() {
+
+                @Override
+                public void close() {
+                    bytes = this.toByteArray();
+                }//end close
+
+            };
+
+        }//end openOutputStream
+
+        @Override
+        public Writer openWriter() {
+            return new OutputStreamWriter(this.openOutputStream(), StandardCharsets.UTF_8);
+        }//end openWriter
+
+    }//end class MemorySourceFile
+
+    /**
+     * Resource written to the class output by an annotation processor kept in memory, which puts its bytes into a
+     * map when its output stream is closed, so it is written into the jar file with the classes.
+     */
+    private final static class MemoryResourceFile extends SimpleJavaFileObject {
+
+        private final String              path;      //path of the resource in the class output
+        private final Map<String, byte[]> resources; //map to put the bytes of the resource
+
+        /**
+         * Constructor for a class output resource kept in memory.
+         *
+         * @param path      - path of the resource in the class output.
+         * @param resources - map to put the bytes of the resource.
+         */
+        MemoryResourceFile(final String path, final Map<String, byte[]> resources) {
+
+            super(URI.create("memory:///" + path), Kind.OTHER);
+
+            this.path      = path;
+            this.resources = resources;
+
+        }//end constructor
+
+        @Override
+        public InputStream openInputStream() throws IOException {
+
+            byte[] bytes = resources.get(path);
+
+            if (bytes == null) {
+                throw new IOException("Resource: '" + path + "' not written in memory.");
+            }//end if
+
+            return new ByteArrayInputStream(bytes);
+
+        }//end openInputStream
+
+        @Override
+        public CharSequence getCharContent(final boolean ignoreEncodingErrors) throws IOException {
+
+            byte[] bytes = resources.get(path);
+
+            if (bytes == null) {
+                throw new IOException("Resource: '" + path + "' not written in memory.");
+            }//end if
+
+            return new String(bytes, StandardCharsets.UTF_8);
+
+        }//end getCharContent
+
+        @Override
+        public OutputStream openOutputStream() {
+
+            return new ByteArrayOutputStream() {
+
+                @Override
+                public void close() {
+                    resources.put(path, this.toByteArray());
+                }//end close
+
+            };
+
+        }//end openOutputStream
+
+        @Override
+        public Writer openWriter() {
+            return new OutputStreamWriter(this.openOutputStream(), StandardCharsets.UTF_8);
+        }//end openWriter
+
+    }//end class MemoryResourceFile
+
+}//end class OutputFileManager
@@ -0,0 +1,754 @@
+/*
+ * @(#)PipelineScheduler.java
+ *
+ * Title: WEJAC - Will's Elided Java Api Compiler.
+ *
+ * Description: Groups of Java source files for a pipelined compile, each group the packages of a cycle of
+ *     the package dependencies from a quick parse in topological order, and a header Java source file of each
+ *     Java source file with the API and no method bodies, so each group compiles against the headers of the
+ *     groups it depends on with no wait for their class files.
+ *
+ * @author William F. Gilreath (wfgilreath@yahoo.com)
+ * @version 2.1  6/26/19
+ *
+ * Copyright © 2019 All Rights Reserved.
+ *
+ * License: This software is subject to the terms of the GNU General Public License (GPL)
+ *     version 3.0 available at the following link: http://www.gnu.org/copyleft/gpl.html.
+ *
+ * You must accept the terms of the GNU General Public License (GPL) license agreement
+ *     to use this software.
+ *
+ **/
+package will.wejac;
+
+import com.sun.source.tree.BlockTree;
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.ExpressionStatementTree;
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.MemberSelectTree;
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.StatementTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.SourcePositions;
+import com.sun.source.util.TreeScanner;
+import com.sun.source.util.Trees;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+
+import java.net.URI;
+
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticListener;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+
+final class PipelineScheduler {
+
+    private final static String HEADER_METHOD = "{ throw null; }";            //body of a method of a header
+    private final static String HEADER_BLOCK  = "{ if (true) throw null; }";  //body of an initializer of a header
+
+    private final List<List<String>> groups = new ArrayList<>(); //Java source files of each group in topological order
+
+    private final Map<String, List<String>> packages  = new LinkedHashMap<>(); //Java source files of each package
+    private final Map<String, String>       packageOf = new HashMap<>();       //package of each Java source file
+    private final Map<String, Set<String>>  depends   = new HashMap<>();       //packages each package depends on
+
+    private final Map<String, Integer> index = new HashMap<>();    //visit order of each package in the graph
+    private final Map<String, Integer> low   = new HashMap<>();    //lowest visit order reached from each package
+    private final Deque<String>        stack = new ArrayDeque<>(); //packages visited with no group yet
+
+    private Path   headerPath = null; //directory of the header Java source files, or null if not pipelined
+    private String headerUri  = null; //URI of the directory of the header Java source files
+
+    /**
+     * Constructor for the groups of a pipelined compile of Java source files, with a quick parse of the Java source
+     * files for the package dependencies and the headers. If a Java source file has a syntax error or declares a
+     * module, all the Java source files are one group with no headers, for javac to compile and report as a batch.
+     *
+     * @param fileNames - names of the external files containing the Java source code.
+     * @param param     - Javac compiler parameters of the compile.
+     * @param locale    - locale for formatting file manager diagnostics.
+     * @param charset   - character set of the file managers of the compile.
+     * @param err       - Javac compiler output other than diagnostics.
+     * @param headers   - set to write the headers, else only the groups are found.
+     * @throws IOException - if a header Java source file cannot be written.
+     */
+    PipelineScheduler(final List<String> fileNames, final List<String> param, final Locale locale,
+                      final Charset charset, final Writer err, final boolean headers) throws IOException {
+
+        final boolean[] errorFlag = new boolean[1];
+
+        DiagnosticListener<JavaFileObject> diag = new DiagnosticListener<JavaFileObject>() {
+
+            @Override
+            public void report(final Diagnostic<? extends JavaFileObject> diagnostic) {
+
+                //the diagnostics of the Java source files are reported by the compile of their group
+                if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                    errorFlag[0] = true;
+                }//end if
+
+            }//end report
+
+        };
+
+        //the file manager diagnostics of reading each Java source file are printed by the compile of its group
+        DiagnosticListener<JavaFileObject> none = new DiagnosticListener<JavaFileObject>() {
+
+            @Override
+            public void report(final Diagnostic<? extends JavaFileObject> diagnostic) {
+            }//end report
+
+        };
+
+        StandardJavaFileManager            file  = FileManagerPool.getCompiler()
+                                                                  .getStandardFileManager(none, locale, charset);
+        Iterable<? extends JavaFileObject> list  = file.getJavaFileObjectsFromStrings(fileNames);
+        Map<URI, String>                   names = new HashMap<>();
+
+        int idx = 0;
+        for (JavaFileObject source : list) {
+            names.put(source.toUri(), fileNames.get(idx++));
+        }//end for
+
+        List<CompilationUnitTree> units = new ArrayList<>();
+        SourcePositions           positions;
+
+        try {
+
+            JavacTask task = (JavacTask) FileManagerPool.getCompiler().getTask(err, file, diag, param, null, list);
+
+            for (CompilationUnitTree unit : task.parse()) {
+
+                if (unit.getSourceFile().isNameCompatible("module-info", JavaFileObject.Kind.SOURCE)) {
+                    errorFlag[0] = true;
+                }//end if
+
+                units.add(unit);
+
+            }//end for
+
+            positions = Trees.instance(task).getSourcePositions();
+
+        } catch (RuntimeException ex) {
+
+            //an invalid parameter is reported by the compile of the batch
+            positions    = null;
+            errorFlag[0] = true;
+
+        } finally {
+            file.close();
+        }//end try
+
+        if (errorFlag[0]) {
+            groups.add(fileNames);
+            return;
+        }//end if
+
+        for (CompilationUnitTree unit : units) {
+            this.addFile(getPackage(unit), names.get(unit.getSourceFile().toUri()));
+        }//end for
+
+        for (CompilationUnitTree unit : units) {
+            depends.put(getPackage(unit), this.getDependencies(unit, depends.get(getPackage(unit))));
+        }//end for
+
+        for (String pkg : packages.keySet()) {
+
+            if (!index.containsKey(pkg)) {
+                this.connect(pkg);
+            }//end if
+
+        }//end for
+
+        if (!headers) {
+            return;
+        }//end if
+
+        headerPath = Files.createTempDirectory("wejac-headers").toAbsolutePath();
+        headerUri  = headerPath.toUri().toString();
+
+        try {
+
+            for (CompilationUnitTree unit : units) {
+                this.writeHeader(unit, positions, charset);
+            }//end for
+
+        } catch (IOException ex) {
+
+            this.delete();
+            throw ex;
+
+        }//end try
+
+    }//end constructor
+
+    /**
+     * Get the groups of Java source files in topological order, each after the groups it depends on.
+     *
+     * @return List - the Java source files of each group.
+     */
+    List<List<String>> getGroups() {
+
+        return groups;
+
+    }//end getGroups
+
+    /**
+     * Get the groups of Java source files merged in topological order into a compilation task of each thread, each
+     * of about the same number of Java source files, since any groups compile together against the headers and
+     * a compilation task more than the threads adds only the time to start it.
+     *
+     * @param threads - number of threads to compile the groups.
+     * @return List   - the Java source files of each compilation task.
+     */
+    List<List<String>> getTasks(final int threads) {
+
+        int count = 0;
+
+        for (List<String> group : groups) {
+            count += group.size();
+        }//end for
+
+        int size = (count + threads - 1) / threads;
+
+        List<List<String>> tasks = new ArrayList<>();
+        List<String>       task  = new ArrayList<>();
+
+        for (List<String> group : groups) {
+
+            task.addAll(group);
+
+            if (task.size() >= size) {
+                tasks.add(task);
+                task = new ArrayList<>();
+            }//end if
+
+        }//end for
+
+        if (!task.isEmpty()) {
+            tasks.add(task);
+        }//end if
+
+        return tasks;
+
+    }//end getTasks
+
+    /**
+     * Get the groups of Java source files joined into the independent sets of groups with no dependency between
+     * them either way, each set in topological order, and the sets merged into a compilation task of each thread,
+     * each largest set first into the task with the fewest Java source files. No compilation task needs a Java
+     * source file of another, so each compiles on its own as a batch or one Java source file at a time.
+     *
+     * @param threads - number of threads to compile the sets.
+     * @return List   - the Java source files of each compilation task.
+     */
+    List<List<String>> getIndependentTasks(final int threads) {
+
+        //the packages joined by a dependency either way have the same set, found from each package not yet in one
+        Map<String, Integer>     sets  = new HashMap<>(); //independent set of each package
+        Map<String, Set<String>> links = new HashMap<>(); //packages each package depends on or is used by
+        int                      count = 0;
+
+        for (String pkg : packages.keySet()) {
+            links.put(pkg, new HashSet<String>());
+        }//end for
+
+        for (Map.Entry<String, Set<String>> entry : depends.entrySet()) {
+
+            for (String next : entry.getValue()) {
+                links.get(entry.getKey()).add(next);
+                links.get(next).add(entry.getKey());
+            }//end for
+
+        }//end for
+
+        for (String pkg : packages.keySet()) {
+
+            if (sets.containsKey(pkg)) {
+                continue;
+            }//end if
+
+            Deque<String> open = new ArrayDeque<>(Collections.singletonList(pkg));
+            sets.put(pkg, count++);
+
+            while (!open.isEmpty()) {
+
+                for (String next : links.get(open.pop())) {
+
+                    if (!sets.containsKey(next)) {
+                        sets.put(next, sets.get(pkg));
+                        open.push(next);
+                    }//end if
+
+                }//end for
+
+            }//end while
+
+        }//end for
+
+        Map<Integer, List<String>> files = new LinkedHashMap<>();
+
+        for (List<String> group : groups) {
+
+            //a group of all the Java source files with no packages found is one set
+            Integer set = packageOf.isEmpty() ? Integer.valueOf(0) : sets.get(packageOf.get(group.get(0)));
+
+            if (!files.containsKey(set)) {
+                files.put(set, new ArrayList<String>());
+            }//end if
+
+            files.get(set).addAll(group);
+
+        }//end for
+
+        List<List<String>> list = new ArrayList<>(files.values());
+
+        Collections.sort(list, new Comparator<List<String>>() {
+
+            @Override
+            public int compare(final List<String> a, final List<String> b) {
+                return Integer.compare(b.size(), a.size());
+            }//end compare
+
+        });
+
+        List<List<String>> tasks = new ArrayList<>();
+
+        for (List<String> set : list) {
+
+            if (tasks.size() < threads) {
+                tasks.add(new ArrayList<>(set));
+                continue;
+            }//end if
+
+            List<String> smallest = tasks.get(0);
+
+            for (List<String> task : tasks) {
+
+                if (task.size() < smallest.size()) {
+                    smallest = task;
+                }//end if
+
+            }//end for
+
+            smallest.addAll(set);
+
+        }//end for
+
+        return tasks;
+
+    }//end getIndependentTasks
+
+    /**
+     * Get the number of packages of the Java source files of the groups.
+     *
+     * @return int - the number of packages, or 0 if the Java source files are one group with no headers.
+     */
+    int getPackageCount() {
+
+        return headerPath == null ? 0 : packages.size();
+
+    }//end getPackageCount
+
+    /**
+     * Get the directory of the header Java source files, the source path of the compile of each group.
+     *
+     * @return Path - the directory, or null if the Java source files are one group with no headers.
+     */
+    Path getHeaderPath() {
+
+        return headerPath;
+
+    }//end getHeaderPath
+
+    /**
+     * Check if a file of a diagnostic is a header Java source file, so the diagnostic is not reported.
+     *
+     * @param source   - the file of a diagnostic, or null.
+     * @return boolean - true if the file is in the directory of the header Java source files.
+     */
+    boolean isHeader(final JavaFileObject source) {
+
+        return source != null && headerUri != null && source.toUri().toString().startsWith(headerUri);
+
+    }//end isHeader
+
+    /**
+     * Delete the directory of the header Java source files and its files.
+     */
+    void delete() {
+
+        if (headerPath != null) {
+            delete(headerPath.toFile());
+        }//end if
+
+    }//end delete
+
+    /**
+     * Delete a file, or a directory and its files.
+     *
+     * @param file - the file or directory.
+     */
+    private static void delete(final File file) {
+
+        File[] list = file.listFiles();
+
+        if (list != null) {
+            for (File child : list) {
+                delete(child);
+            }//end for
+        }//end if
+
+        file.delete();
+
+    }//end delete
+
+    /**
+     * Add a Java source file to its package.
+     *
+     * @param pkg      - name of the package, empty for the unnamed package.
+     * @param fileName - name of the external file containing the Java source code.
+     */
+    private void addFile(final String pkg, final String fileName) {
+
+        List<String> list = packages.get(pkg);
+
+        if (list == null) {
+            list = new ArrayList<>();
+            packages.put(pkg, list);
+        }//end if
+
+        list.add(fileName);
+        packageOf.put(fileName, pkg);
+
+    }//end addFile
+
+    /**
+     * Get the packages of the Java source files a compilation unit depends on, from the names of its imports and
+     * qualified names. Names in the same package and of types outside the Java source files need no package.
+     *
+     * @param unit    - the compilation unit.
+     * @param found   - packages found from the other compilation units of the package, or null.
+     * @return Set    - the packages the compilation units of the package depend on.
+     */
+    private Set<String> getDependencies(final CompilationUnitTree unit, final Set<String> found) {
+
+        final Set<String> result = found == null ? new LinkedHashSet<String>() : found;
+        final String      self   = getPackage(unit);
+
+        new TreeScanner<Void, Void>() {
+
+            @Override
+            public Void visitMemberSelect(final MemberSelectTree tree, final Void unused) {
+
+                String name = getName(tree);
+
+                if (name == null) {
+                    return super.visitMemberSelect(tree, unused);
+                }//end if
+
+                //the longest prefix of the name that is a package, so a.b.C.D depends on a.b and not on a
+                for (String prefix = name; ; prefix = prefix.substring(0, prefix.lastIndexOf('.'))) {
+
+                    if (packages.containsKey(prefix)) {
+
+                        if (!prefix.equals(self)) {
+                            result.add(prefix);
+                        }//end if
+
+                        break;
+
+                    }//end if
+
+                    if (prefix.indexOf('.') < 0) {
+                        break;
+                    }//end if
+
+                }//end for
+
+                return null;
+
+            }//end visitMemberSelect
+
+        }.scan(unit, null);
+
+        return result;
+
+    }//end getDependencies
+
+    /**
+     * Visit a package and the packages it depends on, and add a group of each cycle of packages once all the
+     * packages a cycle depends on have a group, so the groups are in topological order.
+     *
+     * @param pkg - name of the package.
+     */
+    private void connect(final String pkg) {
+
+        index.put(pkg, index.size());
+        low.put(pkg, index.get(pkg));
+        stack.push(pkg);
+
+        for (String next : depends.get(pkg)) {
+
+            if (!index.containsKey(next)) {
+
+                this.connect(next);
+                low.put(pkg, Math.min(low.get(pkg), low.get(next)));
+
+            } else if (stack.contains(next)) {
+                low.put(pkg, Math.min(low.get(pkg), index.get(next)));
+            }//end if
+
+        }//end for
+
+        if (!low.get(pkg).equals(index.get(pkg))) {
+            return;
+        }//end if
+
+        List<String> group = new ArrayList<>();
+        String       top;
+
+        do {
+            top = stack.pop();
+            group.addAll(packages.get(top));
+        } while (!top.equals(pkg));
+
+        groups.add(group);
+
+    }//end connect
+
+    /**
+     * Write the header Java source file of a compilation unit, the compilation unit with the body of each method
+     * and initializer of its classes replaced. A constructor keeps its call of this or super, and a field keeps its
+     * initializer, so a constant has its value and a class compiled against the header has the same class file.
+     * The header is written in ASCII with a Unicode escape of each other character, so it is read as the same
+     * characters as the Java source file was whatever the character set.
+     *
+     * @param unit      - the compilation unit.
+     * @param positions - positions of the trees of the compilation unit.
+     * @param charset   - character set the file managers read the header with.
+     * @throws IOException - if the Java source file cannot be read or the header cannot be written.
+     */
+    private void writeHeader(final CompilationUnitTree unit, final SourcePositions positions, final Charset charset)
+            throws IOException {
+
+        CharSequence  text   = unit.getSourceFile().getCharContent(true);
+        StringBuilder header = new StringBuilder(text.length());
+
+        int end = this.addClass(unit.getTypeDecls(), unit, positions, text, header, 0);
+
+        header.append(text, end, text.length());
+
+        String pkg  = getPackage(unit);
+        Path   dir  = pkg.isEmpty() ? headerPath : headerPath.resolve(pkg.replace('.', File.separatorChar));
+        Path   path = dir.resolve(Paths.get(unit.getSourceFile().toUri()).getFileName().toString());
+
+        Files.createDirectories(dir);
+
+        //written whole then moved, so a compile never reads a header as it is written
+        Path temp = Files.createTempFile(dir, "header", ".tmp");
+
+        Files.write(temp, escape(header).getBytes(charset));
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+    }//end writeHeader
+
+    /**
+     * Add the text of the classes of a compilation unit or class to the header up to the end of the last body
+     * replaced, with each body of a method or initializer replaced and each member class added the same way.
+     *
+     * @param members   - the classes of the compilation unit, or the members of a class.
+     * @param unit      - the compilation unit.
+     * @param positions - positions of the trees of the compilation unit.
+     * @param text      - text of the Java source file.
+     * @param header    - text of the header added so far.
+     * @param start     - position in the text of the Java source file the header is added to.
+     * @return int      - position in the text of the Java source file the header is added to after the members.
+     */
+    private int addClass(final List<? extends Tree> members, final CompilationUnitTree unit,
+                         final SourcePositions positions, final CharSequence text, final StringBuilder header,
+                         final int start) {
+
+        int end = start;
+
+        for (Tree member : members) {
+
+            if (member instanceof ClassTree) {
+                end = this.addClass(((ClassTree) member).getMembers(), unit, positions, text, header, end);
+                continue;
+            }//end if
+
+            BlockTree body;
+            String    replace;
+
+            if (member instanceof MethodTree && ((MethodTree) member).getBody() != null) {
+
+                body    = ((MethodTree) member).getBody();
+                replace = HEADER_METHOD;
+
+                StatementTree call = getConstructorCall((MethodTree) member);
+
+                if (call != null) {
+
+                    long callStart = positions.getStartPosition(unit, call);
+                    long callEnd   = positions.getEndPosition(unit, call);
+
+                    if (callStart < 0 || callEnd < 0) {
+                        continue; //the body is kept whole
+                    }//end if
+
+                    replace = "{ " + text.subSequence((int) callStart, (int) callEnd) + " throw null; }";
+
+                }//end if
+
+            } else if (member instanceof BlockTree) {
+
+                body    = (BlockTree) member;
+                replace = HEADER_BLOCK;
+
+            } else {
+                continue;
+            }//end if
+
+            long bodyStart = positions.getStartPosition(unit, body);
+            long bodyEnd   = positions.getEndPosition(unit, body);
+
+            //the start of a static initializer is at the static keyword before its brace
+            while (bodyStart >= end && bodyStart < bodyEnd && text.charAt((int) bodyStart) != '{') {
+                bodyStart++;
+            }//end while
+
+            if (bodyStart < end || bodyEnd <= bodyStart) {
+                continue; //the body is kept whole
+            }//end if
+
+            header.append(text, end, (int) bodyStart);
+            header.append(replace);
+
+            end = (int) bodyEnd;
+
+        }//end for
+
+        return end;
+
+    }//end addClass
+
+    /**
+     * Escape each character of a text other than printable ASCII, a tab, or a line separator as a Unicode escape.
+     *
+     * @param text    - the text.
+     * @return String - the text in ASCII.
+     */
+    private static String escape(final CharSequence text) {
+
+        StringBuilder result = new StringBuilder(text.length() + text.length() / 8);
+
+        for (int x = 0; x < text.length(); x++) {
+
+            char c = text.charAt(x);
+
+            if ((c >= 0x20 && c < 0x7F) || c == '\t' || c == '\n' || c == '\r' || c == '\f') {
+                result.append(c);
+            } else {
+                result.append(String.format("\\u%04x", (int) c));
+            }//end if
+
+        }//end for
+
+        return result.toString();
+
+    }//end escape
+
+    /**
+     * Get the explicit call of this or super that starts the body of a constructor.
+     *
+     * @param method         - the method.
+     * @return StatementTree - the call of this or super, or null if the method is not a constructor with one.
+     */
+    private static StatementTree getConstructorCall(final MethodTree method) {
+
+        if (!method.getName().contentEquals("<init>") || method.getBody().getStatements().isEmpty()) {
+            return null;
+        }//end if
+
+        StatementTree first = method.getBody().getStatements().get(0);
+
+        if (!(first instanceof ExpressionStatementTree)
+                || !(((ExpressionStatementTree) first).getExpression() instanceof MethodInvocationTree)) {
+            return null;
+        }//end if
+
+        ExpressionTree select = ((MethodInvocationTree) ((ExpressionStatementTree) first).getExpression())
+                                .getMethodSelect();
+
+        String name = select instanceof IdentifierTree   ? ((IdentifierTree) select).getName().toString()
+                    : select instanceof MemberSelectTree ? ((MemberSelectTree) select).getIdentifier().toString()
+                    : null;
+
+        return "this".equals(name) || "super".equals(name) ? first : null;
+
+    }//end getConstructorCall
+
+    /**
+     * Get the package of a compilation unit.
+     *
+     * @param unit    - the compilation unit.
+     * @return String - name of the package, empty for the unnamed package.
+     */
+    private static String getPackage(final CompilationUnitTree unit) {
+
+        return unit.getPackageName() == null ? "" : unit.getPackageName().toString();
+
+    }//end getPackage
+
+    /**
+     * Get the qualified name of identifiers selected one from another.
+     *
+     * @param tree    - the tree of an identifier or a member select.
+     * @return String - the qualified name, or null if the tree selects from an expression other than a name.
+     */
+    private static String getName(final ExpressionTree tree) {
+
+        if (tree instanceof IdentifierTree) {
+            return ((IdentifierTree) tree).getName().toString();
+        }//end if
+
+        if (!(tree instanceof MemberSelectTree)) {
+            return null;
+        }//end if
+
+        String outer = getName(((MemberSelectTree) tree).getExpression());
+
+        return outer == null ? null : outer + '.' + ((MemberSelectTree) tree).getIdentifier();
+
+    }//end getName
+
+}//end class PipelineScheduler
@@ -0,0 +1,351 @@
+/*
+ * @(#)ProcessorCache.java
+ *
+ * Title: WEJAC - Will's Elided Java Api Compiler.
+ *
+ * Description: Annotation processors of the processor path loaded once for the compiler process, with the class
+ *     loader and processor classes of each processor path kept until a file of the path changes.
+ *
+ * @author William F. Gilreath (wfgilreath@yahoo.com)
+ * @version 2.1  6/26/19
+ *
+ * Copyright © 2019 All Rights Reserved.
+ *
+ * License: This software is subject to the terms of the GNU General Public License (GPL)
+ *     version 3.0 available at the following link: http://www.gnu.org/copyleft/gpl.html.
+ *
+ * You must accept the terms of the GNU General Public License (GPL) license agreement
+ *     to use this software.
+ *
+ **/
+package will.wejac;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.processing.Processor;
+
+final class ProcessorCache {
+
+    //Javac compiler parameters with the processor path, else the class path, of the annotation processors
+    private final static List<String> PROCESSOR_PATH = Arrays.asList("-processorpath", "--processor-path");
+    private final static List<String> CLASS_PATH     = Arrays.asList("-cp", "-classpath", "--class-path");
+
+    private final static String PROCESSOR   = "-processor";              //names of the processors to run
+    private final static String PROC_NONE   = "-proc:none";              //no annotation processing
+    private final static String MODULE_PATH = "--processor-module-path"; //processors loaded by javac as modules
+    private final static String OUTPUT_DIR  = "-d";                      //output directory of the class files
+
+    //class loader and processor classes of each processor path and processor names, for the compiler process
+    private final static ConcurrentMap<String, ProcessorCache> CACHE = new ConcurrentHashMap<>();
+
+    private final String                           fingerprint; //hash of name, size, and modified time of files
+    private final List<Class<? extends Processor>> types;       //processor classes in the order to run
+
+    /**
+     * Private constructor for the processor classes loaded from a processor path.
+     *
+     * @param fingerprint - hash of the name, size, and modified time of each file of the processor path.
+     * @param types       - processor classes in the order to run.
+     */
+    private ProcessorCache(final String fingerprint, final List<Class<? extends Processor>> types) {
+
+        this.fingerprint = fingerprint;
+        this.types       = types;
+
+    }//end constructor
+
+    /**
+     * Check if the Javac compiler parameters run annotation processors of a processor path or named processors,
+     * which are then loaded by this cache. Processors found only by javac on the class path, or on a processor
+     * module path, are loaded by javac for each compilation task as before.
+     *
+     * @param param    - Javac compiler parameters implicit and explicit.
+     * @return boolean - true if the processors are loaded by this cache.
+     */
+    static boolean isProcessing(final List<String> param) {
+
+        if (param.contains(PROC_NONE) || param.contains(MODULE_PATH)) {
+            return false;
+        }//end if
+
+        return param.contains(PROCESSOR) || getOption(param, PROCESSOR_PATH) != null;
+
+    }//end isProcessing
+
+    /**
+     * Get new instances of the annotation processors of the Javac compiler parameters for a compilation task. The
+     * class loader and processor classes are loaded once for each processor path and kept until a file of the path
+     * changes, so each task starts with processors already loaded, linked, and initialized. The instances are new
+     * for each task, as a processor is initialized by only one task. The fingerprint of the processor path is
+     * computed once for a compiler run by getFingerprint, so no task walks the processor path again.
+     *
+     * @param param       - Javac compiler parameters implicit and explicit.
+     * @param fingerprint - fingerprint of the processors of the compiler run from getFingerprint.
+     * @return List       - the processors to run, or null for javac to load and report the processors itself.
+     * @throws IOException - if the processor path cannot be read.
+     */
+    static List<Processor> getProcessors(final List<String> param, final String fingerprint) throws IOException {
+
+        String names = getOption(param, Collections.singletonList(PROCESSOR));
+        String key   = names + '\0' + getPathOption(param);
+
+        ProcessorCache entry = CACHE.get(key);
+
+        try {
+
+            if (entry == null || !entry.fingerprint.equals(fingerprint)) {
+
+                //a replaced class loader is not closed, as a task on another thread may still load from it
+                entry = new ProcessorCache(fingerprint, loadTypes(getPath(param), names));
+                CACHE.put(key, entry);
+
+            }//end if
+
+            List<Processor> processors = new ArrayList<>(entry.types.size());
+
+            for (Class<? extends Processor> type : entry.types) {
+                processors.add(type.getDeclaredConstructor().newInstance());
+            }//end for
+
+            return processors;
+
+        } catch (ReflectiveOperationException | ServiceConfigurationError | LinkageError ex) {
+            return null;
+        }//end try
+
+    }//end getProcessors
+
+    /**
+     * Get the fingerprint of the annotation processors of the Javac compiler parameters, computed once for a
+     * compiler run, to reload changed processors, and for the configuration of an incremental compile, so a
+     * changed processor compiles all the Java source files again.
+     *
+     * @param param   - Javac compiler parameters implicit and explicit.
+     * @return String - the fingerprint, or empty if the processors are not loaded by this cache.
+     * @throws IOException - if the processor path cannot be read.
+     */
+    static String getFingerprint(final List<String> param) throws IOException {
+
+        if (!isProcessing(param)) {
+            return "";
+        }//end if
+
+        return BuildManifest.hash(getFingerprint(getPath(param), param).getBytes(StandardCharsets.UTF_8));
+
+    }//end getFingerprint
+
+    /**
+     * Load the processor classes of a processor path, by name in the order given, or else each processor of the
+     * path found as a service provider, as javac does.
+     *
+     * @param path   - files of the processor path.
+     * @param names  - comma separated names of the processors, or null to find them as service providers.
+     * @return List  - the processor classes in the order to run.
+     * @throws ReflectiveOperationException - if a processor class cannot be loaded.
+     * @throws IOException - if a file of the path has no URL.
+     */
+    private static List<Class<? extends Processor>> loadTypes(final List<File> path, final String names)
+            throws ReflectiveOperationException, IOException {
+
+        URL[] urls = new URL[path.size()];
+
+        for (int x = 0; x < urls.length; x++) {
+            urls[x] = path.get(x).toURI().toURL();
+        }//end for
+
+        ClassLoader loader = new URLClassLoader(urls, FileManagerPool.getCompiler().getClass().getClassLoader());
+
+        List<Class<? extends Processor>> types = new ArrayList<>();
+
+        if (names != null) {
+
+            for (String name : names.split(",")) {
+                types.add(Class.forName(name.trim(), true, loader).asSubclass(Processor.class));
+            }//end for
+
+        } else {
+
+            Iterator<ServiceLoader.Provider<Processor>> providers =
+                ServiceLoader.load(Processor.class, loader).stream().iterator();
+
+            while (providers.hasNext()) {
+                types.add(providers.next().type());
+            }//end while
+
+        }//end if
+
+        return Collections.unmodifiableList(types);
+
+    }//end loadTypes
+
+    /**
+     * Get the files of the processor path of the Javac compiler parameters, the processor path, or else the class
+     * path as javac does, with each wildcard entry expanded to the archives of its directory.
+     *
+     * @param param - Javac compiler parameters implicit and explicit.
+     * @return List - the absolute files of the processor path.
+     * @throws IOException - if a wildcard directory cannot be read.
+     */
+    private static List<File> getPath(final List<String> param) throws IOException {
+
+        List<File> files = new ArrayList<>();
+
+        for (String entry : getPathOption(param).split(File.pathSeparator)) {
+
+            if (entry.endsWith("*")) {
+
+                Path dir = Paths.get(entry.substring(0, entry.length() - 1));
+
+                if (Files.isDirectory(dir)) {
+
+                    List<File> archives = new ArrayList<>();
+
+                    try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*.{jar,JAR}")) {
+                        for (Path archive : stream) {
+                            archives.add(archive.toAbsolutePath().toFile());
+                        }//end for
+                    }//end try
+
+                    Collections.sort(archives);
+                    files.addAll(archives);
+
+                }//end if
+
+            } else {
+                files.add(new File(entry.isEmpty() ? "." : entry).getAbsoluteFile());
+            }//end if
+
+        }//end for
+
+        return files;
+
+    }//end getPath
+
+    /**
+     * Get the processor path of the Javac compiler parameters as given, the processor path, or else the class path
+     * as javac does.
+     *
+     * @param param   - Javac compiler parameters implicit and explicit.
+     * @return String - the processor path.
+     */
+    private static String getPathOption(final List<String> param) {
+
+        String path = getOption(param, PROCESSOR_PATH);
+
+        if (path == null) {
+            path = getOption(param, CLASS_PATH);
+        }//end if
+
+        if (path == null) {
+            path = System.getenv("CLASSPATH") == null ? "." : System.getenv("CLASSPATH");
+        }//end if
+
+        return path;
+
+    }//end getPathOption
+
+    /**
+     * Get the name, size, and modified time of each file of a processor path, and of each file in a directory of
+     * the path and its subdirectories. The output directory of the class files is left out, as its class files
+     * are written by the compile and not read by the processors.
+     *
+     * @param path    - files of the processor path.
+     * @param param   - Javac compiler parameters implicit and explicit.
+     * @return String - the fingerprint of the processor path.
+     * @throws IOException - if a directory of the path cannot be read.
+     */
+    private static String getFingerprint(final List<File> path, final List<String> param) throws IOException {
+
+        Path          output = param.contains(OUTPUT_DIR) ? BuildManifest.getOutputDirectory(param).toAbsolutePath()
+                                                         : null;
+        StringBuilder text   = new StringBuilder(getOption(param, Collections.singletonList(PROCESSOR)) + "\0");
+
+        for (File entry : path) {
+
+            List<Path> files = new ArrayList<>(Collections.singletonList(entry.toPath()));
+
+            for (int x = 0; x < files.size(); x++) {
+
+                Path file = files.get(x);
+
+                if (output != null && file.normalize().equals(output.normalize())) {
+                    continue;
+                }//end if
+
+                if (Files.isDirectory(file)) {
+
+                    List<Path> list = new ArrayList<>();
+
+                    try (DirectoryStream<Path> stream = Files.newDirectoryStream(file)) {
+                        for (Path child : stream) {
+                            list.add(child);
+                        }//end for
+                    }//end try
+
+                    Collections.sort(list);
+                    files.addAll(list);
+
+                } else if (Files.isRegularFile(file)) {
+
+                    BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+
+                    text.append(file).append('\0').append(attrs.size()).append('\0');
+                    text.append(attrs.lastModifiedTime().toMillis()).append('\0');
+
+                }//end if
+
+            }//end for
+
+        }//end for
+
+        return text.toString();
+
+    }//end getFingerprint
+
+    /**
+     * Get the value of the last of the Javac compiler parameters given as options.
+     *
+     * @param param   - Javac compiler parameters implicit and explicit.
+     * @param options - names of the options, any of which gives the value.
+     * @return String - the value of the last of the options, or null if none is given.
+     */
+    private static String getOption(final List<String> param, final List<String> options) {
+
+        String value = null;
+
+        for (int x = 0; x + 1 < param.size(); x++) {
+
+            if (options.contains(param.get(x))) {
+                value = param.get(x + 1);
+                x++;
+            }//end if
+
+        }//end for
+
+        return value;
+
+    }//end getOption
+
+}//end class ProcessorCache
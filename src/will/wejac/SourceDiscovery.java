@@ -0,0 +1,512 @@
+/*
+ * @(#)SourceDiscovery.java
+ *
+ * Title: WEJAC - Will's Elided Java Api Compiler.
+ *
+ * Description: Discovery of the Java source files given as files, directories, glob patterns, and @argfile
+ *     lists, walking directories lazily while the found Java source files are verified concurrently.
+ *
+ * @author William F. Gilreath (wfgilreath@yahoo.com)
+ * @version 2.1  6/26/19
+ *
+ * Copyright © 2019 All Rights Reserved.
+ *
+ * License: This software is subject to the terms of the GNU General Public License (GPL)
+ *     version 3.0 available at the following link: http://www.gnu.org/copyleft/gpl.html.
+ *
+ * You must accept the terms of the GNU General Public License (GPL) license agreement
+ *     to use this software.
+ *
+ **/
+package will.wejac;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+final class SourceDiscovery {
+
+    final static long   FILE_SIZE_MINIMUM = 10;      //smallest java file size is 10-bytes
+    final static String FILE_SOURCE_EXT   = ".java"; //Java source file extension
+
+    private final static String ERROR_FILE_EXT    = "File: '%s' does not have '.java' extension.";
+    private final static String ERROR_FILE_EXIST  = "File: '%s' does not exist.";
+    private final static String ERROR_FILE_READ   = "File: '%s' is not readable.";
+    private final static String ERROR_FILE_SMALL  = "File: '%s' is too small.";
+    private final static String ERROR_FILE_VERIFY = "Verify File Exception: '%s' is '%s'.";
+    private final static String ERROR_NO_MATCH    = "No Java source files found for: '%s'.";
+    private final static String ERROR_ARGFILE     = "Argument file: '%s' not read for exception: '%s' is '%s'.";
+    private final static String ERROR_DIRECTORY   = "Directory: '%s' not read for exception: '%s' is '%s'.";
+
+    private final static char   ARGFILE_PREFIX = '@';    //prefix of an argument file of Java source files
+    private final static String GLOB_CHARS     = "*?[{"; //characters of a glob pattern
+    private final static String GLOB_ANY_DIR   = "**/";  //glob pattern of any directories, including none
+
+    private final ForkJoinPool pool;    //threads to verify the Java source files found
+    private final Charset      charset; //character set of the argument files
+
+    private final List<String>         files  = new ArrayList<>(); //Java source files found in order
+    private final Set<Path>            found  = new HashSet<>();   //absolute path of each Java source file found
+    private final Set<Path>            walked = new HashSet<>();   //real path of each directory walked by a source
+    private final List<Future<String>> checks = new ArrayList<>(); //problem of each source found, or null
+
+    private boolean problemFlag = false; //set when a source is not found, to stop discovery
+
+    /**
+     * Constructor for the discovery of Java source files, verified concurrently on all cores.
+     *
+     * @param charset - character set of the argument files.
+     */
+    SourceDiscovery(final Charset charset) {
+
+        this.pool    = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        this.charset = charset;
+
+    }//end constructor
+
+    /**
+     * Verify a Java source file exists, is readable, and is of minimum file size to compile.
+     *
+     * @param path    - path of the Java source file.
+     * @return String - the problem with the Java source file, or null if none.
+     */
+    static String verifyFile(final Path path) {
+
+        try {
+
+            if (!Files.exists(path)) {
+                return String.format(ERROR_FILE_EXIST, path);
+            } else if (!Files.isReadable(path)) {
+                return String.format(ERROR_FILE_READ, path);
+            } else if (Files.size(path) < FILE_SIZE_MINIMUM) {
+                return String.format(ERROR_FILE_SMALL, path);
+            }//end if
+
+        } catch (IOException ex) {
+            return String.format(ERROR_FILE_VERIFY, ex.getClass().getName(), ex.getMessage());
+        }//end try
+
+        return null;
+
+    }//end verifyFile
+
+    /**
+     * Add the Java source files of a source given on the command line, which is a Java source file, a directory
+     * of Java source files, a glob pattern of Java source files, or an @argfile listing any of these.
+     *
+     * @param source - the source given on the command line.
+     */
+    void add(final String source) {
+
+        if (problemFlag) {
+            return;
+        }//end if
+
+        //an empty source is not the working directory, and has no extension to compile
+        if (source.isEmpty()) {
+            this.addProblem(String.format(ERROR_FILE_EXT, source));
+        } else if (source.charAt(0) == ARGFILE_PREFIX) {
+            this.addArgumentFile(source.substring(1));
+        } else if (isGlob(source)) {
+            this.addGlob(source);
+        } else if (Files.isDirectory(Paths.get(source))) {
+            this.addDirectory(source);
+        } else if (source.contains(FILE_SOURCE_EXT)) {
+            this.addFile(source);
+        } else {
+            this.addProblem(String.format(ERROR_FILE_EXT, source));
+        }//end if
+
+    }//end add
+
+    /**
+     * Wait for all the Java source files found to be verified, and get the first problem in order of discovery.
+     *
+     * @return String - the first problem with a source, or null if none.
+     */
+    String getProblem() {
+
+        try {
+
+            for (Future<String> check : checks) {
+
+                String problem = check.get();
+
+                if (problem != null) {
+                    return problem;
+                }//end if
+
+            }//end for
+
+        } catch (InterruptedException ex) {
+
+            Thread.currentThread().interrupt();
+            return String.format(ERROR_FILE_VERIFY, ex.getClass().getName(), ex.getMessage());
+
+        } catch (ExecutionException ex) {
+
+            return String.format(ERROR_FILE_VERIFY, ex.getCause().getClass().getName(), ex.getCause().getMessage());
+
+        } finally {
+            pool.shutdownNow();
+        }//end try
+
+        return null;
+
+    }//end getProblem
+
+    /**
+     * Get the Java source files found, in order of discovery.
+     *
+     * @return List - names of the Java source files.
+     */
+    List<String> getFiles() {
+
+        return Collections.unmodifiableList(files);
+
+    }//end getFiles
+
+    /**
+     * Add a Java source file not found before, and verify it concurrently with the discovery of the sources
+     * following it.
+     *
+     * @param fileName - name of the Java source file.
+     */
+    private void addFile(final String fileName) {
+
+        //a Java source file found again, such as in a directory and by a glob pattern, is compiled only once
+        if (!found.add(Paths.get(fileName).toAbsolutePath().normalize())) {
+            return;
+        }//end if
+
+        files.add(fileName);
+        checks.add(pool.submit(new Callable<String>() {
+
+            @Override
+            public String call() {
+                return verifyFile(Paths.get(fileName));
+            }//end call
+
+        }));
+
+    }//end addFile
+
+    /**
+     * Add a problem with a source in order of discovery, and stop the discovery of further sources.
+     *
+     * @param problem - the problem with the source.
+     */
+    private void addProblem(final String problem) {
+
+        FutureTask<String> check = new FutureTask<>(new Callable<String>() {
+
+            @Override
+            public String call() {
+                return problem;
+            }//end call
+
+        });
+
+        check.run();
+        checks.add(check);
+
+        problemFlag = true;
+
+    }//end addProblem
+
+    /**
+     * Add each source listed one per line in an argument file, skipping blank lines and # comment lines.
+     *
+     * @param fileName - name of the argument file.
+     */
+    private void addArgumentFile(final String fileName) {
+
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(fileName), charset)) {
+
+            String line;
+
+            while ((line = reader.readLine()) != null && !problemFlag) {
+
+                line = line.trim();
+
+                if (line.length() > 1 && line.charAt(0) == '"' && line.charAt(line.length() - 1) == '"') {
+                    line = line.substring(1, line.length() - 1);
+                }//end if
+
+                if (!line.isEmpty() && line.charAt(0) != '#') {
+                    this.add(line);
+                }//end if
+
+            }//end while
+
+        } catch (IOException ex) {
+            this.addProblem(String.format(ERROR_ARGFILE, fileName, ex.getClass().getName(), ex.getMessage()));
+        }//end try
+
+    }//end addArgumentFile
+
+    /**
+     * Add the Java source files in a directory and all its subdirectories.
+     *
+     * @param dirName - name of the directory.
+     */
+    private void addDirectory(final String dirName) {
+
+        int count = files.size();
+
+        walked.clear();
+        this.walk(Paths.get(dirName), null, null, Integer.MAX_VALUE);
+
+        if (files.size() == count && !problemFlag) {
+            this.addProblem(String.format(ERROR_NO_MATCH, dirName));
+        }//end if
+
+    }//end addDirectory
+
+    /**
+     * Add the Java source files matching a glob pattern, such as src/**&#47;*.java, walking only the directory
+     * before the first glob character, and only as deep as the pattern unless it has a ** of any directories.
+     *
+     * @param glob - the glob pattern.
+     */
+    private void addGlob(final String glob) {
+
+        int count = files.size();
+
+        this.walkGlob(glob);
+
+        if (files.size() == count && !problemFlag) {
+            this.addProblem(String.format(ERROR_NO_MATCH, glob));
+        }//end if
+
+    }//end addGlob
+
+    /**
+     * Add the Java source files of a directory or glob pattern source given on the command line again, while
+     * watching for new Java source files, with no problem if it has no Java source files now. Any other source
+     * names the same Java source files as before, so it is skipped.
+     *
+     * @param source - the source given on the command line.
+     */
+    void addAgain(final String source) {
+
+        if (problemFlag || source.isEmpty() || source.charAt(0) == ARGFILE_PREFIX) {
+            return;
+        }//end if
+
+        if (isGlob(source)) {
+            this.walkGlob(source);
+        } else if (Files.isDirectory(Paths.get(source))) {
+            walked.clear();
+            this.walk(Paths.get(source), null, null, Integer.MAX_VALUE);
+        }//end if
+
+    }//end addAgain
+
+    /**
+     * Get the directory walked for the Java source files of a directory or glob pattern source given on the
+     * command line, so it can be watched for new Java source files.
+     *
+     * @param source - the source given on the command line.
+     * @return Path  - the directory walked, or null for a Java source file or an @argfile.
+     */
+    static Path getDirectory(final String source) {
+
+        if (source.isEmpty() || source.charAt(0) == ARGFILE_PREFIX) {
+            return null;
+        } else if (isGlob(source)) {
+            return getGlobBase(source).toString().isEmpty() ? Paths.get(".") : getGlobBase(source);
+        } else if (Files.isDirectory(Paths.get(source))) {
+            return Paths.get(source);
+        }//end if
+
+        return null;
+
+    }//end getDirectory
+
+    /**
+     * Get the base directory of a glob pattern, the directory before the first glob character.
+     *
+     * @param glob  - the glob pattern.
+     * @return Path - the base directory, or an empty path for the working directory.
+     */
+    private static Path getGlobBase(final String glob) {
+
+        int split = getGlobSplit(glob);
+
+        return split < 0 ? Paths.get("") : Paths.get(glob.substring(0, split + 1));
+
+    }//end getGlobBase
+
+    /**
+     * Get the position of the last separator before the first glob character of a glob pattern.
+     *
+     * @param glob - the glob pattern.
+     * @return int - the position of the separator, or -1 if none.
+     */
+    private static int getGlobSplit(final String glob) {
+
+        int first = glob.length();
+
+        for (char c : GLOB_CHARS.toCharArray()) {
+            if (glob.indexOf(c) >= 0) {
+                first = Math.min(first, glob.indexOf(c));
+            }//end if
+        }//end for
+
+        return Math.max(glob.lastIndexOf('/', first), glob.lastIndexOf(File.separatorChar, first));
+
+    }//end getGlobSplit
+
+    /**
+     * Walk the directory of a glob pattern for the Java source files matching it.
+     *
+     * @param glob - the glob pattern.
+     */
+    private void walkGlob(final String glob) {
+
+        Path   base    = getGlobBase(glob);
+        String pattern = glob.substring(getGlobSplit(glob) + 1).replace(File.separatorChar, '/');
+
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        PathMatcher nested  = pattern.startsWith(GLOB_ANY_DIR)
+                            ? FileSystems.getDefault().getPathMatcher("glob:" + pattern.substring(GLOB_ANY_DIR.length()))
+                            : null;
+
+        int depth = pattern.contains("**") ? Integer.MAX_VALUE : pattern.split("/").length;
+
+        if (Files.isDirectory(base.toString().isEmpty() ? Paths.get(".") : base)) {
+            walked.clear();
+            this.walk(base, base, new PathMatcher[] { matcher, nested }, depth);
+        }//end if
+
+    }//end walkGlob
+
+    /**
+     * Walk a directory lazily, one directory listing at a time in sorted order, adding each Java source file
+     * that matches any of the glob patterns relative to the base directory, or each one if there are no patterns.
+     * A directory reached again through a symbolic link, such as a link to a parent directory, is not walked again.
+     *
+     * @param dir      - the directory to walk.
+     * @param base     - base directory of the glob patterns, or null.
+     * @param matchers - glob patterns to match, or null for all Java source files.
+     * @param depth    - the number of directory levels left to walk.
+     */
+    private void walk(final Path dir, final Path base, final PathMatcher[] matchers, final int depth) {
+
+        List<Path> entries = new ArrayList<>();
+        Path       listed  = dir.toString().isEmpty() ? Paths.get(".") : dir;
+
+        try {
+
+            if (!walked.add(listed.toRealPath())) {
+                return;
+            }//end if
+
+        } catch (IOException ex) {
+
+            this.addProblem(String.format(ERROR_DIRECTORY, dir, ex.getClass().getName(), ex.getMessage()));
+            return;
+
+        }//end try
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(listed)) {
+
+            for (Path entry : stream) {
+                entries.add(dir.resolve(entry.getFileName()));
+            }//end for
+
+        } catch (IOException ex) {
+
+            this.addProblem(String.format(ERROR_DIRECTORY, dir, ex.getClass().getName(), ex.getMessage()));
+            return;
+
+        }//end try
+
+        Collections.sort(entries);
+
+        for (Path entry : entries) {
+
+            if (problemFlag) {
+                return;
+            }//end if
+
+            if (Files.isDirectory(entry)) {
+
+                if (depth > 1) {
+                    this.walk(entry, base, matchers, depth - 1);
+                }//end if
+
+            } else if (entry.getFileName().toString().endsWith(FILE_SOURCE_EXT) && matches(entry, base, matchers)) {
+                this.addFile(entry.toString());
+            }//end if
+
+        }//end for
+
+    }//end walk
+
+    /**
+     * Check if a file matches any of the glob patterns relative to their base directory.
+     *
+     * @param file     - the file.
+     * @param base     - base directory of the glob patterns, or null.
+     * @param matchers - glob patterns to match, or null to match any file.
+     * @return boolean - true if the file matches.
+     */
+    private static boolean matches(final Path file, final Path base, final PathMatcher[] matchers) {
+
+        if (matchers == null) {
+            return true;
+        }//end if
+
+        Path relative = base.relativize(file);
+
+        for (PathMatcher matcher : matchers) {
+            if (matcher != null && matcher.matches(relative)) {
+                return true;
+            }//end if
+        }//end for
+
+        return false;
+
+    }//end matches
+
+    /**
+     * Check if a source given on the command line is a glob pattern.
+     *
+     * @param source   - the source given on the command line.
+     * @return boolean - true if the source has a glob character.
+     */
+    private static boolean isGlob(final String source) {
+
+        for (char c : GLOB_CHARS.toCharArray()) {
+            if (source.indexOf(c) >= 0) {
+                return true;
+            }//end if
+        }//end for
+
+        return false;
+
+    }//end isGlob
+
+}//end class SourceDiscovery
@@ -0,0 +1,167 @@
+/*
+ * @(#)SourceLines.java
+ *
+ * Title: WEJAC - Will's Elided Java Api Compiler.
+ *
+ * Description: Lazy lookup of lines of a Java source file by a line-offset index, loaded on first use.
+ *
+ * @author William F. Gilreath (wfgilreath@yahoo.com)
+ * @version 2.1  6/26/19
+ *
+ * Copyright © 2019 All Rights Reserved.
+ *
+ * License: This software is subject to the terms of the GNU General Public License (GPL)
+ *     version 3.0 available at the following link: http://www.gnu.org/copyleft/gpl.html.
+ *
+ * You must accept the terms of the GNU General Public License (GPL) license agreement
+ *     to use this software.
+ *
+ **/
+package will.wejac;
+
+import java.io.IOException;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import java.util.Arrays;
+import java.util.List;
+
+final class SourceLines {
+
+    private final static long MAP_THRESHOLD = 64 * 1024; //smallest file size to memory-map instead of read
+
+    private final Path    path;    //path of the Java source file
+    private final Charset charset; //character set for decoding the Java source file
+
+    private ByteBuffer   data    = null; //bytes of the Java source file once loaded
+    private int[]        offsets = null; //offset of the start of each line, and the end of the data
+    private List<String> decoded = null; //lines of a Java source file in a charset not compatible with ASCII
+
+    /**
+     * Constructor for lines of a Java source file, which is not read until a line is needed.
+     *
+     * @param path    - path of the Java source file.
+     * @param charset - character set for decoding the Java source file.
+     */
+    SourceLines(final Path path, final Charset charset) {
+
+        this.path    = path;
+        this.charset = charset;
+
+    }//end constructor
+
+    /**
+     * Get a line of the Java source file, decoding only the bytes of that line.
+     *
+     * @param lineNum - the line number within the Java source file, starting from 1.
+     * @return String - the line of the Java source file without its line terminator.
+     * @throws IOException - if the Java source file cannot be read.
+     * @throws IndexOutOfBoundsException - if the line number is not within the Java source file.
+     */
+    String getLine(final long lineNum) throws IOException {
+
+        if (data == null && decoded == null) {
+            this.load();
+        }//end if
+
+        int index = (int) lineNum - 1;
+
+        if (decoded != null) {
+            return decoded.get(index);
+        }//end if
+
+        if (index < 0 || index >= offsets.length - 1) {
+            throw new IndexOutOfBoundsException("Line " + lineNum + " is not in " + path);
+        }//end if
+
+        int start = offsets[index];
+        int close = offsets[index + 1];
+
+        while (close > start && (data.get(close - 1) == '\n' || data.get(close - 1) == '\r')) {
+            close--;
+        }//end while
+
+        ByteBuffer line = data.duplicate();
+        line.limit(close).position(start);
+
+        return charset.decode(line).toString();
+
+    }//end getLine
+
+    /**
+     * Load the Java source file by reading or memory-mapping it, and index the offset of the start of each line.
+     *
+     * @throws IOException - if the Java source file cannot be read.
+     */
+    private void load() throws IOException {
+
+        if (!isAsciiCompatible(charset)) {
+            decoded = Files.readAllLines(path, charset);
+            return;
+        }//end if
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+
+            data = channel.size() < MAP_THRESHOLD
+                 ? ByteBuffer.wrap(Files.readAllBytes(path))
+                 : channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+        }//end try
+
+        int[] index = new int[256];
+        int   count = 0;
+        int   limit = data.limit();
+
+        index[count++] = 0;
+
+        for (int pos = 0; pos < limit; pos++) {
+
+            byte b = data.get(pos);
+
+            if (b == '\r' && pos + 1 < limit && data.get(pos + 1) == '\n') {
+                pos++;
+            } else if (b != '\n' && b != '\r') {
+                continue;
+            }//end if
+
+            if (count == index.length) {
+                index = Arrays.copyOf(index, count * 2);
+            }//end if
+
+            index[count++] = pos + 1;
+
+        }//end for
+
+        if (index[count - 1] != limit) {
+
+            if (count == index.length) {
+                index = Arrays.copyOf(index, count + 1);
+            }//end if
+
+            index[count++] = limit;
+
+        }//end if
+
+        offsets = Arrays.copyOf(index, count);
+
+    }//end load
+
+    /**
+     * Check if a character set encodes line terminators as the single ASCII bytes, so lines are found in bytes.
+     *
+     * @param charset  - the character set.
+     * @return boolean - true if the line terminators are single ASCII bytes.
+     */
+    private static boolean isAsciiCompatible(final Charset charset) {
+
+        return Arrays.equals("\r\n".getBytes(charset), "\r\n".getBytes(StandardCharsets.US_ASCII));
+
+    }//end isAsciiCompatible
+
+}//end class SourceLines